@@ -0,0 +1,261 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.test.file;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.jefftharris.passwdsafe.R;
+import com.jefftharris.passwdsafe.file.PasswdFileData;
+import com.jefftharris.passwdsafe.file.PasswdRecordFilter;
+import com.jefftharris.passwdsafe.test.util.TestFileDataRule;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.pwsafe.lib.file.PwsRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for the fuzzy index through the matches of fuzzy query filters
+ */
+public class PasswdFuzzyIndexTest
+{
+    @Rule
+    public final TestFileDataRule itsFile = new TestFileDataRule();
+
+    private String itsTitleMatch;
+    private String itsUsernameMatch;
+    private String itsUrlMatch;
+
+    @Before
+    public void setUp()
+    {
+        Context ctx = itsFile.getContext();
+        PasswdRecordFilter.initMatches(ctx);
+        itsTitleMatch = ctx.getString(R.string.title);
+        itsUsernameMatch = ctx.getString(R.string.username);
+        itsUrlMatch = ctx.getString(R.string.url);
+    }
+
+    /**
+     * Test matching words with typos
+     */
+    @Test
+    public void testTypos()
+    {
+        PwsRecord amazon = itsFile.addRecord("Amazon", null, null, null,
+                                             null, null);
+        PwsRecord github = itsFile.addRecord("GitHub", null, null, null,
+                                             null, null);
+        PwsRecord insurance = itsFile.addRecord("Car Insurance", null, null,
+                                                null, null, null);
+
+        // Exact prefix
+        assertMatch("amaz", amazon, itsTitleMatch);
+        // Deletion
+        assertMatch("amazn", amazon, itsTitleMatch);
+        // Transposition
+        assertMatch("gihtub", github, itsTitleMatch);
+        // Substitution
+        assertMatch("AMAXON", amazon, itsTitleMatch);
+        // Edits in a long word
+        assertMatch("insurnace", insurance, itsTitleMatch);
+        assertMatch("insuranse", insurance, itsTitleMatch);
+        assertMatch("ensurnace", insurance, itsTitleMatch);
+
+        // Short words must match exactly
+        assertNoMatches("gth");
+        assertNoMatches("amx");
+        // Too many edits
+        assertNoMatches("amxzn");
+        assertNoMatches("x");
+    }
+
+    /**
+     * Test the fields of the matches
+     */
+    @Test
+    public void testFields()
+    {
+        PwsRecord rec = itsFile.addRecord("Bank", "jdoe", "bank.example.com",
+                                          "jdoe@example.com", "Account",
+                                          "Finance");
+
+        assertMatch("bakn", rec, itsTitleMatch);
+        assertMatch("jdoo", rec, itsUsernameMatch);
+        assertMatch("exampel", rec, itsUrlMatch);
+
+        // Email, notes, and group aren't indexed
+        assertNoMatches("acount");
+        assertNoMatches("finanse");
+    }
+
+    /**
+     * Test queries with more than one word
+     */
+    @Test
+    public void testWords()
+    {
+        PwsRecord bofa = itsFile.addRecord("Bank of America", "jdoe", null,
+                                           null, null, null);
+        PwsRecord amazon = itsFile.addRecord("Amazon", "jdoe", null, null,
+                                             null, null);
+
+        assertMatch("bank amer", bofa, itsTitleMatch);
+        assertMatch("amrica, bamk", bofa, itsTitleMatch);
+        assertNoMatches("bank amazon");
+
+        PasswdRecordFilter filter = createFilter("jdoe amaz");
+        assertNull(filterRecord(filter, bofa));
+        assertNotNull(filterRecord(filter, amazon));
+    }
+
+    /**
+     * Test that the closest matches are the first candidates
+     */
+    @Test
+    public void testOrder()
+    {
+        PwsRecord bamk = itsFile.addRecord("Bamk", null, null, null, null,
+                                           null);
+        PwsRecord bank1 = itsFile.addRecord("Bank", null, null, null, null,
+                                            null);
+        PwsRecord bank2 = itsFile.addRecord("Bank 2", null, null, null, null,
+                                            null);
+        PwsRecord mail = itsFile.addRecord("Mail", null, null, null, null,
+                                           null);
+
+        assertEquals(Arrays.asList(bank1, bank2, bamk),
+                     getCandidates(createFilter("bank")));
+        assertEquals(Arrays.asList(bamk, bank1, bank2),
+                     getCandidates(createFilter("bamk")));
+        assertNull(filterRecord(createFilter("bank"), mail));
+    }
+
+    /**
+     * Test that a filter's matches follow changes to the records
+     */
+    @Test
+    public void testInvalidate()
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        PwsRecord rec = itsFile.addRecord("Bank", "jdoe", null, null, null,
+                                          null);
+        PasswdRecordFilter bankFilter = createFilter("bakn");
+        PasswdRecordFilter creditFilter = createFilter("credti");
+        PasswdRecordFilter smithFilter = createFilter("jsmith");
+
+        assertMatch(bankFilter, rec, itsTitleMatch);
+        assertNoMatches(creditFilter);
+
+        fileData.setTitle("Credit Union", rec);
+        assertNoMatches(bankFilter);
+        assertMatch(creditFilter, rec, itsTitleMatch);
+
+        // Changes before the matches are found again
+        fileData.setUsername("jsmith", rec);
+        fileData.setUsername("jsmyth", rec);
+        assertMatch(smithFilter, rec, itsUsernameMatch);
+
+        PwsRecord bank = itsFile.addRecord("Bank", null, null, null, null,
+                                           null);
+        assertMatch(bankFilter, bank, itsTitleMatch);
+    }
+
+    /**
+     * Assert a query matches only a record
+     * @param field The expected match field; null for any
+     */
+    private void assertMatch(@NonNull String query,
+                             @NonNull PwsRecord rec,
+                             String field)
+    {
+        assertMatch(createFilter(query), rec, field);
+    }
+
+    /**
+     * Assert a filter matches only a record, which is its first candidate
+     * @param field The expected match field; null for any
+     */
+    private void assertMatch(@NonNull PasswdRecordFilter filter,
+                             @NonNull PwsRecord rec,
+                             String field)
+    {
+        assertEquals(rec, getCandidates(filter).get(0));
+        for (PwsRecord fileRec: itsFile.getFileData().getRecords()) {
+            String match = filterRecord(filter, fileRec);
+            if (fileRec != rec) {
+                assertNull(match);
+            } else if (field != null) {
+                assertEquals(field, match);
+            } else {
+                assertNotNull(match);
+            }
+        }
+    }
+
+    /**
+     * Assert a query has no matches
+     */
+    private void assertNoMatches(@NonNull String query)
+    {
+        assertNoMatches(createFilter(query));
+    }
+
+    /**
+     * Assert a filter has no matches
+     */
+    private void assertNoMatches(@NonNull PasswdRecordFilter filter)
+    {
+        for (PwsRecord rec: itsFile.getFileData().getRecords()) {
+            assertNull(filterRecord(filter, rec));
+        }
+    }
+
+    /**
+     * Create a fuzzy filter for a query
+     */
+    @NonNull
+    private static PasswdRecordFilter createFilter(@NonNull String query)
+    {
+        return new PasswdRecordFilter(
+                Pattern.compile(query,
+                                Pattern.CASE_INSENSITIVE | Pattern.LITERAL),
+                true, PasswdRecordFilter.OPTS_DEFAULT);
+    }
+
+    /**
+     * Get the candidate records of a filter
+     */
+    @NonNull
+    private List<PwsRecord> getCandidates(@NonNull PasswdRecordFilter filter)
+    {
+        return new ArrayList<>(filter.getCandidateRecords(
+                itsFile.getFileData(), itsFile.getContext()));
+    }
+
+    /**
+     * Filter a record
+     */
+    private String filterRecord(@NonNull PasswdRecordFilter filter,
+                                @NonNull PwsRecord rec)
+    {
+        return filter.filterRecord(rec, itsFile.getFileData(),
+                                   itsFile.getContext());
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.test.file;
+
+import androidx.annotation.NonNull;
+
+import com.jefftharris.passwdsafe.file.PasswdFileData;
+import com.jefftharris.passwdsafe.file.PasswdRecord;
+import com.jefftharris.passwdsafe.lib.ActContext;
+import com.jefftharris.passwdsafe.test.util.TestFileDataRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.pwsafe.lib.UUID;
+import org.pwsafe.lib.file.PwsFieldTypeV3;
+import org.pwsafe.lib.file.PwsRecord;
+import org.pwsafe.lib.file.PwsUUIDField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the PasswdRecordUuidMap through the record lookups and
+ * references of the file data
+ */
+public class PasswdRecordUuidMapTest
+{
+    @Rule
+    public final TestFileDataRule itsFile = new TestFileDataRule();
+
+    /**
+     * Test looking up many records
+     */
+    @Test
+    public void testManyRecords()
+    {
+        Random rand = new Random(1234);
+        List<PwsRecord> recs = new ArrayList<>();
+        for (int i = 0; i < 256; ++i) {
+            recs.add(addRecord(randomUuid(rand)));
+        }
+        verifyRecords(recs);
+        assertNull(getRecord(randomUuid(rand)));
+    }
+
+    /**
+     * Test UUIDs whose halves differ in few bits, as with the time fields of
+     * generated UUIDs
+     */
+    @Test
+    public void testCollisions()
+    {
+        List<PwsRecord> recs = new ArrayList<>();
+        for (int i = 0; i < 16; ++i) {
+            for (long[] halves: new long[][]{
+                    {i, 0}, {0, i + 1}, {i, i}, {(long)i << 60, 0},
+                    {0x123456789abcdefL, ((long)i << 32) | 7}}) {
+                UUID uuid = createUuid(halves[0], halves[1]);
+                if (getRecord(uuid) == null) {
+                    recs.add(addRecord(uuid));
+                }
+            }
+        }
+        verifyRecords(recs);
+        assertNull(getRecord(createUuid(16, 0)));
+        assertNull(getRecord(createUuid(0, 18)));
+        assertNull(getRecord(createUuid(16, 16)));
+    }
+
+    /**
+     * Test records with the same UUID
+     */
+    @Test
+    public void testDuplicates()
+    {
+        UUID uuid = createUuid(1, 2);
+        PwsRecord rec1 = addRecord(uuid);
+        assertSame(rec1, getRecord(uuid));
+        PwsRecord rec2 = addRecord(uuid);
+        assertSame(rec2, getRecord(uuid));
+    }
+
+    /**
+     * Test looking up records by their formatted UUID in mixed case
+     */
+    @Test
+    public void testFormattedLookups()
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        UUID uuid = createUuid(0x0123456789abcdefL, 0xfedcba9876543210L);
+        PwsRecord rec = addRecord(uuid);
+
+        String str = uuid.toString();
+        assertSame(rec, fileData.getRecord(str));
+        assertSame(rec, fileData.getRecord(str.toUpperCase(Locale.US)));
+        assertSame(rec, fileData.getRecord(str.toLowerCase(Locale.US)));
+        assertSame(rec, fileData.getRecord(
+                "{01234567-89AB-cdef-FEDC-ba9876543210}"));
+
+        assertNull(fileData.getRecord(null));
+        assertNull(fileData.getRecord(""));
+        assertNull(fileData.getRecord(
+                "{01234567-89ab-cdef-fedc-ba987654321}"));
+        assertNull(fileData.getRecord(
+                "{01234567-89ab-cdef-fedc-ba987654321g}"));
+        assertNull(fileData.getRecord(
+                "{01234567-89ab-cdef-fedc_ba9876543210}"));
+        assertNull(fileData.getRecord(
+                "01234567-89ab-cdef-fedc-ba9876543210"));
+        assertNull(fileData.getRecord(
+                "{01234567-89ab-cdef-fedc-ba9876543211}"));
+    }
+
+    /**
+     * Test resolving alias and shortcut reference passwords in mixed case
+     */
+    @Test
+    public void testRefLookups()
+    {
+        UUID uuid = createUuid(0x0123456789abcdefL, 0xfedcba9876543210L);
+        PwsRecord rec = addRecord(uuid);
+        addRecord(createUuid(0x0123456789abcdefL, 0));
+        PwsRecord refRec = addRecord(createUuid(1, 2));
+
+        String hex = "0123456789abcdeffedcba9876543210";
+        String upperHex = hex.toUpperCase(Locale.US);
+        String mixedHex = "0123456789ABCDEFfedcba9876543210";
+        for (String refHex: new String[]{hex, upperHex, mixedHex}) {
+            assertRef("[[" + refHex + "]]", refRec, rec,
+                      PasswdRecord.Type.ALIAS);
+            assertRef("[~" + refHex + "~]", refRec, rec,
+                      PasswdRecord.Type.SHORTCUT);
+        }
+
+        assertNoRef("[[]]", refRec);
+        assertNoRef("[[" + hex.substring(1) + "]]", refRec);
+        assertNoRef("[[" + hex + "0]]", refRec);
+        assertNoRef("[[" + hex.replace('a', 'g') + "]]", refRec);
+        assertNoRef("[[" + hex.replace('0', '1') + "]]", refRec);
+        assertNoRef("[[" + uuid + "]]", refRec);
+    }
+
+    /**
+     * Test that removed records are no longer found
+     */
+    @Test
+    public void testRemove()
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        UUID uuid1 = createUuid(1, 2);
+        UUID uuid2 = createUuid(3, 4);
+        PwsRecord rec1 = addRecord(uuid1);
+        PwsRecord rec2 = addRecord(uuid2);
+
+        assertTrue(fileData.removeRecord(
+                rec1, new ActContext(itsFile.getContext())));
+        assertNull(getRecord(uuid1));
+        assertSame(rec2, getRecord(uuid2));
+
+        PwsRecord rec3 = addRecord(uuid1);
+        assertSame(rec3, getRecord(uuid1));
+    }
+
+    /**
+     * Assert a password references a record
+     */
+    private void assertRef(@NonNull String passwd,
+                           @NonNull PwsRecord rec,
+                           @NonNull PwsRecord ref,
+                           @NonNull PasswdRecord.Type type)
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        fileData.setPassword(null, passwd, rec);
+        PasswdRecord passwdRec = fileData.getPasswdRecord(rec);
+        assertEquals(passwd, type, passwdRec.getType());
+        assertSame(passwd, ref, passwdRec.getRef());
+    }
+
+    /**
+     * Assert a password doesn't reference a record
+     */
+    private void assertNoRef(@NonNull String passwd, @NonNull PwsRecord rec)
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        fileData.setPassword(null, passwd, rec);
+        PasswdRecord passwdRec = fileData.getPasswdRecord(rec);
+        assertEquals(passwd, PasswdRecord.Type.NORMAL, passwdRec.getType());
+        assertNull(passwd, passwdRec.getRef());
+    }
+
+    /**
+     * Verify the records can be found by their formatted UUIDs and
+     * references
+     */
+    private void verifyRecords(@NonNull List<PwsRecord> recs)
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        PwsRecord refRec = addRecord(new UUID());
+        for (PwsRecord rec: recs) {
+            String str = fileData.getUUID(rec);
+            assertSame(str, rec, fileData.getRecord(str));
+            assertSame(str, rec,
+                       fileData.getRecord(str.toUpperCase(Locale.US)));
+
+            String hex = str.replaceAll("[{}-]", "");
+            assertRef("[[" + hex + "]]", refRec, rec,
+                      PasswdRecord.Type.ALIAS);
+            assertRef("[~" + hex.toUpperCase(Locale.US) + "~]", refRec, rec,
+                      PasswdRecord.Type.SHORTCUT);
+        }
+    }
+
+    /**
+     * Add a record with a UUID to the file
+     */
+    @NonNull
+    private PwsRecord addRecord(@NonNull UUID uuid)
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        PwsRecord rec = fileData.createRecord();
+        rec.setField(new PwsUUIDField(PwsFieldTypeV3.UUID, uuid));
+        fileData.setTitle(uuid.toString(), rec);
+        fileData.addRecord(rec);
+        return rec;
+    }
+
+    /**
+     * Get the record with a UUID
+     */
+    private PwsRecord getRecord(@NonNull UUID uuid)
+    {
+        return itsFile.getFileData().getRecord(uuid.toString());
+    }
+
+    /**
+     * Create a random UUID
+     */
+    @NonNull
+    private static UUID randomUuid(@NonNull Random rand)
+    {
+        return createUuid(rand.nextLong(), rand.nextLong());
+    }
+
+    /**
+     * Create a UUID from its halves
+     */
+    @NonNull
+    private static UUID createUuid(long high, long low)
+    {
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; ++i) {
+            bytes[7 - i] = (byte)(high >>> (8 * i));
+            bytes[15 - i] = (byte)(low >>> (8 * i));
+        }
+        return new UUID(bytes);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.test.file;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.jefftharris.passwdsafe.R;
+import com.jefftharris.passwdsafe.file.PasswdFileData;
+import com.jefftharris.passwdsafe.file.PasswdReuseReport;
+import com.jefftharris.passwdsafe.lib.ActContext;
+import com.jefftharris.passwdsafe.test.util.TestFileDataRule;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.pwsafe.lib.file.PwsRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for PasswdReuseReport
+ */
+public class PasswdReuseReportTest
+{
+    @Rule
+    public final TestFileDataRule itsFile = new TestFileDataRule();
+
+    private PasswdReuseReport itsReport;
+    private String itsGroup1;
+    private String itsGroup2;
+
+    @Before
+    public void setUp()
+    {
+        Context ctx = itsFile.getContext();
+        itsReport = new PasswdReuseReport();
+        itsGroup1 = ctx.getString(R.string.reused_password_group, 1);
+        itsGroup2 = ctx.getString(R.string.reused_password_group, 2);
+    }
+
+    /**
+     * Test the groups of records sharing a password
+     */
+    @Test
+    public void testGroups()
+    {
+        PwsRecord bank = addRecord("Bank", "one");
+        PwsRecord mail = addRecord("Mail", "two");
+        PwsRecord shop = addRecord("Shop", "one");
+        PwsRecord wifi = addRecord("Wifi", "two");
+        PwsRecord work = addRecord("Work", "three");
+        PwsRecord empty1 = addRecord("Empty 1", null);
+        PwsRecord empty2 = addRecord("Empty 2", null);
+
+        assertEquals(itsGroup1, getMatch(bank));
+        assertEquals(itsGroup2, getMatch(mail));
+        assertEquals(itsGroup1, getMatch(shop));
+        assertEquals(itsGroup2, getMatch(wifi));
+        assertNull(getMatch(work));
+        assertNull(getMatch(empty1));
+        assertNull(getMatch(empty2));
+    }
+
+    /**
+     * Test that the report follows edits to the passwords
+     */
+    @Test
+    public void testEditPassword()
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        PwsRecord bank = addRecord("Bank", "one");
+        PwsRecord mail = addRecord("Mail", "two");
+        PwsRecord shop = addRecord("Shop", "one");
+
+        assertEquals(itsGroup1, getMatch(bank));
+        assertNull(getMatch(mail));
+        assertEquals(itsGroup1, getMatch(shop));
+
+        fileData.setPassword(null, "two", bank);
+        assertEquals(itsGroup1, getMatch(bank));
+        assertEquals(itsGroup1, getMatch(mail));
+        assertNull(getMatch(shop));
+
+        fileData.setPassword(null, "three", mail);
+        assertNull(getMatch(bank));
+        assertNull(getMatch(mail));
+        assertNull(getMatch(shop));
+    }
+
+    /**
+     * Test that the report follows added and removed records
+     */
+    @Test
+    public void testAddRemoveRecords()
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        PwsRecord bank = addRecord("Bank", "one");
+        assertNull(getMatch(bank));
+
+        PwsRecord shop = addRecord("Shop", "one");
+        assertEquals(itsGroup1, getMatch(bank));
+        assertEquals(itsGroup1, getMatch(shop));
+
+        assertTrue(fileData.removeRecord(
+                shop, new ActContext(itsFile.getContext())));
+        assertNull(getMatch(bank));
+    }
+
+    /**
+     * Add a record with a password to the file
+     */
+    @NonNull
+    private PwsRecord addRecord(String title, String passwd)
+    {
+        PwsRecord rec = itsFile.addRecord(title, null, null, null, null,
+                                          null);
+        if (passwd != null) {
+            itsFile.getFileData().setPassword(null, passwd, rec);
+        }
+        return rec;
+    }
+
+    /**
+     * Get the report's match for a record
+     */
+    private String getMatch(@NonNull PwsRecord rec)
+    {
+        return itsReport.getMatch(rec, itsFile.getFileData(),
+                                  itsFile.getContext());
+    }
+}
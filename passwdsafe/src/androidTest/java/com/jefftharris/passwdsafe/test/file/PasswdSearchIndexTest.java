@@ -0,0 +1,259 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.test.file;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.jefftharris.passwdsafe.file.PasswdFileData;
+import com.jefftharris.passwdsafe.file.PasswdRecordFilter;
+import com.jefftharris.passwdsafe.test.util.TestFileDataRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.pwsafe.lib.file.PwsRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the search index through the candidate records of plain
+ * text query filters
+ */
+public class PasswdSearchIndexTest
+{
+    private static final String[] WORDS = {
+            "Bank", "mail", "Home", "work", "GitHub", "amazon", "Router",
+            "wifi", "server", "admin", "Travel", "phone", "insurance",
+            "doctor", "school", "example.com", "jdoe", "J.Doe", "ABC",
+            "abcabc"};
+
+    @Rule
+    public final TestFileDataRule itsFile = new TestFileDataRule();
+
+    /**
+     * Test that queries too short to be answered from the index check all
+     * records
+     */
+    @Test
+    public void testShortQuery()
+    {
+        PwsRecord bank = itsFile.addRecord("Bank", null, null, null, null,
+                                           null);
+        PwsRecord mail = itsFile.addRecord("Mail", null, null, null, null,
+                                           null);
+
+        assertCandidates("b", bank, mail);
+        assertCandidates("ba", bank, mail);
+        assertCandidates("ban", bank);
+    }
+
+    /**
+     * Test that the candidates of a query contain all of its matches
+     */
+    @Test
+    public void testCandidates()
+    {
+        Random rand = new Random(1234);
+        for (int i = 0; i < 200; ++i) {
+            itsFile.addRecord(randomField(rand), randomField(rand),
+                              randomField(rand), randomField(rand),
+                              randomField(rand), randomField(rand));
+        }
+
+        List<String> queries = new ArrayList<>();
+        Collections.addAll(queries, "ban", "BANK", "mail home", "e.c",
+                           "ple.COM", "abca", "bcab", "zzz", "doe",
+                           "j.d", "Hub", "xyzzy");
+        for (String word: WORDS) {
+            for (int start = 0; start + 3 <= word.length(); ++start) {
+                queries.add(randomCase(word.substring(start), rand));
+            }
+        }
+        for (String query: queries) {
+            verifyCandidates(query);
+        }
+    }
+
+    /**
+     * Test that a query with a trigram missing from the file has no
+     * candidates
+     */
+    @Test
+    public void testMissingGram()
+    {
+        itsFile.addRecord("Bank", "jdoe", "example.com", null, null, null);
+
+        assertCandidates("bankx");
+    }
+
+    /**
+     * Test re-indexing records whose fields change
+     */
+    @Test
+    public void testInvalidate()
+    {
+        PasswdFileData fileData = itsFile.getFileData();
+        PwsRecord bank = itsFile.addRecord("Bank", "jdoe", null, null,
+                                           "Checking account", null);
+        PwsRecord mail = itsFile.addRecord("Mail", "jdoe", null, null,
+                                           null, "Home");
+
+        assertCandidates("bank", bank);
+        assertCandidates("jdoe", bank, mail);
+
+        fileData.setTitle("Credit Union", bank);
+        fileData.setUsername("jsmith", mail);
+        verifyCandidates("bank");
+        verifyCandidates("credit");
+        verifyCandidates("jdoe");
+        verifyCandidates("jsmith");
+        assertCandidates("bank");
+        assertCandidates("UNION", bank);
+        assertCandidates("jdoe", bank);
+        assertCandidates("jsmith", mail);
+        assertCandidates("checking", bank);
+
+        fileData.setNotes(null, bank);
+        fileData.setGroup("Banking", mail);
+        fileData.setTitle("Bank", mail);
+        verifyCandidates("checking");
+        verifyCandidates("bank");
+        assertCandidates("checking");
+        assertCandidates("bank", mail);
+        assertCandidates("banking", mail);
+    }
+
+    /**
+     * Test rebuilding the index after records are added
+     */
+    @Test
+    public void testAddRecord()
+    {
+        PwsRecord bank = itsFile.addRecord("Bank", null, null, null, null,
+                                           null);
+        assertCandidates("bank", bank);
+
+        PwsRecord bank2 = itsFile.addRecord("Second Bank", null, null, null,
+                                            null, null);
+        assertCandidates("bank", bank, bank2);
+        verifyCandidates("bank");
+    }
+
+    /**
+     * Verify that the candidates of a query are in file order and contain
+     * the records with a field containing the query
+     */
+    private void verifyCandidates(@NonNull String query)
+    {
+        List<PwsRecord> candidates = findCandidates(query);
+        assertNotNull(query, candidates);
+
+        PasswdFileData fileData = itsFile.getFileData();
+        List<PwsRecord> records = fileData.getRecords();
+        int prevIdx = -1;
+        for (PwsRecord rec: candidates) {
+            int idx = records.indexOf(rec);
+            assertTrue(query, idx > prevIdx);
+            prevIdx = idx;
+        }
+
+        String foldedQuery = query.toLowerCase(Locale.US);
+        for (PwsRecord rec: records) {
+            if (contains(fileData.getTitle(rec), foldedQuery) ||
+                contains(fileData.getUsername(rec), foldedQuery) ||
+                contains(fileData.getURL(rec, PasswdFileData.UrlStyle.FULL),
+                         foldedQuery) ||
+                contains(fileData.getEmail(rec,
+                                           PasswdFileData.EmailStyle.FULL),
+                         foldedQuery) ||
+                contains(fileData.getNotes(rec, itsFile.getContext())
+                                 .getNotes(), foldedQuery) ||
+                contains(fileData.getGroup(rec), foldedQuery)) {
+                assertTrue(query + ": " + fileData.getTitle(rec),
+                           candidates.contains(rec));
+            }
+        }
+    }
+
+    /**
+     * Assert the candidates of a query
+     */
+    private void assertCandidates(@NonNull String query,
+                                  PwsRecord... expected)
+    {
+        assertEquals(query, Arrays.asList(expected), findCandidates(query));
+    }
+
+    /**
+     * Find the candidates of a case-insensitive plain text query
+     */
+    private List<PwsRecord> findCandidates(@NonNull String query)
+    {
+        PasswdRecordFilter filter = new PasswdRecordFilter(
+                Pattern.compile(query,
+                                Pattern.CASE_INSENSITIVE | Pattern.LITERAL),
+                PasswdRecordFilter.OPTS_DEFAULT);
+        return filter.getCandidateRecords(itsFile.getFileData(),
+                                          itsFile.getContext());
+    }
+
+    /**
+     * Does a field contain a lower case query ignoring case
+     */
+    private static boolean contains(@Nullable String field,
+                                    @NonNull String foldedQuery)
+    {
+        return (field != null) &&
+               field.toLowerCase(Locale.US).contains(foldedQuery);
+    }
+
+    /**
+     * Create a random field from the test words; null for no field
+     */
+    @Nullable
+    private static String randomField(@NonNull Random rand)
+    {
+        int numWords = rand.nextInt(4);
+        if (numWords == 0) {
+            return null;
+        }
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < numWords; ++i) {
+            if (i > 0) {
+                field.append(' ');
+            }
+            field.append(randomCase(WORDS[rand.nextInt(WORDS.length)], rand));
+        }
+        return field.toString();
+    }
+
+    /**
+     * Randomly change the case of the letters in a string
+     */
+    @NonNull
+    private static String randomCase(@NonNull String str, @NonNull Random rand)
+    {
+        StringBuilder cased = new StringBuilder(str.length());
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            cased.append(rand.nextBoolean() ? Character.toUpperCase(c) :
+                         Character.toLowerCase(c));
+        }
+        return cased.toString();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.test.file;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pwsafe.lib.file.Owner;
+import org.pwsafe.lib.file.PwsFieldTypeV3;
+import org.pwsafe.lib.file.PwsFile;
+import org.pwsafe.lib.file.PwsFileV3;
+import org.pwsafe.lib.file.PwsPassword;
+import org.pwsafe.lib.file.PwsPasswdUnicodeField;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the sealed arena through the password fields of a file
+ */
+public class PwsSealedArenaTest
+{
+    private PwsFile itsFile;
+
+    @Before
+    public void setUp()
+    {
+        itsFile = new PwsFileV3();
+    }
+
+    @After
+    public void tearDown()
+    {
+        itsFile.dispose();
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        String[] values = { "", "a", "password", "pässwörd€",
+                            "🔑 key" };
+        List<PwsPasswdUnicodeField> fields = new ArrayList<>();
+        for (String value: values) {
+            fields.add(createField(value));
+        }
+        for (int i = 0; i < values.length; ++i) {
+            byte[] bytes = values[i].getBytes(StandardCharsets.UTF_8);
+            assertEquals(values[i], fields.get(i).toString());
+            assertArrayEquals(bytes, fields.get(i).getBytes());
+
+            PwsPasswdUnicodeField field = new PwsPasswdUnicodeField(
+                    PwsFieldTypeV3.PASSWORD, bytes.clone(), itsFile);
+            assertEquals(values[i], field.toString());
+            assertArrayEquals(bytes, field.getBytes());
+        }
+    }
+
+    @Test
+    public void testGrowth()
+    {
+        // Seal well past the initial arena size, including values larger
+        // than the initial work buffers
+        List<String> values = new ArrayList<>();
+        List<PwsPasswdUnicodeField> fields = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            StringBuilder value = new StringBuilder();
+            for (int j = 0; j < (i % 100); ++j) {
+                value.append((char)('a' + ((i + j) % 26)));
+            }
+            values.add(value.toString());
+            fields.add(createField(value.toString()));
+        }
+        for (int i = 0; i < values.size(); ++i) {
+            assertEquals(values.get(i), fields.get(i).toString());
+        }
+    }
+
+    @Test
+    public void testSameValue()
+    {
+        PwsPasswdUnicodeField field1 = createField("value");
+        PwsPasswdUnicodeField field2 = createField("value");
+        assertEquals("value", field1.toString());
+        assertEquals("value", field2.toString());
+        assertTrue(field1.equals("value"));
+        assertTrue(field2.equals("value"));
+        assertTrue(field1.equals(field2));
+    }
+
+    @Test
+    public void testEqualsString()
+    {
+        PwsPasswdUnicodeField field = createField("secret");
+        assertTrue(field.equals("secret"));
+        assertFalse(field.equals("Secret"));
+        assertFalse(field.equals("secre"));
+        assertFalse(field.equals("secrets"));
+        assertFalse(field.equals(""));
+
+        PwsPasswdUnicodeField empty = createField("");
+        assertTrue(empty.equals(""));
+        assertFalse(empty.equals("secret"));
+    }
+
+    @Test
+    public void testMatchesPassword()
+    {
+        PwsPasswdUnicodeField field = createField("secret");
+        try (Owner<PwsPassword> passwd = PwsPassword.create("secret")) {
+            assertTrue(field.matches(passwd.get()));
+        }
+        try (Owner<PwsPassword> passwd = PwsPassword.create("secreT")) {
+            assertFalse(field.matches(passwd.get()));
+        }
+        try (Owner<PwsPassword> passwd = PwsPassword.create("secrets")) {
+            assertFalse(field.matches(passwd.get()));
+        }
+    }
+
+    @Test
+    public void testSeparateFiles()
+    {
+        PwsFile file = new PwsFileV3();
+        try {
+            PwsPasswdUnicodeField field1 = createField("first");
+            PwsPasswdUnicodeField field2 = new PwsPasswdUnicodeField(
+                    PwsFieldTypeV3.PASSWORD, "second", file);
+            assertEquals("first", field1.toString());
+            assertEquals("second", field2.toString());
+        } finally {
+            file.dispose();
+        }
+    }
+
+    @Test
+    public void testDispose()
+    {
+        PwsPasswdUnicodeField field = createField("value");
+        itsFile.dispose();
+        try {
+            //noinspection ResultOfMethodCallIgnored
+            field.toString();
+            fail("Expected disposed");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        try {
+            createField("other");
+            fail("Expected disposed");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Create a password field of the file
+     */
+    @NonNull
+    private PwsPasswdUnicodeField createField(String value)
+    {
+        return new PwsPasswdUnicodeField(PwsFieldTypeV3.PASSWORD, value,
+                                         itsFile);
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2017 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2017-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -83,5 +83,9 @@ public final class SHATest
         assertArrayEquals(md1000, msgmd);
         msgmd = SHA256Pws.digestNNative(msg, 1000);
         assertArrayEquals(md1000, msgmd);
+        if (SHA256Pws.hasNativeAccel()) {
+            msgmd = SHA256Pws.digestNNativeAccel(msg, 1000);
+            assertArrayEquals(md1000, msgmd);
+        }
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.test.util;
+
+import android.content.Context;
+import android.net.Uri;
+
+import com.jefftharris.passwdsafe.file.PasswdFileData;
+import com.jefftharris.passwdsafe.file.PasswdFileUri;
+import com.jefftharris.passwdsafe.test.file.FileV3Test;
+
+import org.junit.Assert;
+import org.junit.rules.ExternalResource;
+import org.pwsafe.lib.file.Owner;
+import org.pwsafe.lib.file.PwsFile;
+import org.pwsafe.lib.file.PwsPassword;
+import org.pwsafe.lib.file.PwsRecord;
+
+import java.io.File;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+
+/**
+ * Test resource for the data of an open, writable V3 password file
+ */
+public class TestFileDataRule extends ExternalResource
+{
+    private static final String PASSWD = "test123";
+
+    private File itsFile;
+    private PasswdFileData itsFileData;
+
+    public Context getContext()
+    {
+        return getInstrumentation().getTargetContext();
+    }
+
+    public PasswdFileData getFileData()
+    {
+        return itsFileData;
+    }
+
+    /**
+     * Add a record to the file
+     */
+    public PwsRecord addRecord(String title,
+                               String username,
+                               String url,
+                               String email,
+                               String notes,
+                               String group)
+    {
+        PwsRecord rec = itsFileData.createRecord();
+        itsFileData.setTitle(title, rec);
+        itsFileData.setUsername(username, rec);
+        itsFileData.setURL(url, rec);
+        itsFileData.setEmail(email, rec);
+        itsFileData.setNotes(notes, rec);
+        itsFileData.setGroup(group, rec);
+        itsFileData.addRecord(rec);
+        return rec;
+    }
+
+    @Override
+    protected void before() throws Throwable
+    {
+        itsFile = File.createTempFile("test", ".psafe3");
+        try (Owner<PwsPassword> passwd = PwsPassword.create(PASSWD)) {
+            PwsFile file = FileV3Test.createFile(itsFile, passwd.pass());
+            try {
+                file.save();
+            } finally {
+                file.dispose();
+            }
+
+            Context ctx = getContext();
+            PasswdFileUri uri =
+                    new PasswdFileUri.Creator(Uri.fromFile(itsFile), ctx)
+                            .finishCreate();
+            itsFileData = new PasswdFileData(uri);
+            itsFileData.load(passwd.pass(), ctx);
+        }
+        itsFileData.setWritable(true);
+        Assert.assertTrue(itsFileData.isWritable());
+    }
+
+    @Override
+    protected void after()
+    {
+        if (itsFileData != null) {
+            itsFileData.close();
+        }
+        if (itsFile.exists()) {
+            Assert.assertTrue(itsFile.delete());
+        }
+    }
+}
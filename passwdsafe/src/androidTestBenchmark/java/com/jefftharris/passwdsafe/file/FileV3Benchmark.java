@@ -0,0 +1,326 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.file;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.jefftharris.passwdsafe.test.file.FileV3Test;
+
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.pwsafe.lib.UUID;
+import org.pwsafe.lib.crypto.SHA256Pws;
+import org.pwsafe.lib.file.Owner;
+import org.pwsafe.lib.file.PwsFieldTypeV3;
+import org.pwsafe.lib.file.PwsFile;
+import org.pwsafe.lib.file.PwsFileFactory;
+import org.pwsafe.lib.file.PwsFileStorage;
+import org.pwsafe.lib.file.PwsPasswdUnicodeField;
+import org.pwsafe.lib.file.PwsPassword;
+import org.pwsafe.lib.file.PwsRecord;
+import org.pwsafe.lib.file.PwsStretchedKeyCache;
+import org.pwsafe.lib.file.PwsStringUnicodeField;
+import org.pwsafe.lib.file.PwsUUIDField;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Benchmarks for opening, indexing, and saving synthetic V3 files.  Each
+ * benchmark reports its time and allocations through the benchmark library
+ * and logs the heap growth of a single run with the tag FileV3Benchmark.
+ * <p>
+ * Run with:
+ * ./gradlew -Pbenchmark :passwdsafe:connectedBenchmarkAndroidTest
+ *     -Pandroid.testInstrumentationRunnerArguments.class=
+ *         com.jefftharris.passwdsafe.file.FileV3Benchmark
+ */
+@RunWith(Parameterized.class)
+public class FileV3Benchmark
+{
+    private static final String PASSWD = "test123";
+
+    /** Key stretch iterations of a new file */
+    private static final int NEW_FILE_ITERATIONS = 0x50000;
+
+    private static final String TAG = "FileV3Benchmark";
+
+    private static final Map<Integer, File> itsFiles = new HashMap<>();
+
+    @Rule
+    public final BenchmarkRule itsBenchmarkRule = new BenchmarkRule();
+
+    private final int itsNumRecords;
+
+    /**
+     * Interface for an operation whose heap growth is measured
+     */
+    private interface HeapOp
+    {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Get the number of records in the benchmarked files
+     */
+    @Parameterized.Parameters(name = "records={0}")
+    public static Collection<Object[]> getParams()
+    {
+        return Arrays.asList(new Object[][]{{1000}, {10000}, {100000}});
+    }
+
+    /**
+     * Constructor
+     */
+    public FileV3Benchmark(int numRecords)
+    {
+        itsNumRecords = numRecords;
+    }
+
+    @AfterClass
+    public static void cleanup()
+    {
+        PwsStretchedKeyCache.setTimeout(0);
+        for (File file: itsFiles.values()) {
+            assertTrue(file.delete());
+        }
+        itsFiles.clear();
+    }
+
+    /**
+     * Benchmark loading a file with the key stretch cached
+     */
+    @Test
+    public void loadFromStorage() throws Exception
+    {
+        File file = getFile();
+        PwsStretchedKeyCache.setTimeout(60 * 60 * 1000);
+        try (Owner<PwsPassword> passwd = PwsPassword.create(PASSWD)) {
+            logHeapGrowth("loadFromStorage", () -> load(file, passwd));
+
+            BenchmarkState state = itsBenchmarkRule.getState();
+            while (state.keepRunning()) {
+                PwsFile pwsFile = load(file, passwd);
+                state.pauseTiming();
+                pwsFile.dispose();
+                state.resumeTiming();
+            }
+        } finally {
+            PwsStretchedKeyCache.setTimeout(0);
+        }
+    }
+
+    /**
+     * Benchmark indexing the records of an open file
+     */
+    @Test
+    public void indexRecords() throws Throwable
+    {
+        File file = getFile();
+        Context ctx = getInstrumentation().getTargetContext();
+        PasswdFileUri uri =
+                new PasswdFileUri.Creator(Uri.fromFile(file), ctx)
+                        .finishCreate();
+        PasswdFileData fileData = new PasswdFileData(uri);
+        try (Owner<PwsPassword> passwd = PwsPassword.create(PASSWD)) {
+            fileData.load(passwd.pass(), ctx);
+        }
+        try {
+            assertEquals(itsNumRecords, fileData.getRecords().size());
+            logHeapGrowth("indexRecords", () -> {
+                fileData.indexRecords();
+                return fileData;
+            });
+
+            BenchmarkState state = itsBenchmarkRule.getState();
+            while (state.keepRunning()) {
+                fileData.indexRecords();
+            }
+        } finally {
+            fileData.close();
+        }
+    }
+
+    /**
+     * Benchmark saving a file, including the key stretch for the new salt
+     */
+    @Test
+    public void saveAs() throws Exception
+    {
+        File file = getFile();
+        File saveFile = File.createTempFile("bench", ".psafe3");
+        PwsFile pwsFile;
+        try (Owner<PwsPassword> passwd = PwsPassword.create(PASSWD)) {
+            pwsFile = load(file, passwd);
+        }
+        try {
+            var saveStorage =
+                    new PwsFileStorage(saveFile.getAbsolutePath(), null);
+            logHeapGrowth("saveAs", () -> {
+                pwsFile.saveAs(saveStorage);
+                return pwsFile;
+            });
+
+            BenchmarkState state = itsBenchmarkRule.getState();
+            while (state.keepRunning()) {
+                pwsFile.saveAs(saveStorage);
+            }
+        } finally {
+            pwsFile.dispose();
+            assertTrue(saveFile.delete());
+        }
+    }
+
+    /**
+     * Benchmark the key stretch of a new file
+     */
+    @Test
+    public void keyStretch() throws Exception
+    {
+        // Key stretching doesn't depend on the file size
+        if (itsNumRecords != getParams().iterator().next()[0]) {
+            return;
+        }
+
+        byte[] passwd = new byte[64];
+        Arrays.fill(passwd, (byte)'p');
+        logHeapGrowth("keyStretch",
+                      () -> SHA256Pws.digestN(passwd, NEW_FILE_ITERATIONS));
+
+        BenchmarkState state = itsBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            SHA256Pws.digestN(passwd, NEW_FILE_ITERATIONS);
+        }
+    }
+
+    /**
+     * Load a file
+     */
+    private static PwsFile load(@NonNull File file,
+                                @NonNull Owner<PwsPassword> passwd)
+            throws Exception
+    {
+        return PwsFileFactory.loadFromStorage(
+                new PwsFileStorage(file.getAbsolutePath(), null),
+                passwd.pass());
+    }
+
+    /**
+     * Get the synthetic file for the number of records, creating it if
+     * needed
+     */
+    @NonNull
+    private File getFile() throws IOException
+    {
+        File file = itsFiles.get(itsNumRecords);
+        if (file != null) {
+            return file;
+        }
+
+        file = File.createTempFile("bench" + itsNumRecords, ".psafe3");
+        try (Owner<PwsPassword> passwd = PwsPassword.create(PASSWD)) {
+            PwsFile pwsFile = FileV3Test.createFile(file, passwd.pass());
+            try {
+                for (int i = 0; i < itsNumRecords; ++i) {
+                    pwsFile.add(createRecord(pwsFile, i));
+                }
+                pwsFile.save();
+            } finally {
+                pwsFile.dispose();
+            }
+        }
+        itsFiles.put(itsNumRecords, file);
+        return file;
+    }
+
+    /**
+     * Create a synthetic record with notes, history, and TOTP fields
+     */
+    @NonNull
+    private static PwsRecord createRecord(@NonNull PwsFile file, int idx)
+    {
+        PwsRecord rec = file.newRecord();
+        Date now = new Date();
+        rec.setField(new PwsUUIDField(PwsFieldTypeV3.UUID, new UUID()));
+        rec.setField(new PwsStringUnicodeField(
+                PwsFieldTypeV3.GROUP,
+                String.format(Locale.US, "group%d.sub%d", idx % 50,
+                              idx % 7)));
+        rec.setField(new PwsStringUnicodeField(
+                PwsFieldTypeV3.TITLE,
+                String.format(Locale.US, "Record title %d", idx)));
+        rec.setField(new PwsStringUnicodeField(
+                PwsFieldTypeV3.USERNAME,
+                String.format(Locale.US, "user%d@example.com", idx)));
+        rec.setField(new PwsPasswdUnicodeField(
+                PwsFieldTypeV3.PASSWORD,
+                String.format(Locale.US, "Pa$$w0rd-%08x", idx * 7919),
+                file));
+        rec.setField(new PwsStringUnicodeField(
+                PwsFieldTypeV3.URL,
+                String.format(Locale.US, "https://site%d.example.com/login",
+                              idx % 1000)));
+        rec.setField(new PwsStringUnicodeField(
+                PwsFieldTypeV3.NOTES,
+                String.format(Locale.US,
+                              "Notes for record %d\r\nSecond line of " +
+                              "notes with some more text\r\nThird line",
+                              idx)));
+
+        PasswdHistory history = new PasswdHistory();
+        history.setMaxSize(5);
+        for (int i = 0; i < 3; ++i) {
+            history.addPasswd(
+                    String.format(Locale.US, "old%d-%08x", i, idx),
+                    new Date(now.getTime() - (i + 1) * 86400000L));
+        }
+        rec.setField(new PwsStringUnicodeField(
+                PwsFieldTypeV3.PASSWORD_HISTORY, history.toString()));
+
+        rec.setField(new PwsPasswdUnicodeField(
+                PwsFieldTypeV3.TWO_FACTOR_KEY,
+                "JBSWY3DPEHPK3PXPJBSWY3DPEHPK3PXP", file));
+        return rec;
+    }
+
+    /**
+     * Log the growth of the used heap during a single run of an operation
+     * while its result is still referenced
+     */
+    private void logHeapGrowth(String name, @NonNull HeapOp op)
+            throws Exception
+    {
+        Runtime rt = Runtime.getRuntime();
+        rt.gc();
+        long before = rt.totalMemory() - rt.freeMemory();
+        Object result = op.run();
+        long after = rt.totalMemory() - rt.freeMemory();
+        Log.i(TAG, String.format(Locale.US,
+                                 "%s records=%d heapGrowthKb=%d result=%s",
+                                 name, itsNumRecords, (after - before) / 1024,
+                                 result.getClass().getSimpleName()));
+    }
+}
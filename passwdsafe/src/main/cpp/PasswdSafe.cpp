@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2009-2013 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2009-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -13,6 +13,7 @@
 
 #include "org_pwsafe_lib_crypto_SHA256Pws.h"
 #include "sha256.h"
+#include "sha256stretch.h"
 #include "Util.h"
 
 #pragma clang diagnostic push
@@ -55,6 +56,52 @@ namespace {
     return outputArray;
 }
 
+/**
+ * Implementation of digestNNativeAccel so stack can be cleaned by caller
+ * @param env JNI environment
+ * @param inbuf Input byte array
+ * @param iter Number of iterations
+ * @return The digested bytes
+ */
+[[gnu::noinline]] jbyteArray digestNNativeAccelImpl(JNIEnv* env,
+                                                    jbyteArray inbuf,
+                                                    jint iter)
+{
+    const jsize plen = env->GetArrayLength(inbuf);
+    jbyte *pdata = env->GetByteArrayElements(inbuf, nullptr);
+    std::array<unsigned char, SHA256::HASHLEN> output{};
+
+    SHA256 hash0;
+    hash0.update(reinterpret_cast<unsigned char *>(pdata), (size_t)plen);
+    hash0.final(output);
+
+    SHA256Words words{};
+    for (size_t i = 0; i < words.size(); ++i) {
+        const unsigned char* word = output.data() + (4 * i);
+        words[i] = (static_cast<uint32_t>(word[0]) << 24U) |
+                   (static_cast<uint32_t>(word[1]) << 16U) |
+                   (static_cast<uint32_t>(word[2]) << 8U) |
+                   static_cast<uint32_t>(word[3]);
+    }
+    sha256StretchAccel(words, (iter > 0) ? static_cast<uint32_t>(iter) : 0);
+    for (size_t i = 0; i < words.size(); ++i) {
+        unsigned char* word = output.data() + (4 * i);
+        word[0] = static_cast<unsigned char>(words[i] >> 24U);
+        word[1] = static_cast<unsigned char>(words[i] >> 16U);
+        word[2] = static_cast<unsigned char>(words[i] >> 8U);
+        word[3] = static_cast<unsigned char>(words[i]);
+    }
+    trashMemory(words.data(), sizeof(words));
+
+    jbyteArray outputArray = env->NewByteArray(output.size());
+    env->SetByteArrayRegion(outputArray, 0, output.size(),
+                            reinterpret_cast<jbyte *>(output.data()));
+    trashMemory(output.data(), output.size());
+
+    env->ReleaseByteArrayElements(inbuf, pdata, 0);
+    return outputArray;
+}
+
 }
 
 extern "C" JNIEXPORT jbyteArray JNICALL
@@ -69,5 +116,25 @@ Java_org_pwsafe_lib_crypto_SHA256Pws_digestNNative(
     return outputArray;
 }
 
+extern "C" JNIEXPORT jbyteArray JNICALL
+Java_org_pwsafe_lib_crypto_SHA256Pws_digestNNativeAccel(
+        JNIEnv *env,
+        [[maybe_unused]] jclass clazz,
+        jbyteArray inbuf,
+        jint iter)
+{
+    jbyteArray outputArray = digestNNativeAccelImpl(env, inbuf, iter);
+    burnStack(sizeof(unsigned long) * 74);
+    return outputArray;
+}
+
+extern "C" JNIEXPORT jboolean JNICALL
+Java_org_pwsafe_lib_crypto_SHA256Pws_hasNativeAccel(
+        [[maybe_unused]] JNIEnv *env,
+        [[maybe_unused]] jclass clazz)
+{
+    return sha256StretchAccelAvailable() ? JNI_TRUE : JNI_FALSE;
+}
+
 
 #pragma clang diagnostic pop
@@ -15,6 +15,22 @@ extern "C" {
 JNIEXPORT jbyteArray JNICALL Java_org_pwsafe_lib_crypto_SHA256Pws_digestNNative
   (JNIEnv* env, jclass clazz, jbyteArray inbuf, jint iter);
 
+/*
+ * Class:     org_pwsafe_lib_crypto_SHA256Pws
+ * Method:    digestNNativeAccel
+ * Signature: ([BI)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_org_pwsafe_lib_crypto_SHA256Pws_digestNNativeAccel
+  (JNIEnv* env, jclass clazz, jbyteArray inbuf, jint iter);
+
+/*
+ * Class:     org_pwsafe_lib_crypto_SHA256Pws
+ * Method:    hasNativeAccel
+ * Signature: ()Z
+ */
+JNIEXPORT jboolean JNICALL Java_org_pwsafe_lib_crypto_SHA256Pws_hasNativeAccel
+  (JNIEnv* env, jclass clazz);
+
 #ifdef __cplusplus
 }
 #endif
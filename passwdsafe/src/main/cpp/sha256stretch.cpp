@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+// sha256stretch.cpp
+// SHA256 key stretching using the ARMv8 SHA2 or x86 SHA extensions.
+//
+// Each stretch iteration hashes exactly the 32-byte digest of the previous
+// one, so the message is always a single block whose last eight words are
+// the fixed padding and bit length.  The digest is kept as words between
+// iterations with no byte conversions or hash object state.
+//-----------------------------------------------------------------------------
+#include "sha256stretch.h"
+
+#if defined(__aarch64__)
+#include <arm_neon.h>
+#include <asm/hwcap.h>
+#include <sys/auxv.h>
+#define SHA256STRETCH_ARM
+#elif defined(__x86_64__) || defined(__i386__)
+#include <cpuid.h>
+#include <immintrin.h>
+#define SHA256STRETCH_X86
+#endif
+
+#pragma clang diagnostic push
+#pragma ide diagnostic ignored "cppcoreguidelines-avoid-magic-numbers"
+#pragma ide diagnostic ignored "cppcoreguidelines-pro-bounds-pointer-arithmetic"
+#pragma ide diagnostic ignored "cppcoreguidelines-pro-type-reinterpret-cast"
+#pragma ide diagnostic ignored "readability-magic-numbers"
+
+namespace {
+
+/// Round constants
+alignas(16) constexpr std::array<uint32_t, 64> K = {
+        0x428a2f98U, 0x71374491U, 0xb5c0fbcfU, 0xe9b5dba5U,
+        0x3956c25bU, 0x59f111f1U, 0x923f82a4U, 0xab1c5ed5U,
+        0xd807aa98U, 0x12835b01U, 0x243185beU, 0x550c7dc3U,
+        0x72be5d74U, 0x80deb1feU, 0x9bdc06a7U, 0xc19bf174U,
+        0xe49b69c1U, 0xefbe4786U, 0x0fc19dc6U, 0x240ca1ccU,
+        0x2de92c6fU, 0x4a7484aaU, 0x5cb0a9dcU, 0x76f988daU,
+        0x983e5152U, 0xa831c66dU, 0xb00327c8U, 0xbf597fc7U,
+        0xc6e00bf3U, 0xd5a79147U, 0x06ca6351U, 0x14292967U,
+        0x27b70a85U, 0x2e1b2138U, 0x4d2c6dfcU, 0x53380d13U,
+        0x650a7354U, 0x766a0abbU, 0x81c2c92eU, 0x92722c85U,
+        0xa2bfe8a1U, 0xa81a664bU, 0xc24b8b70U, 0xc76c51a3U,
+        0xd192e819U, 0xd6990624U, 0xf40e3585U, 0x106aa070U,
+        0x19a4c116U, 0x1e376c08U, 0x2748774cU, 0x34b0bcb5U,
+        0x391c0cb3U, 0x4ed8aa4aU, 0x5b9cca4fU, 0x682e6ff3U,
+        0x748f82eeU, 0x78a5636fU, 0x84c87814U, 0x8cc70208U,
+        0x90befffaU, 0xa4506cebU, 0xbef9a3f7U, 0xc67178f2U
+};
+
+/// Initial hash state
+alignas(16) constexpr SHA256Words IV = {
+        0x6A09E667U, 0xBB67AE85U, 0x3C6EF372U, 0xA54FF53AU,
+        0x510E527FU, 0x9B05688CU, 0x1F83D9ABU, 0x5BE0CD19U
+};
+
+/// Message words 8-15 of a 32-byte message: the '1' bit and the bit length
+alignas(16) constexpr std::array<uint32_t, 8> PAD32 = {
+        0x80000000U, 0, 0, 0, 0, 0, 0, 256
+};
+
+#if defined(SHA256STRETCH_ARM)
+
+/// Compute the next four message schedule words
+[[gnu::target("+sha2"), gnu::always_inline]]
+inline uint32x4_t armSchedule(uint32x4_t w0, uint32x4_t w1,
+                              uint32x4_t w2, uint32x4_t w3)
+{
+    return vsha256su1q_u32(vsha256su0q_u32(w0, w1), w2, w3);
+}
+
+/// Perform four rounds
+[[gnu::target("+sha2"), gnu::always_inline]]
+inline void armRounds(uint32x4_t& abcd, uint32x4_t& efgh,
+                      uint32x4_t msg, const uint32_t* k)
+{
+    const uint32x4_t wk = vaddq_u32(msg, vld1q_u32(k));
+    const uint32x4_t prevAbcd = abcd;
+    abcd = vsha256hq_u32(abcd, efgh, wk);
+    efgh = vsha256h2q_u32(efgh, prevAbcd, wk);
+}
+
+/// Stretch using the ARMv8 SHA2 instructions
+[[gnu::target("+sha2")]]
+void armStretch(SHA256Words& digest, uint32_t iter)
+{
+    const uint32x4_t iv0 = vld1q_u32(IV.data());
+    const uint32x4_t iv1 = vld1q_u32(IV.data() + 4);
+    const uint32x4_t pad0 = vld1q_u32(PAD32.data());
+    const uint32x4_t pad1 = vld1q_u32(PAD32.data() + 4);
+    uint32x4_t msg0 = vld1q_u32(digest.data());
+    uint32x4_t msg1 = vld1q_u32(digest.data() + 4);
+
+    for (uint32_t n = 0; n < iter; ++n) {
+        uint32x4_t abcd = iv0;
+        uint32x4_t efgh = iv1;
+        uint32x4_t w0 = msg0;
+        uint32x4_t w1 = msg1;
+        uint32x4_t w2 = pad0;
+        uint32x4_t w3 = pad1;
+
+        armRounds(abcd, efgh, w0, K.data());
+        armRounds(abcd, efgh, w1, K.data() + 4);
+        armRounds(abcd, efgh, w2, K.data() + 8);
+        armRounds(abcd, efgh, w3, K.data() + 12);
+        for (size_t i = 16; i < K.size(); i += 16) {
+            w0 = armSchedule(w0, w1, w2, w3);
+            armRounds(abcd, efgh, w0, K.data() + i);
+            w1 = armSchedule(w1, w2, w3, w0);
+            armRounds(abcd, efgh, w1, K.data() + i + 4);
+            w2 = armSchedule(w2, w3, w0, w1);
+            armRounds(abcd, efgh, w2, K.data() + i + 8);
+            w3 = armSchedule(w3, w0, w1, w2);
+            armRounds(abcd, efgh, w3, K.data() + i + 12);
+        }
+
+        msg0 = vaddq_u32(abcd, iv0);
+        msg1 = vaddq_u32(efgh, iv1);
+    }
+
+    vst1q_u32(digest.data(), msg0);
+    vst1q_u32(digest.data() + 4, msg1);
+}
+
+#elif defined(SHA256STRETCH_X86)
+
+/// Compute the next four message schedule words
+[[gnu::target("sha,sse4.1"), gnu::always_inline]]
+inline __m128i x86Schedule(__m128i w0, __m128i w1, __m128i w2, __m128i w3)
+{
+    __m128i msg = _mm_sha256msg1_epu32(w0, w1);
+    msg = _mm_add_epi32(msg, _mm_alignr_epi8(w3, w2, 4));
+    return _mm_sha256msg2_epu32(msg, w3);
+}
+
+/// Perform four rounds on the state in ABEF and CDGH order
+[[gnu::target("sha,sse4.1"), gnu::always_inline]]
+inline void x86Rounds(__m128i& abef, __m128i& cdgh,
+                      __m128i msg, const uint32_t* k)
+{
+    msg = _mm_add_epi32(msg,
+                        _mm_load_si128(reinterpret_cast<const __m128i*>(k)));
+    cdgh = _mm_sha256rnds2_epu32(cdgh, abef, msg);
+    abef = _mm_sha256rnds2_epu32(abef, cdgh, _mm_shuffle_epi32(msg, 0x0E));
+}
+
+/// Stretch using the x86 SHA instructions
+[[gnu::target("sha,sse4.1")]]
+void x86Stretch(SHA256Words& digest, uint32_t iter)
+{
+    const __m128i iv0 =
+            _mm_load_si128(reinterpret_cast<const __m128i*>(IV.data()));
+    const __m128i iv1 =
+            _mm_load_si128(reinterpret_cast<const __m128i*>(IV.data() + 4));
+    const __m128i pad0 =
+            _mm_load_si128(reinterpret_cast<const __m128i*>(PAD32.data()));
+    const __m128i pad1 = _mm_load_si128(
+            reinterpret_cast<const __m128i*>(PAD32.data() + 4));
+
+    // The instructions use the state as ABEF and CDGH
+    const __m128i ivCdab = _mm_shuffle_epi32(iv0, 0xB1);
+    const __m128i ivEfgh = _mm_shuffle_epi32(iv1, 0x1B);
+    const __m128i ivAbef = _mm_alignr_epi8(ivCdab, ivEfgh, 8);
+    const __m128i ivCdgh = _mm_blend_epi16(ivEfgh, ivCdab, 0xF0);
+
+    __m128i msg0 =
+            _mm_loadu_si128(reinterpret_cast<const __m128i*>(digest.data()));
+    __m128i msg1 = _mm_loadu_si128(
+            reinterpret_cast<const __m128i*>(digest.data() + 4));
+
+    for (uint32_t n = 0; n < iter; ++n) {
+        __m128i abef = ivAbef;
+        __m128i cdgh = ivCdgh;
+        __m128i w0 = msg0;
+        __m128i w1 = msg1;
+        __m128i w2 = pad0;
+        __m128i w3 = pad1;
+
+        x86Rounds(abef, cdgh, w0, K.data());
+        x86Rounds(abef, cdgh, w1, K.data() + 4);
+        x86Rounds(abef, cdgh, w2, K.data() + 8);
+        x86Rounds(abef, cdgh, w3, K.data() + 12);
+        for (size_t i = 16; i < K.size(); i += 16) {
+            w0 = x86Schedule(w0, w1, w2, w3);
+            x86Rounds(abef, cdgh, w0, K.data() + i);
+            w1 = x86Schedule(w1, w2, w3, w0);
+            x86Rounds(abef, cdgh, w1, K.data() + i + 4);
+            w2 = x86Schedule(w2, w3, w0, w1);
+            x86Rounds(abef, cdgh, w2, K.data() + i + 8);
+            w3 = x86Schedule(w3, w0, w1, w2);
+            x86Rounds(abef, cdgh, w3, K.data() + i + 12);
+        }
+
+        abef = _mm_add_epi32(abef, ivAbef);
+        cdgh = _mm_add_epi32(cdgh, ivCdgh);
+
+        // Convert back to ABCD and EFGH for the next message
+        const __m128i feba = _mm_shuffle_epi32(abef, 0x1B);
+        const __m128i dchg = _mm_shuffle_epi32(cdgh, 0xB1);
+        msg0 = _mm_blend_epi16(feba, dchg, 0xF0);
+        msg1 = _mm_alignr_epi8(dchg, feba, 8);
+    }
+
+    _mm_storeu_si128(reinterpret_cast<__m128i*>(digest.data()), msg0);
+    _mm_storeu_si128(reinterpret_cast<__m128i*>(digest.data() + 4), msg1);
+}
+
+#endif
+
+}
+
+/**
+ * Whether the CPU has SHA instructions for sha256StretchAccel
+ */
+bool sha256StretchAccelAvailable()
+{
+#if defined(SHA256STRETCH_ARM)
+    return (getauxval(AT_HWCAP) & HWCAP_SHA2) != 0;
+#elif defined(SHA256STRETCH_X86)
+    unsigned int eax = 0;
+    unsigned int ebx = 0;
+    unsigned int ecx = 0;
+    unsigned int edx = 0;
+    if (!__get_cpuid(1, &eax, &ebx, &ecx, &edx) || !(ecx & bit_SSE4_1)) {
+        return false;
+    }
+    if (__get_cpuid_max(0, nullptr) < 7) {
+        return false;
+    }
+    __cpuid_count(7, 0, eax, ebx, ecx, edx);
+    return (ebx & bit_SHA) != 0;
+#else
+    return false;
+#endif
+}
+
+/**
+ * Rehash a digest iter times with the CPU's SHA instructions.  Only valid
+ * when sha256StretchAccelAvailable is true.
+ * @param digest The digest to rehash, replaced with the result
+ * @param iter The number of iterations
+ */
+void sha256StretchAccel([[maybe_unused]] SHA256Words& digest,
+                        [[maybe_unused]] uint32_t iter)
+{
+#if defined(SHA256STRETCH_ARM)
+    armStretch(digest, iter);
+#elif defined(SHA256STRETCH_X86)
+    x86Stretch(digest, iter);
+#endif
+}
+
+#pragma clang diagnostic pop
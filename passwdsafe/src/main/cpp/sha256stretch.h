@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+// sha256stretch.h
+// SHA256 key stretching using the CPU's SHA instructions
+//-----------------------------------------------------------------------------
+#ifndef INCLUDE_SHA256STRETCH_H
+#define INCLUDE_SHA256STRETCH_H
+
+#include <array>
+#include <cstdint>
+
+/// A SHA256 digest as big-endian words
+using SHA256Words = std::array<uint32_t, 8>;
+
+/// Whether the CPU has SHA instructions for sha256StretchAccel
+extern bool sha256StretchAccelAvailable();
+
+/// Rehash a digest iter times with the CPU's SHA instructions
+extern void sha256StretchAccel(SHA256Words& digest, uint32_t iter);
+
+#endif /* INCLUDE_SHA256STRETCH_H */
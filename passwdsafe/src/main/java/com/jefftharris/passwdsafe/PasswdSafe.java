@@ -49,6 +49,7 @@ import com.jefftharris.passwdsafe.file.PasswdFileDataUser;
 import com.jefftharris.passwdsafe.file.PasswdFileUri;
 import com.jefftharris.passwdsafe.file.PasswdRecord;
 import com.jefftharris.passwdsafe.file.PasswdRecordFilter;
+import com.jefftharris.passwdsafe.file.PasswdReuseReport;
 import com.jefftharris.passwdsafe.lib.ActContext;
 import com.jefftharris.passwdsafe.lib.ApiCompat;
 import com.jefftharris.passwdsafe.lib.FileSharer;
@@ -761,6 +762,15 @@ public class PasswdSafe extends AppCompatActivity
         doShowExpiration(false);
     }
 
+    /**
+     * Show the file records with reused passwords
+     */
+    @Override
+    public void showFileReusedPasswords()
+    {
+        setRecordFilter(new PasswdRecordFilter(new PasswdReuseReport()));
+    }
+
     @Override
     public void showRecordPreferences()
     {
@@ -939,6 +949,14 @@ public class PasswdSafe extends AppCompatActivity
             boolean incGroups)
     {
         PasswdFileDataView dataView = itsFileDataFrag.getFileDataView();
+        // Filter in steps so the file isn't held while filtering a large file
+        while (dataView.isRebuildPending()) {
+            Boolean more = PasswdSafeFileDataFragment.useOpenFileData(
+                    dataView::rebuildPendingView);
+            if ((more == null) || !more) {
+                break;
+            }
+        }
         return dataView.getRecords(incRecords, incGroups);
     }
 
@@ -1353,8 +1371,8 @@ public class PasswdSafe extends AppCompatActivity
     private void setRecordFilter(PasswdRecordFilter filter)
     {
         PasswdFileDataView fileView = itsFileDataFrag.getFileDataView();
+        // The view is filtered when the list loads its records
         fileView.setRecordFilter(filter);
-        itsFileDataFrag.refreshFileData();
         if (filter != null) {
             itsQuery.setText(getString(R.string.query_label,
                                        filter.toString(this)));
@@ -1392,12 +1410,13 @@ public class PasswdSafe extends AppCompatActivity
     private void protectRecords(final boolean doProtect)
     {
         Boolean doSave = itsFileDataFrag.useFileData(fileData -> {
-            itsFileDataFrag.getFileDataView().walkGroupRecords(recordUuid -> {
-                PwsRecord rec = fileData.getRecord(recordUuid);
-                if (rec != null) {
-                    fileData.setProtected(doProtect, rec);
-                }
-            });
+            itsFileDataFrag.getFileDataView().walkGroupRecords(
+                    fileData, recordUuid -> {
+                        PwsRecord rec = fileData.getRecord(recordUuid);
+                        if (rec != null) {
+                            fileData.setProtected(doProtect, rec);
+                        }
+                    });
             return true;
         });
         if ((doSave != null) && doSave) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2009-2013 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2009-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -16,6 +16,7 @@ import android.content.SharedPreferences;
 import android.content.res.Configuration;
 import android.net.Uri;
 import android.text.TextUtils;
+import android.text.format.DateUtils;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -28,6 +29,7 @@ import com.jefftharris.passwdsafe.lib.PasswdSafeLog;
 import com.jefftharris.passwdsafe.lib.PasswdSafeUtil;
 
 import org.pwsafe.lib.file.PwsFile;
+import org.pwsafe.lib.file.PwsStretchedKeyCache;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -54,6 +56,10 @@ public final class PasswdSafeApp extends Application
     private final ExecutorService itsThreadExecutor =
             Executors.newSingleThreadExecutor();
 
+    /** Timeout for cached file keys when quick re-open is enabled */
+    private static final long QUICK_REOPEN_TIMEOUT =
+            15 * DateUtils.MINUTE_IN_MILLIS;
+
     private static final String TAG = "PasswdSafeApp";
 
     static {
@@ -119,6 +125,10 @@ public final class PasswdSafeApp extends Application
                 setPasswordDefaultSymsPref(prefs);
                 break;
             }
+            case Preferences.PREF_FILE_QUICK_REOPEN: {
+                setFileQuickReopenPref(prefs);
+                break;
+            }
             case Preferences.PREF_PASSWD_EXPIRY_NOTIF: {
                 itsNotifyMgr.setPasswdExpiryFilter(
                         getPasswdExpiryNotifPref(prefs));
@@ -239,6 +249,14 @@ public final class PasswdSafeApp extends Application
         PwsFile.setPasswordEncoding(Preferences.getPasswordEncodingPref(prefs));
     }
 
+    /** Set whether stretched file keys are cached from user preferences */
+    private static void setFileQuickReopenPref(SharedPreferences prefs)
+    {
+        PwsStretchedKeyCache.setTimeout(
+                Preferences.getFileQuickReopenPref(prefs) ?
+                QUICK_REOPEN_TIMEOUT : 0);
+    }
+
     /** Set the default password policy symbols from user preferences */
     private static void setPasswordDefaultSymsPref(SharedPreferences prefs)
     {
@@ -309,6 +327,7 @@ public final class PasswdSafeApp extends Application
     {
         setPasswordEncodingPref(prefs);
         setPasswordDefaultSymsPref(prefs);
+        setFileQuickReopenPref(prefs);
         setDebugTags(prefs);
         itsDefaultPasswdPolicy = Preferences.getDefPasswdPolicyPref(prefs,
                                                                     this);
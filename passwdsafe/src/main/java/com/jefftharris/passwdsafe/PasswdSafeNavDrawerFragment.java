@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2015-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2015-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -51,6 +51,9 @@ public class PasswdSafeNavDrawerFragment
         /** Show the file expired passwords */
         void showFileExpiredPasswords();
 
+        /** Show the file records with reused passwords */
+        void showFileReusedPasswords();
+
         /** Show the preferences */
         void showPreferences();
 
@@ -212,7 +215,8 @@ public class PasswdSafeNavDrawerFragment
 
             if ((itemId == NavMenuItem.RECORDS.itsMenuId) ||
                 (itemId == NavMenuItem.PASSWORD_POLICIES.itsMenuId) ||
-                (itemId == NavMenuItem.EXPIRED_PASSWORDS.itsMenuId)) {
+                (itemId == NavMenuItem.EXPIRED_PASSWORDS.itsMenuId) ||
+                (itemId == NavMenuItem.REUSED_PASSWORDS.itsMenuId)) {
                 item.setEnabled(fileOpen);
             } else if (itemId == R.id.menu_drawer_writable) {
                 item.setVisible(fileOpen);
@@ -264,6 +268,10 @@ public class PasswdSafeNavDrawerFragment
                 listener.showFileExpiredPasswords();
                 break;
             }
+            case REUSED_PASSWORDS: {
+                listener.showFileReusedPasswords();
+                break;
+            }
             case PREFERENCES: {
                 listener.showPreferences();
                 break;
@@ -295,6 +303,7 @@ public class PasswdSafeNavDrawerFragment
         RECORD_ERRORS        (R.id.menu_drawer_record_errors),
         PASSWORD_POLICIES    (R.id.menu_drawer_passwd_policies),
         EXPIRED_PASSWORDS    (R.id.menu_drawer_expired_passwords),
+        REUSED_PASSWORDS     (R.id.menu_drawer_reused_passwords),
         PREFERENCES          (R.id.menu_drawer_preferences),
         ABOUT                (R.id.menu_drawer_about);
 
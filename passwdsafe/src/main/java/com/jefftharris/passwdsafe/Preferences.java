@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2016-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2016-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -49,6 +49,8 @@ public class Preferences
     public static final String PREF_FILE_CLOSE_SCREEN_OFF =
                     "fileCloseScreenOffPref";
     public static final boolean PREF_FILE_CLOSE_SCREEN_OFF_DEF = false;
+    public static final String PREF_FILE_QUICK_REOPEN = "fileQuickReopenPref";
+    private static final boolean PREF_FILE_QUICK_REOPEN_DEF = false;
 
     public static final String PREF_FILE_BACKUP = "fileBackupPref";
     private static final FileBackupPref PREF_FILE_BACKUP_DEF =
@@ -110,6 +112,8 @@ public class Preferences
     public static final boolean PREF_SEARCH_CASE_SENSITIVE_DEF = false;
     public static final String PREF_SEARCH_REGEX = "searchRegexPref";
     public static final boolean PREF_SEARCH_REGEX_DEF = false;
+    public static final String PREF_SEARCH_FUZZY = "searchFuzzyPref";
+    public static final boolean PREF_SEARCH_FUZZY_DEF = false;
 
     private static final String PREF_SHOW_HIDDEN_FILES = "showBackupFilesPref";
     private static final boolean PREF_SHOW_HIDDEN_FILES_DEF = false;
@@ -187,6 +191,14 @@ public class Preferences
                                 PREF_FILE_CLOSE_SCREEN_OFF_DEF);
     }
 
+    /** Get whether stretched file keys are cached to quickly re-open files */
+    public static boolean getFileQuickReopenPref(
+            @NonNull SharedPreferences prefs)
+    {
+        return prefs.getBoolean(PREF_FILE_QUICK_REOPEN,
+                                PREF_FILE_QUICK_REOPEN_DEF);
+    }
+
     public static FileBackupPref getFileBackupPref(
             @NonNull SharedPreferences prefs)
     {
@@ -424,6 +436,11 @@ public class Preferences
         return prefs.getBoolean(PREF_SEARCH_REGEX, PREF_SEARCH_REGEX_DEF);
     }
 
+    public static boolean getSearchFuzzyPref(@NonNull SharedPreferences prefs)
+    {
+        return prefs.getBoolean(PREF_SEARCH_FUZZY, PREF_SEARCH_FUZZY_DEF);
+    }
+
     public static boolean getShowHiddenFilesPref(
             @NonNull SharedPreferences prefs)
     {
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2013-2025 Jeff Harris <jefftharris@gmail.com> All rights reserved.
+ * Copyright (©) 2013-2026 Jeff Harris <jefftharris@gmail.com> All rights reserved.
  * Use of the code is allowed under the Artistic License 2.0 terms, as specified
  * in the LICENSE file distributed with this code, or available from
  * http://www.opensource.org/licenses/artistic-license-2.0.php
@@ -26,19 +26,14 @@ import com.jefftharris.passwdsafe.Preferences;
 import com.jefftharris.passwdsafe.lib.PasswdSafeContract;
 import com.jefftharris.passwdsafe.lib.PasswdSafeUtil;
 
-import org.pwsafe.lib.file.PwsRecord;
-
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -245,11 +240,8 @@ public class PasswdClientProvider extends ContentProvider
                 }
                 comparator = itsSearchComp;
             }
-            // Groups are matched separately
-            PasswdRecordFilter filter = new PasswdRecordFilter(
-                    queryPattern, PasswdRecordFilter.OPTS_NO_GROUP);
             return PasswdSafeFileDataFragment.useOpenFileData(
-                    new SuggestionsUser(filter, limit,
+                    new SuggestionsUser(queryPattern, limit,
                                         comparator, getContext()));
         }
         }
@@ -312,7 +304,7 @@ public class PasswdClientProvider extends ContentProvider
     @SuppressWarnings("ClassCanBeRecord")
     private static class SuggestionsUser implements PasswdFileDataUser<Cursor>
     {
-        private final PasswdRecordFilter itsFilter;
+        private final Pattern itsQuery;
         private final int itsLimit;
         private final MatchComparator itsComparator;
         private final Context itsContext;
@@ -320,12 +312,12 @@ public class PasswdClientProvider extends ContentProvider
         /**
          * Constructor
          */
-        protected SuggestionsUser(PasswdRecordFilter filter,
+        protected SuggestionsUser(Pattern query,
                                   int limit,
                                   MatchComparator comparator,
                                   Context ctx)
         {
-            itsFilter = filter;
+            itsQuery = query;
             itsLimit = limit;
             itsComparator = comparator;
             itsContext = ctx;
@@ -335,26 +327,9 @@ public class PasswdClientProvider extends ContentProvider
         @Override
         public Cursor useFileData(@NonNull PasswdFileData fileData)
         {
-            ArrayList<RecordMatch> recs = new ArrayList<>();
-            Set<String> groups = new HashSet<>();
-            for (PwsRecord rec: fileData.getRecords()) {
-                String match = itsFilter.filterRecord(rec, fileData,
-                                                      itsContext);
-                if (match != null) {
-                    recs.add(new RecordMatch(rec, match, fileData));
-                }
-
-                String matchGroup = itsFilter.matchGroup(rec, fileData);
-                if ((matchGroup != null) && !groups.contains(matchGroup)) {
-                    groups.add(matchGroup);
-                    recs.add(new RecordMatch(matchGroup));
-                }
-
-                if (recs.size() >= itsLimit) {
-                    break;
-                }
-            }
-            Collections.sort(recs, itsComparator);
+            List<PasswdSuggestions.Suggestion> matches =
+                    new PasswdSuggestions(itsQuery, itsLimit, itsComparator)
+                            .find(fileData, itsContext);
 
             MatrixCursor cursor = new MatrixCursor(
                     new String[]{BaseColumns._ID,
@@ -362,14 +337,14 @@ public class PasswdClientProvider extends ContentProvider
                                  SearchManager.SUGGEST_COLUMN_TEXT_1,
                                  SearchManager.SUGGEST_COLUMN_TEXT_2,
                                  SearchManager.SUGGEST_COLUMN_ICON_1 },
-                    recs.size());
+                    matches.size());
 
             Object[] row = new Object[5];
             row[4] = null;
             int id = 0;
-            for (RecordMatch match: recs) {
+            for (PasswdSuggestions.Suggestion match: matches) {
                 row[0] = id++;
-                row[1] = match.itsData;
+                row[1] = match.getData(fileData);
                 row[2] = match.itsLabel;
                 row[3] = match.itsMatch;
                 cursor.addRow(row);
@@ -380,49 +355,11 @@ public class PasswdClientProvider extends ContentProvider
     }
 
     /**
-     * A matched password record
-     */
-    private static class RecordMatch
-    {
-        protected final String itsTitle;
-        protected final String itsUser;
-        protected final String itsData;
-        protected final String itsLabel;
-        protected final String itsMatch;
-
-        /**
-         * Constructor for a record
-         */
-        protected RecordMatch(PwsRecord rec,
-                              String match,
-                              @NonNull PasswdFileData fileData)
-        {
-            itsTitle = fileData.getTitle(rec);
-            itsUser = fileData.getUsername(rec);
-            itsData = PasswdRecordFilter.SEARCH_VIEW_RECORD +
-                      fileData.getUUID(rec);
-            itsLabel = PasswdRecord.getRecordId(null, itsTitle, itsUser);
-            itsMatch = match;
-        }
-
-        /**
-         * Constructor for a group
-         */
-        protected RecordMatch(String group)
-        {
-            itsTitle = group;
-            itsUser = null;
-            itsData = PasswdRecordFilter.SEARCH_VIEW_GROUP + itsTitle;
-            itsLabel = itsTitle;
-            itsMatch = PasswdRecordFilter.QUERY_MATCH_GROUP;
-        }
-    }
-
-    /**
-     * Comparator for RecordMatch objects
+     * Comparator for the order of suggestions with the same score
      */
     @SuppressWarnings("ClassCanBeRecord")
-    private static class MatchComparator implements Comparator<RecordMatch>
+    private static class MatchComparator
+            implements Comparator<PasswdSuggestions.Suggestion>
     {
         private final boolean itsIsAscending;
         private final boolean itsIsCaseSensitive;
@@ -437,7 +374,8 @@ public class PasswdClientProvider extends ContentProvider
         }
 
         @Override
-        public int compare(@NonNull RecordMatch m1, @NonNull RecordMatch m2)
+        public int compare(@NonNull PasswdSuggestions.Suggestion m1,
+                           @NonNull PasswdSuggestions.Suggestion m2)
         {
             int rc = compareField(m1.itsTitle, m2.itsTitle);
             if (rc == 0) {
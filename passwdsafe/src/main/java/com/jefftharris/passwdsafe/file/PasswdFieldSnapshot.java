@@ -0,0 +1,190 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.file;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.pwsafe.lib.file.PwsRecord;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A snapshot of the short text fields of an open file's records along with
+ * their case-folded forms and sort keys.  The fields of a record are read
+ * from the file when first used and kept until the record changes, so
+ * repeated searches and sorts don't decode and fold the same fields again.
+ * <p>
+ * Fields are case-folded for US-ASCII letters only, matching the case
+ * folding of a case-insensitive Pattern.  The sort keys are folded as by
+ * String.compareToIgnoreCase so that comparing them with compareTo orders
+ * the fields the same way.
+ */
+public final class PasswdFieldSnapshot
+{
+    /**
+     * The fields of a record.  The folded fields and sort keys are the same
+     * instances as the fields when folding doesn't change them.
+     * @param groupPath The elements of the group, shared between records
+     *                  in the same groups.  The array must not be modified.
+     */
+    public record Fields(@Nullable String title,
+                         @Nullable String foldedTitle,
+                         @Nullable String titleKey,
+                         @Nullable String username,
+                         @Nullable String foldedUsername,
+                         @Nullable String usernameKey,
+                         @Nullable String url,
+                         @Nullable String foldedUrl,
+                         @Nullable String email,
+                         @Nullable String foldedEmail,
+                         @Nullable String group,
+                         @Nullable String foldedGroup,
+                         @NonNull String[] groupPath,
+                         long modTime)
+    {
+    }
+
+    private final Map<PwsRecord, Fields> itsFields = new IdentityHashMap<>();
+    private final Map<String, String[]> itsGroupPaths = new HashMap<>();
+    private final Map<String, String> itsGroupNames = new HashMap<>();
+
+    /**
+     * Reset the snapshot when the file's records change
+     */
+    synchronized void reset()
+    {
+        itsFields.clear();
+        itsGroupPaths.clear();
+        itsGroupNames.clear();
+    }
+
+    /**
+     * Remove a record whose fields have changed from the snapshot
+     */
+    synchronized void invalidate(PwsRecord rec)
+    {
+        itsFields.remove(rec);
+    }
+
+    /**
+     * Get the fields of a record, reading them if needed
+     */
+    @NonNull
+    public synchronized Fields getFields(@NonNull PwsRecord rec,
+                                         @NonNull PasswdFileData fileData)
+    {
+        Fields fields = itsFields.get(rec);
+        if (fields == null) {
+            String title = fileData.getTitle(rec);
+            String username = fileData.getUsername(rec);
+            String url = fileData.getURL(rec, PasswdFileData.UrlStyle.FULL);
+            String email =
+                    fileData.getEmail(rec, PasswdFileData.EmailStyle.FULL);
+            String group = fileData.getGroup(rec);
+            Date modTime = fileData.getLastModTime(rec);
+            if (modTime == null) {
+                modTime = fileData.getCreationTime(rec);
+            }
+            fields = new Fields(title, foldCase(title), getSortKey(title),
+                                username, foldCase(username),
+                                getSortKey(username),
+                                url, foldCase(url),
+                                email, foldCase(email),
+                                group, foldCase(group), getGroupPath(group),
+                                (modTime != null) ? modTime.getTime() : 0);
+            itsFields.put(rec, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * Get the shared elements of a group.  Each element is also shared with
+     * the other groups which contain it.
+     */
+    @NonNull
+    private String[] getGroupPath(@Nullable String group)
+    {
+        if (group == null) {
+            group = "";
+        }
+        String[] path = itsGroupPaths.get(group);
+        if (path == null) {
+            ArrayList<String> groups = new ArrayList<>();
+            PasswdFileData.splitGroup(group, groups);
+            path = new String[groups.size()];
+            for (int i = 0; i < path.length; ++i) {
+                String name = groups.get(i);
+                String sharedName = itsGroupNames.get(name);
+                if (sharedName == null) {
+                    sharedName = name;
+                    itsGroupNames.put(name, name);
+                }
+                path[i] = sharedName;
+            }
+            itsGroupPaths.put(group, path);
+        }
+        return path;
+    }
+
+    /**
+     * Get the key of a string for case-insensitive sorting.  Comparing keys
+     * with compareTo orders the strings as compareToIgnoreCase.
+     * @return The key; the same string if folding doesn't change it
+     */
+    @Nullable
+    public static String getSortKey(@Nullable String str)
+    {
+        if (str == null) {
+            return null;
+        }
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            if (Character.toLowerCase(Character.toUpperCase(c)) != c) {
+                char[] chars = str.toCharArray();
+                for (int j = i; j < chars.length; ++j) {
+                    chars[j] = Character.toLowerCase(
+                            Character.toUpperCase(chars[j]));
+                }
+                return new String(chars);
+            }
+        }
+        return str;
+    }
+
+    /**
+     * Fold the case of the US-ASCII letters in a string
+     * @return The folded string; the same string if it has no upper case
+     * letters
+     */
+    @Nullable
+    static String foldCase(@Nullable String str)
+    {
+        if (str == null) {
+            return null;
+        }
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            if ((c >= 'A') && (c <= 'Z')) {
+                char[] chars = str.toCharArray();
+                for (int j = i; j < chars.length; ++j) {
+                    c = chars[j];
+                    if ((c >= 'A') && (c <= 'Z')) {
+                        chars[j] = (char)(c + ('a' - 'A'));
+                    }
+                }
+                return new String(chars);
+            }
+        }
+        return str;
+    }
+}
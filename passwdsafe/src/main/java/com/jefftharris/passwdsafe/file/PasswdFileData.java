@@ -30,6 +30,7 @@ import org.pwsafe.lib.exception.EndOfFileException;
 import org.pwsafe.lib.exception.InvalidPassphraseException;
 import org.pwsafe.lib.exception.RecordLoadException;
 import org.pwsafe.lib.exception.UnsupportedFileVersionException;
+import org.pwsafe.lib.file.AbstractPwsPasswdField;
 import org.pwsafe.lib.file.Owner;
 import org.pwsafe.lib.file.PwsByteField;
 import org.pwsafe.lib.file.PwsField;
@@ -59,7 +60,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -72,10 +72,16 @@ public class PasswdFileData
 {
     private PasswdFileUri itsUri;
     private PwsFile itsPwsFile;
-    private final HashMap<String, PwsRecord> itsRecordsByUUID = new HashMap<>();
+    private final PasswdRecordUuidMap itsRecordsByUUID =
+            new PasswdRecordUuidMap();
     private final Map<PwsRecord, PasswdRecord> itsPasswdRecords =
         new IdentityHashMap<>();
     private final ArrayList<PwsRecord> itsRecords = new ArrayList<>();
+    private final PasswdSearchIndex itsSearchIndex = new PasswdSearchIndex();
+    private final PasswdFieldSnapshot itsFieldSnapshot =
+            new PasswdFieldSnapshot();
+    private final PasswdFuzzyIndex itsFuzzyIndex = new PasswdFuzzyIndex();
+    private int itsRecordsVersion = 0;
     private HeaderPasswdPolicies itsHdrPolicies = new HeaderPasswdPolicies();
     private boolean itsIsUriWritable = false;
     private boolean itsIsYubikey = false;
@@ -175,11 +181,48 @@ public class PasswdFileData
         return itsRecordsByUUID.get(uuid);
     }
 
+    /**
+     * Get the record referenced by an alias or shortcut password in the form
+     * of [[<uuid>]] or [~<uuid>~]
+     */
+    @Nullable
+    final PwsRecord getRefRecord(@NonNull String passwd)
+    {
+        return itsRecordsByUUID.getRef(passwd);
+    }
+
     public PasswdRecord getPasswdRecord(PwsRecord rec)
     {
         return itsPasswdRecords.get(rec);
     }
 
+    /** Get the search index of the file's records */
+    PasswdSearchIndex getSearchIndex()
+    {
+        return itsSearchIndex;
+    }
+
+    /** Get the snapshot of the fields of the file's records */
+    public PasswdFieldSnapshot getFieldSnapshot()
+    {
+        return itsFieldSnapshot;
+    }
+
+    /** Get the fuzzy search index of the file's records */
+    PasswdFuzzyIndex getFuzzyIndex()
+    {
+        return itsFuzzyIndex;
+    }
+
+    /**
+     * Get the version of the file's records, which changes when a record is
+     * added, removed, or has a field set
+     */
+    int getRecordsVersion()
+    {
+        return itsRecordsVersion;
+    }
+
     /** Get the collection of PasswdRecords in the file */
     public Collection<PasswdRecord> getPasswdRecords()
     {
@@ -426,6 +469,31 @@ public class PasswdFileData
         return getField(rec, PwsFieldTypeV3.PASSWORD);
     }
 
+    /**
+     * Get the encoded bytes of a record's password without unsealing it into
+     * a string.  The caller must clear the bytes.
+     */
+    @Nullable
+    public final byte[] getPasswordBytes(PwsRecord rec)
+    {
+        PwsField field = doGetRecField(rec, PwsFieldTypeV3.PASSWORD);
+        return (field != null) ? field.getBytes() : null;
+    }
+
+    /**
+     * Does the record's password match the given password without unsealing
+     * the record's password into a string
+     */
+    public final boolean matchPassword(PwsRecord rec,
+                                       @NonNull PwsPassword passwd)
+    {
+        PwsField field = doGetRecField(rec, PwsFieldTypeV3.PASSWORD);
+        if (field instanceof AbstractPwsPasswdField passwdField) {
+            return passwdField.matches(passwd);
+        }
+        return (field != null) && passwd.equals(field.toString());
+    }
+
     public final void setPassword(String oldPasswd, String newPasswd,
                                   PwsRecord rec)
     {
@@ -830,6 +898,17 @@ public class PasswdFileData
         return (field == null) ? null : field.toString();
     }
 
+    /**
+     * Get the value of a record's UUID field without formatting it: a UUID
+     * for V2 and V3 files or a string for the phantom field of V1 files
+     */
+    @Nullable
+    private Object getUUIDValue(PwsRecord rec)
+    {
+        PwsField field = doGetRecField(rec, PwsFieldTypeV3.UUID);
+        return (field == null) ? null : field.getValue();
+    }
+
     /** Get a field value as an 4 byte integer */
     @Nullable
     private Integer getIntField(PwsRecord rec, PwsFieldTypeV3 fieldId)
@@ -1342,6 +1421,10 @@ public class PasswdFileData
 
         if (versionSupported && (fieldId != null)) {
             setOrRemoveField(field, fieldId.getId(), rec);
+            itsSearchIndex.invalidate(rec);
+            itsFieldSnapshot.invalidate(rec);
+            itsFuzzyIndex.invalidate(rec);
+            ++itsRecordsVersion;
             if (updateModTime && isV3() && itsPasswdRecords.containsKey(rec)) {
                 var modFieldId = (fieldId == PwsFieldTypeV3.PASSWORD) ?
                                  PwsFieldTypeV3.PASSWORD_MOD_TIME :
@@ -1370,35 +1453,48 @@ public class PasswdFileData
         PasswdSafeUtil.dbginfo(TAG, "file loaded");
     }
 
-    private void indexRecords()
+    /**
+     * Index the records of the file.  Package-private for the benchmarks.
+     */
+    void indexRecords()
     {
+        itsSearchIndex.reset();
+        itsFieldSnapshot.reset();
+        itsFuzzyIndex.reset();
+        ++itsRecordsVersion;
         itsRecords.clear();
-        itsRecordsByUUID.clear();
         itsPasswdRecords.clear();
         if (itsPwsFile != null) {
+            itsRecordsByUUID.clear(itsPwsFile.getRecordCount());
             itsRecords.ensureCapacity(itsPwsFile.getRecordCount());
             Iterator<PwsRecord> recIter = itsPwsFile.getRecords();
             while (recIter.hasNext()) {
                 PwsRecord rec = recIter.next();
-                String uuid = getUUID(rec);
+                Object uuid = getUUIDValue(rec);
                 if (uuid == null) {
                     // Add a UUID field for records without one.  The record
                     // will not be marked as modified unless the user manually
                     // edits it.
+                    uuid = new UUID();
                     PwsUUIDField uuidField = new PwsUUIDField(
                         isV2() ? PwsFieldTypeV2.UUID : PwsFieldTypeV3.UUID,
-                        new UUID());
+                        (UUID)uuid);
                     boolean modified = rec.isModified();
                     rec.setField(uuidField);
                     if (!modified) {
                         rec.resetModified();
                     }
-                    uuid = uuidField.toString();
                 }
 
                 itsRecords.add(rec);
-                itsRecordsByUUID.put(uuid, rec);
+                if (uuid instanceof UUID recUuid) {
+                    itsRecordsByUUID.put(recUuid, rec);
+                } else {
+                    itsRecordsByUUID.put(uuid.toString(), rec);
+                }
             }
+        } else {
+            itsRecordsByUUID.clear(0);
         }
         for (PwsRecord rec: itsRecords) {
             itsPasswdRecords.put(rec, new PasswdRecord(rec, this));
@@ -1489,14 +1585,14 @@ public class PasswdFileData
             return R.string.record_has_references;
         }
 
-        String recuuid = getUUID(rec);
+        Object recuuid = getUUIDValue(rec);
         if (recuuid == null) {
             return R.string.record_not_found;
         }
 
         for (int i = 0; i < itsRecords.size(); ++i) {
             PwsRecord r = itsRecords.get(i);
-            String ruuid = getUUID(r);
+            Object ruuid = getUUIDValue(r);
             if (recuuid.equals(ruuid)) {
                 boolean rc = itsPwsFile.removeRecord(i);
                 if (rc) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2017-2024 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2017-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -15,8 +15,11 @@ import android.util.Log;
 import com.jefftharris.passwdsafe.lib.PasswdSafeUtil;
 import com.jefftharris.passwdsafe.lib.Utils;
 
+import org.pwsafe.lib.file.PwsFileStorage;
 import org.pwsafe.lib.file.PwsStreamStorage;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,9 +38,17 @@ public class PasswdFileGenProviderStorage extends PwsStreamStorage
         itsUri = uri;
     }
 
+    /**
+     * Save the file to the provider.  The file is streamed to a temporary
+     * file first and only copied over the provider's file once it is written
+     * completely, as a temporary file can't be renamed over it.  A failed
+     * save then leaves the provider's file untouched.
+     */
     @Override
-    public void save(byte[] data, boolean isV3) throws IOException
+    public void save(SaveWriter writer, boolean isV3) throws IOException
     {
+        File file = null;
+        FileInputStream fis = null;
         ParcelFileDescriptor pfd = null;
         FileOutputStream fos = null;
         try {
@@ -46,6 +57,10 @@ public class PasswdFileGenProviderStorage extends PwsStreamStorage
 
             helper.createBackup(itsUri, getIdentifier());
 
+            file = File.createTempFile("passwd", ".tmp", ctx.getCacheDir());
+            PwsFileStorage.writeFile(file, writer);
+            fis = new FileInputStream(file);
+
             var cr = ctx.getContentResolver();
             try {
                 String mode = "wt";
@@ -72,11 +87,14 @@ public class PasswdFileGenProviderStorage extends PwsStreamStorage
                 Log.w(TAG, "Error truncating file", e);
             }
 
-            fos.write(data);
+            Utils.copyStream(fis, fos);
 
             PasswdSafeUtil.dbginfo(TAG, "GenProviderStorage update %s", itsUri);
         } finally {
-            Utils.closeStreams(fos, pfd);
+            Utils.closeStreams(fis, fos, pfd);
+            if ((file != null) && !file.delete()) {
+                Log.e(TAG, "Error deleting " + file);
+            }
         }
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2017-2024 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2017-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -42,7 +42,7 @@ public final class PasswdFileSyncStorage extends PwsStreamStorage
     }
 
     @Override
-    public void save(byte[] data, boolean isV3) throws IOException
+    public void save(SaveWriter writer, boolean isV3) throws IOException
     {
         File file = null;
         try {
@@ -53,7 +53,7 @@ public final class PasswdFileSyncStorage extends PwsStreamStorage
             helper.createBackup(itsUri, getIdentifier());
 
             file = File.createTempFile("passwd", ".tmp", ctx.getCacheDir());
-            PwsFileStorage.writeFile(file, data);
+            PwsFileStorage.writeFile(file, writer);
             Uri fileUri = PasswdClientProvider.addFile(file);
 
             ContentResolver cr = ctx.getContentResolver();
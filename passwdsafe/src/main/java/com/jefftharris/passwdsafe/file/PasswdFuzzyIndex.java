@@ -0,0 +1,424 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.file;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.pwsafe.lib.file.PwsRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A trigram index of the words in the titles, usernames, and URLs of an open
+ * file's records for typo-tolerant queries.  Each query word is matched
+ * against the start of the indexed words.  Candidate words are found from
+ * the query word's trigrams, weighted by how rare each trigram is in English
+ * text, and the best candidates are re-ranked by their edit distance from
+ * the query word.
+ * <p>
+ * Words are case-folded for US-ASCII letters only.  The index is built when
+ * first used and rebuilt after the records change.
+ */
+final class PasswdFuzzyIndex
+{
+    /**
+     * A record matched by a query
+     * @param field The label of the field which matched
+     * @param distance The total edit distance of the query's words
+     */
+    record Match(@NonNull PwsRecord rec, String field, int distance)
+    {
+    }
+
+    /**
+     * A growable list of ints
+     */
+    private static final class IntList
+    {
+        private int[] itsValues = new int[4];
+        private int itsSize = 0;
+
+        /**
+         * Add a value unless it is the same as the last value
+         */
+        private void addUnique(int value)
+        {
+            if ((itsSize > 0) && (itsValues[itsSize - 1] == value)) {
+                return;
+            }
+            if (itsSize == itsValues.length) {
+                itsValues = Arrays.copyOf(itsValues, 2 * itsSize);
+            }
+            itsValues[itsSize++] = value;
+        }
+    }
+
+    private static final int FIELD_TITLE = 0;
+    private static final int FIELD_USERNAME = 1;
+    private static final int FIELD_URL = 2;
+    private static final int FIELD_BITS = 2;
+    private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+
+    /** Minimum length of an indexed or query word */
+    private static final int MIN_WORD_LEN = 2;
+
+    /** Maximum number of candidate words re-ranked for a query word */
+    private static final int MAX_CANDIDATE_WORDS = 256;
+
+    /** Length of the indexed grams */
+    private static final int GRAM_LEN = 3;
+
+    /** Character which pads the start of a word */
+    private static final char WORD_START = ' ';
+
+    /** Weights of the letter trigrams by their rarity */
+    private static float[] itsLetterWeights;
+
+    private final HashMap<String, Integer> itsWordIds = new HashMap<>();
+    private final ArrayList<String> itsWords = new ArrayList<>();
+    private final ArrayList<IntList> itsWordRecords = new ArrayList<>();
+    private final HashMap<Long, IntList> itsGramWords = new HashMap<>();
+    private final ArrayList<PwsRecord> itsRecords = new ArrayList<>();
+    private boolean itsIsBuilt = false;
+    private int itsVersion = 0;
+
+    /**
+     * Reset the index when the file's records change
+     */
+    synchronized void reset()
+    {
+        itsWordIds.clear();
+        itsWords.clear();
+        itsWordRecords.clear();
+        itsGramWords.clear();
+        itsRecords.clear();
+        itsIsBuilt = false;
+        ++itsVersion;
+    }
+
+    /**
+     * Mark the index to be rebuilt when a record's fields have changed
+     */
+    synchronized void invalidate(PwsRecord rec)
+    {
+        if (itsIsBuilt) {
+            reset();
+        }
+    }
+
+    /**
+     * Get the version of the index which changes whenever the records change
+     */
+    synchronized int getVersion()
+    {
+        return itsVersion;
+    }
+
+    /**
+     * Find the records whose titles, usernames, or URLs contain words which
+     * start with close matches for all of the words of a query
+     * @return The matched records, closest first and then in file order
+     */
+    @NonNull
+    synchronized List<Match> findMatches(@NonNull String query,
+                                         @NonNull PasswdFileData fileData)
+    {
+        if (!itsIsBuilt) {
+            build(fileData);
+        }
+
+        String[] queryWords = splitWords(PasswdFieldSnapshot.foldCase(query));
+        int[] recMatches = null;
+        for (String queryWord: queryWords) {
+            int[] wordMatches = matchWord(queryWord);
+            if (recMatches == null) {
+                recMatches = wordMatches;
+                continue;
+            }
+            for (int i = 0; i < recMatches.length; ++i) {
+                if ((recMatches[i] < 0) || (wordMatches[i] < 0)) {
+                    recMatches[i] = -1;
+                } else {
+                    recMatches[i] += (wordMatches[i] & ~FIELD_MASK);
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        if (recMatches == null) {
+            return matches;
+        }
+        String[] fieldLabels = {PasswdRecordFilter.QUERY_MATCH_TITLE,
+                                PasswdRecordFilter.QUERY_MATCH_USERNAME,
+                                PasswdRecordFilter.QUERY_MATCH_URL};
+        for (int i = 0; i < recMatches.length; ++i) {
+            int match = recMatches[i];
+            if (match >= 0) {
+                matches.add(new Match(itsRecords.get(i),
+                                      fieldLabels[match & FIELD_MASK],
+                                      match >> FIELD_BITS));
+            }
+        }
+        // Stable sort keeps the file order for equal distances
+        Collections.sort(matches, (m1, m2) -> Integer.compare(
+                m1.distance(), m2.distance()));
+        return matches;
+    }
+
+    /**
+     * Build the index from the file's records
+     */
+    private void build(@NonNull PasswdFileData fileData)
+    {
+        PasswdFieldSnapshot snapshot = fileData.getFieldSnapshot();
+        itsRecords.addAll(fileData.getRecords());
+        for (int i = 0; i < itsRecords.size(); ++i) {
+            PasswdFieldSnapshot.Fields fields =
+                    snapshot.getFields(itsRecords.get(i), fileData);
+            addWords(fields.foldedTitle(), i, FIELD_TITLE);
+            addWords(fields.foldedUsername(), i, FIELD_USERNAME);
+            addWords(fields.foldedUrl(), i, FIELD_URL);
+        }
+        itsIsBuilt = true;
+    }
+
+    /**
+     * Add the words of a record's field to the index
+     */
+    private void addWords(@Nullable String field, int ordinal, int fieldId)
+    {
+        if (field == null) {
+            return;
+        }
+        for (String word: splitWords(field)) {
+            Integer wordId = itsWordIds.get(word);
+            if (wordId == null) {
+                wordId = itsWords.size();
+                itsWordIds.put(word, wordId);
+                itsWords.add(word);
+                itsWordRecords.add(new IntList());
+                for (long gram: getGrams(word)) {
+                    IntList words = itsGramWords.get(gram);
+                    if (words == null) {
+                        words = new IntList();
+                        itsGramWords.put(gram, words);
+                    }
+                    words.addUnique(wordId);
+                }
+            }
+            itsWordRecords.get(wordId).addUnique(
+                    (ordinal << FIELD_BITS) | fieldId);
+        }
+    }
+
+    /**
+     * Match a query word against the index
+     * @return For each record, the edit distance of its closest word and the
+     * word's field; -1 for records without a match
+     */
+    @NonNull
+    private int[] matchWord(@NonNull String queryWord)
+    {
+        int[] recMatches = new int[itsRecords.size()];
+        Arrays.fill(recMatches, -1);
+
+        // Weigh the words sharing each of the query word's trigrams
+        HashMap<Integer, Float> wordWeights = new HashMap<>();
+        for (long gram: getGrams(queryWord)) {
+            IntList words = itsGramWords.get(gram);
+            if (words == null) {
+                continue;
+            }
+            float weight = getGramWeight(gram);
+            for (int i = 0; i < words.itsSize; ++i) {
+                Float wordWeight = wordWeights.get(words.itsValues[i]);
+                wordWeights.put(words.itsValues[i],
+                                (wordWeight == null) ? weight :
+                                wordWeight + weight);
+            }
+        }
+
+        // Re-rank the heaviest candidates by edit distance.  The weights
+        // are positive, so their bits sort in the same order.
+        long[] candidates = new long[wordWeights.size()];
+        int numCandidates = 0;
+        for (var entry: wordWeights.entrySet()) {
+            candidates[numCandidates++] =
+                    ((long)Float.floatToIntBits(entry.getValue()) << 32) |
+                    entry.getKey();
+        }
+        Arrays.sort(candidates);
+        int maxDist = getMaxDistance(queryWord);
+        int end = Math.max(0, numCandidates - MAX_CANDIDATE_WORDS);
+        for (int i = numCandidates - 1; i >= end; --i) {
+            int wordId = (int)candidates[i];
+            int dist = getPrefixDistance(queryWord, itsWords.get(wordId),
+                                         maxDist);
+            if (dist > maxDist) {
+                continue;
+            }
+            IntList recs = itsWordRecords.get(wordId);
+            for (int j = 0; j < recs.itsSize; ++j) {
+                int rec = recs.itsValues[j];
+                int ordinal = rec >> FIELD_BITS;
+                int match = (dist << FIELD_BITS) | (rec & FIELD_MASK);
+                if ((recMatches[ordinal] < 0) ||
+                    (match < recMatches[ordinal])) {
+                    recMatches[ordinal] = match;
+                }
+            }
+        }
+        return recMatches;
+    }
+
+    /**
+     * Get the maximum edit distance of a match for a query word
+     */
+    private static int getMaxDistance(@NonNull String queryWord)
+    {
+        if (queryWord.length() < 4) {
+            return 0;
+        } else if (queryWord.length() < 8) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Get the smallest edit distance, with transpositions, between a query
+     * word and the start of a word
+     * @return The distance; greater than maxDist if it exceeds maxDist
+     */
+    private static int getPrefixDistance(@NonNull String query,
+                                         @NonNull String word,
+                                         int maxDist)
+    {
+        int wordLen = word.length();
+        int[] prevPrev = new int[wordLen + 1];
+        int[] prev = new int[wordLen + 1];
+        int[] curr = new int[wordLen + 1];
+        for (int j = 0; j <= wordLen; ++j) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= query.length(); ++i) {
+            char qc = query.charAt(i - 1);
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= wordLen; ++j) {
+                char wc = word.charAt(j - 1);
+                int dist = Math.min(Math.min(curr[j - 1], prev[j]) + 1,
+                                    prev[j - 1] + ((qc == wc) ? 0 : 1));
+                if ((i > 1) && (j > 1) && (qc == word.charAt(j - 2)) &&
+                    (query.charAt(i - 2) == wc)) {
+                    dist = Math.min(dist, prevPrev[j - 2] + 1);
+                }
+                curr[j] = dist;
+                rowMin = Math.min(rowMin, dist);
+            }
+            if (rowMin > maxDist) {
+                return maxDist + 1;
+            }
+            int[] tmp = prevPrev;
+            prevPrev = prev;
+            prev = curr;
+            curr = tmp;
+        }
+
+        int dist = prev[0];
+        for (int j = 1; j <= wordLen; ++j) {
+            dist = Math.min(dist, prev[j]);
+        }
+        return dist;
+    }
+
+    /**
+     * Get the weight of a trigram.  Letter trigrams are weighted by how
+     * rare they are in English text.  Trigrams with other characters, or
+     * starting a word, are weighted as the rarest.
+     */
+    private static float getGramWeight(long gram)
+    {
+        int c1 = (int)(gram >> 32) - 'a';
+        int c2 = (int)((gram >> 16) & 0xffff) - 'a';
+        int c3 = (int)(gram & 0xffff) - 'a';
+        float[] weights = getLetterWeights();
+        if ((c1 < 0) || (c1 >= 26) || (c2 < 0) || (c2 >= 26) ||
+            (c3 < 0) || (c3 >= 26)) {
+            return weights[weights.length - 1];
+        }
+        return weights[(c1 * 26 + c2) * 26 + c3];
+    }
+
+    /**
+     * Get the weights of the letter trigrams, creating them if needed.  The
+     * last entry is the weight of the rarest trigram.
+     */
+    @NonNull
+    private static synchronized float[] getLetterWeights()
+    {
+        if (itsLetterWeights == null) {
+            float[] weights = new float[26 * 26 * 26 + 1];
+            double sigma = Trigram.SIGMA;
+            for (int c1 = 0; c1 < 26; ++c1) {
+                for (int c2 = 0; c2 < 26; ++c2) {
+                    for (int c3 = 0; c3 < 26; ++c3) {
+                        weights[(c1 * 26 + c2) * 26 + c3] = (float)Math.log(
+                                sigma / (Trigram.TRIS[c1][c2][c3] + 1));
+                    }
+                }
+            }
+            weights[weights.length - 1] = (float)Math.log(sigma);
+            itsLetterWeights = weights;
+        }
+        return itsLetterWeights;
+    }
+
+    /**
+     * Get the trigrams of a word with its start padded
+     */
+    @NonNull
+    private static long[] getGrams(@NonNull String word)
+    {
+        int numGrams = word.length() + 1 - GRAM_LEN + 1;
+        long[] grams = new long[Math.max(numGrams, 0)];
+        long gram = ((long)WORD_START << 16) | word.charAt(0);
+        for (int i = 1; i < word.length(); ++i) {
+            gram = ((gram << 16) | word.charAt(i)) & 0xffffffffffffL;
+            grams[i - 1] = gram;
+        }
+        return grams;
+    }
+
+    /**
+     * Split a string into its words of letters and digits
+     */
+    @NonNull
+    private static String[] splitWords(@NonNull String str)
+    {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= str.length(); ++i) {
+            boolean isWordChar = (i < str.length()) &&
+                                 Character.isLetterOrDigit(str.charAt(i));
+            if (isWordChar && (start < 0)) {
+                start = i;
+            } else if (!isWordChar && (start >= 0)) {
+                if ((i - start) >= MIN_WORD_LEN) {
+                    words.add(str.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2012-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2012-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -15,7 +15,6 @@ import org.pwsafe.lib.file.PwsRecord;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 
 public class PasswdRecord
@@ -122,6 +121,19 @@ public class PasswdRecord
         };
     }
 
+    /**
+     * Get the record holding the password for the record
+     */
+    @Nullable
+    public PwsRecord getPasswordRecord()
+    {
+        return switch (itsType) {
+            case NORMAL -> itsRecord;
+            case ALIAS,
+                 SHORTCUT -> itsRef;
+        };
+    }
+
     /** Notification that the password policy has changed */
     public void passwdPolicyChanged(@NonNull PasswdFileData fileData)
     {
@@ -222,30 +234,9 @@ public class PasswdRecord
 
     private PwsRecord lookupRef(@NonNull String passwd, PasswdFileData fileData)
     {
-        PwsRecord ref = null;
-
         // Passwd in the form of [[<uuid>]] or [~<uuid>~]. Check for a real
-        // entry. The <uuid> is a string of hex digits and needs to be converted
-        // to the format used by the UUID class
-        if (passwd.length() == 36) {
-            StringBuilder sb = new StringBuilder(36 - 4 + 6);
-            sb.append('{');
-            sb.append(passwd, 2, 2 + 8);
-            sb.append('-');
-            sb.append(passwd, 10, 10 + 4);
-            sb.append('-');
-            sb.append(passwd, 14, 14 + 4);
-            sb.append('-');
-            sb.append(passwd, 18, 18 + 4);
-            sb.append('-');
-            sb.append(passwd, 22, 22 + 12);
-            sb.append('}');
-            ref = fileData.getRecord(sb.toString().toLowerCase(Locale.US));
-            for (int i = 0; i < sb.length(); ++i) {
-                sb.setCharAt(i, '\0');
-            }
-        }
-
-        return ref;
+        // entry. The <uuid> is a string of hex digits which are matched
+        // directly against the UUIDs of the records.
+        return fileData.getRefRecord(passwd);
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2012-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2012-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -19,8 +19,14 @@ import org.pwsafe.lib.file.PwsRecord;
 
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,8 +37,10 @@ public final class PasswdRecordFilter implements Closeable
     public enum Type
     {
         QUERY,
+        FUZZY,
         EXPIRATION,
-        SIMILAR
+        SIMILAR,
+        REUSED
     }
 
     /** Default options to match */
@@ -54,6 +62,15 @@ public final class PasswdRecordFilter implements Closeable
     /** Regex to match on various fields */
     private final Pattern itsSearchQuery;
 
+    /**
+     * Plain text of the search query, case-folded if the query is case
+     * insensitive; null if not plain text
+     */
+    private final String itsPlainQuery;
+
+    /** Whether the search query is case insensitive */
+    private final boolean itsIsCaseInsensitive;
+
     /** Expiration filter type */
     private final PasswdExpiryFilter itsExpiryFilter;
 
@@ -63,16 +80,29 @@ public final class PasswdRecordFilter implements Closeable
     /** Matcher for records with similar fields */
     private final RecordSimilarFields itsSimilarFields;
 
+    /** Report of records with reused passwords */
+    private final PasswdReuseReport itsReuseReport;
+
     /** Filter options */
     private final int itsOptions;
 
+    /** Fuzzy matches of the query by record */
+    private final Map<PwsRecord, String> itsFuzzyMatches =
+            new IdentityHashMap<>();
+
+    /** Records which may match a fuzzy query, closest matches first */
+    private final List<PwsRecord> itsFuzzyRecords = new ArrayList<>();
+
+    /** Version of the file's fuzzy index of the fuzzy matches */
+    private int itsFuzzyVersion = -1;
+
     public static final String QUERY_MATCH = "";
-    private static String QUERY_MATCH_TITLE;
-    private static String QUERY_MATCH_USERNAME;
+    static String QUERY_MATCH_TITLE;
+    static String QUERY_MATCH_USERNAME;
     private static String QUERY_MATCH_PASSWORD;
-    private static String QUERY_MATCH_URL;
-    private static String QUERY_MATCH_EMAIL;
-    private static String QUERY_MATCH_NOTES;
+    static String QUERY_MATCH_URL;
+    static String QUERY_MATCH_EMAIL;
+    static String QUERY_MATCH_NOTES;
     public static String QUERY_MATCH_GROUP;
 
     /** Search view result data prefix for a record */
@@ -80,14 +110,39 @@ public final class PasswdRecordFilter implements Closeable
     /** Search view result data prefix for a group */
     public static final String SEARCH_VIEW_GROUP = "GRP:";
 
+    /** Minimum number of records to filter in parallel */
+    private static final int PARALLEL_MIN_RECORDS = 128;
+
+    /** Number of records filtered by each parallel task */
+    private static final int PARALLEL_CHUNK_RECORDS = 64;
+
+    /** Pool for filtering records in parallel */
+    private static ForkJoinPool itsFilterPool;
+
     /** Constructor for a query */
     public PasswdRecordFilter(Pattern query, int opts)
     {
-        itsType = Type.QUERY;
+        this(query, false, opts);
+    }
+
+    /**
+     * Constructor for a query which may also match records fuzzily.  Only a
+     * plain text query is matched fuzzily.
+     */
+    public PasswdRecordFilter(Pattern query, boolean fuzzy, int opts)
+    {
+        String plainQuery = (query != null) ? getPlainQuery(query) : null;
+        itsType = (fuzzy && (plainQuery != null)) ? Type.FUZZY : Type.QUERY;
         itsSearchQuery = query;
+        itsIsCaseInsensitive =
+                (query != null) &&
+                ((query.flags() & Pattern.CASE_INSENSITIVE) != 0);
+        itsPlainQuery = itsIsCaseInsensitive ?
+                        PasswdFieldSnapshot.foldCase(plainQuery) : plainQuery;
         itsExpiryFilter = PasswdExpiryFilter.ANY;
         itsExpiryAtMillis = 0;
         itsSimilarFields = null;
+        itsReuseReport = null;
         itsOptions = opts;
     }
 
@@ -96,9 +151,12 @@ public final class PasswdRecordFilter implements Closeable
     {
         itsType = Type.EXPIRATION;
         itsSearchQuery = null;
+        itsPlainQuery = null;
+        itsIsCaseInsensitive = false;
         itsExpiryFilter = filter;
         itsExpiryAtMillis = itsExpiryFilter.getExpiryFromNow(customDate);
         itsSimilarFields = null;
+        itsReuseReport = null;
         itsOptions = OPTS_DEFAULT;
     }
 
@@ -107,9 +165,26 @@ public final class PasswdRecordFilter implements Closeable
     {
         itsType = Type.SIMILAR;
         itsSearchQuery = null;
+        itsPlainQuery = null;
+        itsIsCaseInsensitive = false;
         itsExpiryFilter = null;
         itsExpiryAtMillis = 0;
         itsSimilarFields = similarFields;
+        itsReuseReport = null;
+        itsOptions = OPTS_DEFAULT;
+    }
+
+    /** Constructor for records with reused passwords */
+    public PasswdRecordFilter(PasswdReuseReport reuseReport)
+    {
+        itsType = Type.REUSED;
+        itsSearchQuery = null;
+        itsPlainQuery = null;
+        itsIsCaseInsensitive = false;
+        itsExpiryFilter = null;
+        itsExpiryAtMillis = 0;
+        itsSimilarFields = null;
+        itsReuseReport = reuseReport;
         itsOptions = OPTS_DEFAULT;
     }
 
@@ -144,28 +219,22 @@ public final class PasswdRecordFilter implements Closeable
         switch (itsType) {
         case QUERY: {
             if (itsSearchQuery != null) {
-                if (filterField(fileData.getTitle(rec))) {
-                    queryMatch = QUERY_MATCH_TITLE;
-                } else if (filterField(fileData.getUsername(rec))) {
-                    queryMatch = QUERY_MATCH_USERNAME;
-                } else if (filterField(
-                        fileData.getURL(rec, PasswdFileData.UrlStyle.FULL))) {
-                    queryMatch = QUERY_MATCH_URL;
-                } else if (filterField(fileData.getEmail(
-                        rec, PasswdFileData.EmailStyle.FULL))) {
-                    queryMatch = QUERY_MATCH_EMAIL;
-                } else if (filterField(
-                        fileData.getNotes(rec, ctx).getNotes())) {
-                    queryMatch = QUERY_MATCH_NOTES;
-                } else if (!hasOptions(OPTS_NO_GROUP) &&
-                           filterField(fileData.getGroup(rec))) {
-                    queryMatch = QUERY_MATCH_GROUP;
-                }
+                queryMatch = filterQuery(rec, fileData, ctx);
             } else {
                 queryMatch = QUERY_MATCH;
             }
             break;
         }
+        case FUZZY: {
+            queryMatch = filterQuery(rec, fileData, ctx);
+            if (queryMatch == null) {
+                synchronized (this) {
+                    updateFuzzyMatches(fileData);
+                    queryMatch = itsFuzzyMatches.get(rec);
+                }
+            }
+            break;
+        }
         case EXPIRATION: {
             PasswdExpiration expiry = fileData.getPasswdExpiry(rec);
             if (expiry == null) {
@@ -193,7 +262,7 @@ public final class PasswdRecordFilter implements Closeable
                 matches = addMatch(matches, QUERY_MATCH_USERNAME);
             }
             if (itsSimilarFields.matchPassword(
-                    passwdRec.getPassword(fileData),
+                    passwdRec.getPasswordRecord(), fileData,
                     fileData.getPasswdHistory(rec))) {
                 matches = addMatch(matches, QUERY_MATCH_PASSWORD);
             }
@@ -212,6 +281,10 @@ public final class PasswdRecordFilter implements Closeable
             }
             break;
         }
+        case REUSED: {
+            queryMatch = itsReuseReport.getMatch(rec, fileData, ctx);
+            break;
+        }
         }
 
         if ((queryMatch != null) &&
@@ -249,6 +322,109 @@ public final class PasswdRecordFilter implements Closeable
         return queryMatch;
     }
 
+    /**
+     * Filter a list of records.  Expiration and similar record filters are
+     * evaluated in parallel chunks for large lists as matching similar
+     * records compares each record's passwords and history.  Each record is
+     * only accessed by the task filtering its chunk.
+     * @return The matches for the records in the same order; null entries
+     * for records which do not match
+     */
+    @NonNull
+    public String[] filterRecords(@NonNull List<PwsRecord> records,
+                                  @NonNull PasswdFileData fileData,
+                                  Context ctx)
+    {
+        String[] matches = new String[records.size()];
+        if ((itsType == Type.QUERY) || (itsType == Type.FUZZY) ||
+            (itsType == Type.REUSED) ||
+            (records.size() < PARALLEL_MIN_RECORDS)) {
+            filterRecords(records, 0, matches.length, matches, fileData, ctx);
+        } else {
+            getFilterPool().invoke(
+                    new FilterTask(records, 0, matches.length, matches,
+                                   fileData, ctx));
+        }
+        return matches;
+    }
+
+    /**
+     * Get the records to check against the filter.  Plain text queries are
+     * narrowed to the records which may match using the file's search index.
+     * Fuzzy queries add the records which match fuzzily.  Other filters
+     * check all records.
+     */
+    public List<PwsRecord> getCandidateRecords(@NonNull PasswdFileData fileData,
+                                               Context ctx)
+    {
+        switch (itsType) {
+        case QUERY:
+        case FUZZY: {
+            if (itsSearchQuery == null) {
+                break;
+            }
+            String query = getPlainQuery(itsSearchQuery);
+            if (query == null) {
+                break;
+            }
+            List<PwsRecord> candidates = fileData.getSearchIndex()
+                    .findCandidates(query, fileData, ctx);
+            if (candidates == null) {
+                break;
+            }
+            if (itsType == Type.FUZZY) {
+                synchronized (this) {
+                    updateFuzzyMatches(fileData);
+                    Set<PwsRecord> fuzzyRecords = Collections.newSetFromMap(
+                            new IdentityHashMap<>());
+                    fuzzyRecords.addAll(itsFuzzyRecords);
+                    List<PwsRecord> recs = new ArrayList<>(itsFuzzyRecords);
+                    for (PwsRecord rec: candidates) {
+                        if (!fuzzyRecords.contains(rec)) {
+                            recs.add(rec);
+                        }
+                    }
+                    candidates = recs;
+                }
+            }
+            return candidates;
+        }
+        case EXPIRATION:
+        case SIMILAR:
+        case REUSED: {
+            break;
+        }
+        }
+        return fileData.getRecords();
+    }
+
+    /**
+     * Filter a range of records
+     */
+    private void filterRecords(@NonNull List<PwsRecord> records,
+                               int start, int end,
+                               @NonNull String[] matches,
+                               @NonNull PasswdFileData fileData,
+                               Context ctx)
+    {
+        for (int i = start; i < end; ++i) {
+            matches[i] = filterRecord(records.get(i), fileData, ctx);
+        }
+    }
+
+    /**
+     * Get the pool for filtering records in parallel, creating it if needed
+     */
+    @NonNull
+    static synchronized ForkJoinPool getFilterPool()
+    {
+        if (itsFilterPool == null) {
+            itsFilterPool = new ForkJoinPool(
+                    Runtime.getRuntime().availableProcessors());
+        }
+        return itsFilterPool;
+    }
+
     /**
      * Match a record's group against the filter
      * @return The group if matched; null otherwise
@@ -257,17 +433,20 @@ public final class PasswdRecordFilter implements Closeable
     public String matchGroup(PwsRecord rec, PasswdFileData fileData)
     {
         switch (itsType) {
-        case QUERY: {
+        case QUERY:
+        case FUZZY: {
             if (itsSearchQuery != null) {
-                String group = fileData.getGroup(rec);
-                if (filterField(group)) {
-                    return group;
+                PasswdFieldSnapshot.Fields fields =
+                        fileData.getFieldSnapshot().getFields(rec, fileData);
+                if (filterField(fields.group(), fields.foldedGroup())) {
+                    return fields.group();
                 }
             }
             break;
         }
         case EXPIRATION:
-        case SIMILAR: {
+        case SIMILAR:
+        case REUSED: {
             break;
         }
         }
@@ -281,17 +460,40 @@ public final class PasswdRecordFilter implements Closeable
     public boolean isQueryType()
     {
         return switch (itsType) {
-            case QUERY -> true;
+            case QUERY,
+                 FUZZY -> true;
             case EXPIRATION,
-                 SIMILAR -> false;
+                 SIMILAR,
+                 REUSED -> false;
         };
     }
 
+    /**
+     * Is the filter a refinement of another filter such that it only
+     * matches records which the other filter matches.  True for plain text
+     * queries with the same options where this query contains the other's.
+     */
+    public boolean isRefinementOf(@Nullable PasswdRecordFilter other)
+    {
+        if ((other == null) ||
+            (itsType != Type.QUERY) || (other.itsType != Type.QUERY) ||
+            (itsSearchQuery == null) || (other.itsSearchQuery == null) ||
+            (itsOptions != other.itsOptions) ||
+            (itsSearchQuery.flags() != other.itsSearchQuery.flags())) {
+            return false;
+        }
+        String query = getPlainQuery(itsSearchQuery);
+        String otherQuery = getPlainQuery(other.itsSearchQuery);
+        return (query != null) && (otherQuery != null) &&
+               query.contains(otherQuery);
+    }
+
     /** Convert the filter to a string */
     public String toString(Context ctx)
     {
         switch (itsType) {
-        case QUERY: {
+        case QUERY:
+        case FUZZY: {
             if (itsSearchQuery != null) {
                 return itsSearchQuery.pattern();
             }
@@ -316,6 +518,9 @@ public final class PasswdRecordFilter implements Closeable
             return ctx.getString(R.string.similar_to,
                                  itsSimilarFields.getDescription());
         }
+        case REUSED: {
+            return ctx.getString(R.string.reused_passwords);
+        }
         }
         return "";
     }
@@ -335,6 +540,74 @@ public final class PasswdRecordFilter implements Closeable
     }
 
 
+    /**
+     * Match a record's fields against the search query
+     * @return The matched field; null if no match
+     */
+    @Nullable
+    private String filterQuery(PwsRecord rec,
+                               @NonNull PasswdFileData fileData,
+                               Context ctx)
+    {
+        PasswdFieldSnapshot.Fields fields =
+                fileData.getFieldSnapshot().getFields(rec, fileData);
+        if (filterField(fields.title(), fields.foldedTitle())) {
+            return QUERY_MATCH_TITLE;
+        } else if (filterField(fields.username(), fields.foldedUsername())) {
+            return QUERY_MATCH_USERNAME;
+        } else if (filterField(fields.url(), fields.foldedUrl())) {
+            return QUERY_MATCH_URL;
+        } else if (filterField(fields.email(), fields.foldedEmail())) {
+            return QUERY_MATCH_EMAIL;
+        } else if (filterField(fileData.getNotes(rec, ctx).getNotes())) {
+            return QUERY_MATCH_NOTES;
+        } else if (!hasOptions(OPTS_NO_GROUP) &&
+                   filterField(fields.group(), fields.foldedGroup())) {
+            return QUERY_MATCH_GROUP;
+        }
+        return null;
+    }
+
+    /**
+     * Update the fuzzy matches of the query if the file's records have
+     * changed since they were found
+     */
+    private void updateFuzzyMatches(@NonNull PasswdFileData fileData)
+    {
+        PasswdFuzzyIndex index = fileData.getFuzzyIndex();
+        int version = index.getVersion();
+        if (version == itsFuzzyVersion) {
+            return;
+        }
+        itsFuzzyMatches.clear();
+        itsFuzzyRecords.clear();
+        String query = getPlainQuery(itsSearchQuery);
+        //noinspection ConstantConditions
+        for (PasswdFuzzyIndex.Match match: index.findMatches(query, fileData)) {
+            itsFuzzyMatches.put(match.rec(), match.field());
+            itsFuzzyRecords.add(match.rec());
+        }
+        itsFuzzyVersion = version;
+    }
+
+    /**
+     * Match a snapshot field against the search query.  A plain text query
+     * is found in the field, or its case-folded form if the query is case
+     * insensitive, without a regex.
+     */
+    private boolean filterField(@Nullable String field,
+                                @Nullable String foldedField)
+    {
+        if (field == null) {
+            return false;
+        } else if (itsPlainQuery == null) {
+            return filterField(field);
+        }
+        //noinspection ConstantConditions
+        return (itsIsCaseInsensitive ? foldedField : field)
+                .contains(itsPlainQuery);
+    }
+
     /** Match a field against the search query */
     private boolean filterField(String field)
     {
@@ -346,6 +619,33 @@ public final class PasswdRecordFilter implements Closeable
         }
     }
 
+    /**
+     * Get the text of a query pattern which matches plain text, either as a
+     * literal pattern or a single quoted string
+     *
+     * @return The text; null if the pattern isn't plain text or uses case
+     * folding other than for US-ASCII
+     */
+    @Nullable
+    static String getPlainQuery(@NonNull Pattern pattern)
+    {
+        if ((pattern.flags() &
+             (Pattern.UNICODE_CASE | Pattern.CANON_EQ)) != 0) {
+            return null;
+        }
+        String query = pattern.pattern();
+        if ((pattern.flags() & Pattern.LITERAL) != 0) {
+            return query;
+        }
+        if (query.startsWith("\\Q") && query.endsWith("\\E")) {
+            String quoted = query.substring(2, query.length() - 2);
+            if (!quoted.contains("\\E")) {
+                return quoted;
+            }
+        }
+        return null;
+    }
+
     /**
      * Add a match to the list, creating the list if needed
      */
@@ -359,4 +659,48 @@ public final class PasswdRecordFilter implements Closeable
         matches.add(match);
         return matches;
     }
+
+    /**
+     * Task to filter a range of records, splitting it into parallel tasks
+     * for each chunk
+     */
+    private final class FilterTask extends RecursiveAction
+    {
+        private final List<PwsRecord> itsRecords;
+        private final int itsStart;
+        private final int itsEnd;
+        private final String[] itsMatches;
+        private final PasswdFileData itsFileData;
+        private final Context itsContext;
+
+        /**
+         * Constructor
+         */
+        private FilterTask(List<PwsRecord> records, int start, int end,
+                           String[] matches, PasswdFileData fileData,
+                           Context ctx)
+        {
+            itsRecords = records;
+            itsStart = start;
+            itsEnd = end;
+            itsMatches = matches;
+            itsFileData = fileData;
+            itsContext = ctx;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ((itsEnd - itsStart) <= PARALLEL_CHUNK_RECORDS) {
+                filterRecords(itsRecords, itsStart, itsEnd, itsMatches,
+                              itsFileData, itsContext);
+                return;
+            }
+            int mid = (itsStart + itsEnd) >>> 1;
+            invokeAll(new FilterTask(itsRecords, itsStart, mid, itsMatches,
+                                     itsFileData, itsContext),
+                      new FilterTask(itsRecords, mid, itsEnd, itsMatches,
+                                     itsFileData, itsContext));
+        }
+    }
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.file;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.pwsafe.lib.UUID;
+import org.pwsafe.lib.file.PwsRecord;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Map of the records of a file by their UUID.  The map uses open addressing
+ * keyed on the two 64-bit halves of the UUID so records can be found from a
+ * formatted UUID or a reference password's hex digits without building a
+ * key string.
+ * <p>
+ * V1 files have no real UUIDs, so their records are kept by the string of
+ * their phantom UUID field.
+ */
+final class PasswdRecordUuidMap
+{
+    /** Length of a formatted UUID, {01234567-89ab-cdef-0123-456789abcdef} */
+    private static final int FORMATTED_LEN = 38;
+
+    /** Length of a reference password, [[<32 hex digits>]] */
+    private static final int REF_LEN = 36;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] itsHighs = new long[MIN_CAPACITY];
+    private long[] itsLows = new long[MIN_CAPACITY];
+    private PwsRecord[] itsRecords = new PwsRecord[MIN_CAPACITY];
+    private int itsSize = 0;
+    private final HashMap<String, PwsRecord> itsOtherRecords =
+            new HashMap<>();
+
+    /**
+     * Clear the map, sizing it for a number of records
+     */
+    void clear(int numRecords)
+    {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2 * numRecords) {
+            capacity <<= 1;
+        }
+        if (capacity != itsRecords.length) {
+            itsHighs = new long[capacity];
+            itsLows = new long[capacity];
+            itsRecords = new PwsRecord[capacity];
+        } else {
+            Arrays.fill(itsRecords, null);
+        }
+        itsSize = 0;
+        itsOtherRecords.clear();
+    }
+
+    /**
+     * Add a record by its UUID
+     */
+    void put(@NonNull UUID uuid, @NonNull PwsRecord rec)
+    {
+        if (2 * (itsSize + 1) > itsRecords.length) {
+            grow();
+        }
+        if (insert(uuid.getHigh(), uuid.getLow(), rec)) {
+            ++itsSize;
+        }
+    }
+
+    /**
+     * Add a record by a UUID field which isn't a real UUID
+     */
+    void put(@NonNull String uuid, @NonNull PwsRecord rec)
+    {
+        itsOtherRecords.put(uuid, rec);
+    }
+
+    /**
+     * Get a record by its formatted UUID or the string of its phantom UUID
+     */
+    @Nullable
+    PwsRecord get(@Nullable String uuid)
+    {
+        if (uuid == null) {
+            return null;
+        }
+        if ((uuid.length() == FORMATTED_LEN) &&
+            (uuid.charAt(0) == '{') && (uuid.charAt(9) == '-') &&
+            (uuid.charAt(14) == '-') && (uuid.charAt(19) == '-') &&
+            (uuid.charAt(24) == '-') && (uuid.charAt(37) == '}') &&
+            isHex(uuid, 1, 9) && isHex(uuid, 10, 14) &&
+            isHex(uuid, 15, 19) && isHex(uuid, 20, 24) &&
+            isHex(uuid, 25, 37)) {
+            long high = parseHex(uuid, 1, 9, 0);
+            high = parseHex(uuid, 10, 14, high);
+            high = parseHex(uuid, 15, 19, high);
+            long low = parseHex(uuid, 20, 24, 0);
+            low = parseHex(uuid, 25, 37, low);
+            PwsRecord rec = get(high, low);
+            if (rec != null) {
+                return rec;
+            }
+        }
+        return itsOtherRecords.get(uuid);
+    }
+
+    /**
+     * Get a record referenced by an alias or shortcut password in the form
+     * of [[<uuid>]] or [~<uuid>~] where <uuid> is 32 hex digits
+     */
+    @Nullable
+    PwsRecord getRef(@NonNull String passwd)
+    {
+        if ((passwd.length() != REF_LEN) || !isHex(passwd, 2, 34)) {
+            return null;
+        }
+        return get(parseHex(passwd, 2, 18, 0), parseHex(passwd, 18, 34, 0));
+    }
+
+    /**
+     * Get a record by the halves of its UUID
+     */
+    @Nullable
+    private PwsRecord get(long high, long low)
+    {
+        int mask = itsRecords.length - 1;
+        for (int idx = hash(high, low) & mask; itsRecords[idx] != null;
+             idx = (idx + 1) & mask) {
+            if ((itsHighs[idx] == high) && (itsLows[idx] == low)) {
+                return itsRecords[idx];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Insert or replace a record
+     * @return Whether the record was inserted in a free slot
+     */
+    private boolean insert(long high, long low, PwsRecord rec)
+    {
+        int mask = itsRecords.length - 1;
+        int idx = hash(high, low) & mask;
+        while (itsRecords[idx] != null) {
+            if ((itsHighs[idx] == high) && (itsLows[idx] == low)) {
+                itsRecords[idx] = rec;
+                return false;
+            }
+            idx = (idx + 1) & mask;
+        }
+        itsHighs[idx] = high;
+        itsLows[idx] = low;
+        itsRecords[idx] = rec;
+        return true;
+    }
+
+    /**
+     * Double the capacity of the map
+     */
+    private void grow()
+    {
+        long[] highs = itsHighs;
+        long[] lows = itsLows;
+        PwsRecord[] records = itsRecords;
+        itsHighs = new long[2 * records.length];
+        itsLows = new long[2 * records.length];
+        itsRecords = new PwsRecord[2 * records.length];
+        for (int i = 0; i < records.length; ++i) {
+            if (records[i] != null) {
+                insert(highs[i], lows[i], records[i]);
+            }
+        }
+    }
+
+    /**
+     * Hash the halves of a UUID.  Most of a UUID's bits are random, but the
+     * time fields of generated UUIDs vary little between records.
+     */
+    private static int hash(long high, long low)
+    {
+        long h = (high ^ Long.rotateLeft(low, 32)) * 0x9e3779b97f4a7c15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    /**
+     * Are the characters of a string in a range all hex digits
+     */
+    private static boolean isHex(@NonNull String str, int start, int end)
+    {
+        for (int i = start; i < end; ++i) {
+            if (hexDigit(str.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append the hex digits of a string in a range to a value
+     */
+    private static long parseHex(@NonNull String str, int start, int end,
+                                 long val)
+    {
+        for (int i = start; i < end; ++i) {
+            val = (val << 4) | hexDigit(str.charAt(i));
+        }
+        return val;
+    }
+
+    /**
+     * Get the value of a hex digit; -1 if not a hex digit
+     */
+    private static int hexDigit(char c)
+    {
+        if ((c >= '0') && (c <= '9')) {
+            return c - '0';
+        } else if ((c >= 'a') && (c <= 'f')) {
+            return c - 'a' + 10;
+        } else if ((c >= 'A') && (c <= 'F')) {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
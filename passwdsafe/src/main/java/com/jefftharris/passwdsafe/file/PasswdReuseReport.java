@@ -0,0 +1,260 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.file;
+
+import android.content.Context;
+import android.text.TextUtils;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.jefftharris.passwdsafe.R;
+
+import org.pwsafe.lib.Util;
+import org.pwsafe.lib.file.PwsRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Report of the records in a file which share a password.  Each record's
+ * current password and password history entries are digested once with a
+ * keyed MAC under an ephemeral key, and records whose digests collide are
+ * grouped.  A password is only held in plaintext while it is digested.
+ * <p>
+ * Aliases and shortcuts are not included as they share their target
+ * record's password by design.  The report is built when first used and
+ * rebuilt when used after the file's records change.
+ */
+public final class PasswdReuseReport
+{
+    /**
+     * The value of a password digest, truncated to 128 bits
+     */
+    private record DigestValue(long high, long low)
+    {
+    }
+
+    /**
+     * A digest of a record's current or previous password
+     */
+    private record Digest(@NonNull DigestValue value, boolean isHistory)
+    {
+    }
+
+    private static final String MAC_SPEC = "HmacSHA256";
+
+    private static final int MAC_KEY_LEN = 32;
+
+    /** Number of records digested by each parallel task */
+    private static final int DIGEST_CHUNK_RECORDS = 64;
+
+    private static final Digest[] NO_DIGESTS = new Digest[0];
+
+    private final Map<PwsRecord, String> itsMatches = new IdentityHashMap<>();
+    private PasswdFileData itsBuiltFileData;
+    private int itsBuiltVersion;
+
+    /**
+     * Get the reuse groups of a record
+     * @return A description of the record's reuse groups; null if the
+     * record's passwords aren't shared with other records
+     */
+    @Nullable
+    public synchronized String getMatch(PwsRecord rec,
+                                        @NonNull PasswdFileData fileData,
+                                        @NonNull Context ctx)
+    {
+        int version = fileData.getRecordsVersion();
+        if ((fileData != itsBuiltFileData) || (version != itsBuiltVersion)) {
+            build(fileData, ctx);
+            itsBuiltFileData = fileData;
+            itsBuiltVersion = version;
+        }
+        return itsMatches.get(rec);
+    }
+
+    /**
+     * Build the report
+     */
+    private void build(@NonNull PasswdFileData fileData, @NonNull Context ctx)
+    {
+        itsMatches.clear();
+        List<PwsRecord> records = new ArrayList<>(fileData.getRecords());
+        Digest[][] digests = new Digest[records.size()][];
+
+        byte[] keyBytes = new byte[MAC_KEY_LEN];
+        Util.newRandBytes(keyBytes);
+        SecretKeySpec key = new SecretKeySpec(keyBytes, MAC_SPEC);
+        Util.clearArray(keyBytes);
+        PasswdRecordFilter.getFilterPool().invoke(
+                new DigestTask(records, 0, records.size(), digests, fileData,
+                               key));
+
+        // Count the records with each digest
+        Map<DigestValue, Integer> numRecords = new HashMap<>();
+        for (Digest[] recDigests: digests) {
+            for (Digest digest: recDigests) {
+                Integer num = numRecords.get(digest.value());
+                numRecords.put(digest.value(), (num == null) ? 1 : num + 1);
+            }
+        }
+
+        // Number the groups of shared digests in file order
+        Map<DigestValue, Integer> groupIds = new HashMap<>();
+        for (int i = 0; i < digests.length; ++i) {
+            List<String> groups = null;
+            for (Digest digest: digests[i]) {
+                //noinspection ConstantConditions
+                if (numRecords.get(digest.value()) < 2) {
+                    continue;
+                }
+                Integer groupId = groupIds.get(digest.value());
+                if (groupId == null) {
+                    groupId = groupIds.size() + 1;
+                    groupIds.put(digest.value(), groupId);
+                }
+                if (groups == null) {
+                    groups = new ArrayList<>();
+                }
+                groups.add(ctx.getString(
+                        digest.isHistory() ?
+                        R.string.reused_password_history_group :
+                        R.string.reused_password_group, groupId));
+            }
+            if (groups != null) {
+                itsMatches.put(records.get(i), TextUtils.join(", ", groups));
+            }
+        }
+    }
+
+    /**
+     * Get the unique digests of a record's current password and password
+     * history
+     */
+    @NonNull
+    private static Digest[] digestRecord(@NonNull PwsRecord rec,
+                                         @NonNull PasswdFileData fileData,
+                                         @NonNull Mac mac)
+    {
+        PasswdRecord passwdRec = fileData.getPasswdRecord(rec);
+        if ((passwdRec == null) ||
+            (passwdRec.getType() != PasswdRecord.Type.NORMAL)) {
+            return NO_DIGESTS;
+        }
+
+        List<Digest> digests = new ArrayList<>();
+        addDigest(fileData.getPasswordBytes(rec), false, mac, digests);
+        PasswdHistory history = fileData.getPasswdHistory(rec);
+        if (history != null) {
+            for (PasswdHistory.Entry entry: history.getPasswds()) {
+                addDigest(entry.getPasswd().getBytes(StandardCharsets.UTF_8),
+                          true, mac, digests);
+            }
+        }
+        return digests.toArray(NO_DIGESTS);
+    }
+
+    /**
+     * Add the digest of a password, which is cleared, if it is not empty and
+     * not already added
+     */
+    private static void addDigest(@Nullable byte[] passwd,
+                                  boolean isHistory,
+                                  @NonNull Mac mac,
+                                  @NonNull List<Digest> digests)
+    {
+        if ((passwd == null) || (passwd.length == 0)) {
+            return;
+        }
+        byte[] macBytes = mac.doFinal(passwd);
+        Util.clearArray(passwd);
+        DigestValue value = new DigestValue(getLong(macBytes, 0),
+                                            getLong(macBytes, 8));
+        for (Digest existing: digests) {
+            if (existing.value().equals(value)) {
+                return;
+            }
+        }
+        digests.add(new Digest(value, isHistory));
+    }
+
+    /**
+     * Get a long from big-endian bytes
+     */
+    private static long getLong(@NonNull byte[] bytes, int offset)
+    {
+        long val = 0;
+        for (int i = 0; i < 8; ++i) {
+            val = (val << 8) | (bytes[offset + i] & 0xff);
+        }
+        return val;
+    }
+
+    /**
+     * Task to digest the passwords of a range of records, splitting it into
+     * parallel tasks for each chunk
+     */
+    private static final class DigestTask extends RecursiveAction
+    {
+        private final List<PwsRecord> itsRecords;
+        private final int itsStart;
+        private final int itsEnd;
+        private final Digest[][] itsDigests;
+        private final PasswdFileData itsFileData;
+        private final SecretKeySpec itsKey;
+
+        /**
+         * Constructor
+         */
+        private DigestTask(List<PwsRecord> records, int start, int end,
+                           Digest[][] digests, PasswdFileData fileData,
+                           SecretKeySpec key)
+        {
+            itsRecords = records;
+            itsStart = start;
+            itsEnd = end;
+            itsDigests = digests;
+            itsFileData = fileData;
+            itsKey = key;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ((itsEnd - itsStart) > DIGEST_CHUNK_RECORDS) {
+                int mid = (itsStart + itsEnd) >>> 1;
+                invokeAll(new DigestTask(itsRecords, itsStart, mid, itsDigests,
+                                         itsFileData, itsKey),
+                          new DigestTask(itsRecords, mid, itsEnd, itsDigests,
+                                         itsFileData, itsKey));
+                return;
+            }
+
+            Mac mac;
+            try {
+                mac = Mac.getInstance(MAC_SPEC);
+                mac.init(itsKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            for (int i = itsStart; i < itsEnd; ++i) {
+                itsDigests[i] = digestRecord(itsRecords.get(i), itsFileData,
+                                             mac);
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.file;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.pwsafe.lib.file.PwsRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A trigram index of the fields of an open file's records which are matched
+ * by a query filter.  The index narrows a plain text query to the records
+ * which contain all of the query's trigrams.  The candidates must still be
+ * matched against the query as the trigrams may occur in different fields
+ * or places.
+ * <p>
+ * Trigrams are case-folded for US-ASCII letters only, matching the case
+ * folding of a case-insensitive Pattern.  The index is built when first
+ * used, and records whose fields change are re-indexed before the next
+ * query.
+ */
+final class PasswdSearchIndex
+{
+    /**
+     * The sorted ordinals of the records containing a trigram
+     */
+    private static final class Postings
+    {
+        private int[] itsOrdinals = new int[4];
+        private int itsSize = 0;
+
+        /**
+         * Add a record to the postings
+         */
+        private void add(int ordinal)
+        {
+            int pos = Arrays.binarySearch(itsOrdinals, 0, itsSize, ordinal);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -(pos + 1);
+            if (itsSize == itsOrdinals.length) {
+                itsOrdinals = Arrays.copyOf(itsOrdinals, 2 * itsSize);
+            }
+            System.arraycopy(itsOrdinals, pos, itsOrdinals, pos + 1,
+                             itsSize - pos);
+            itsOrdinals[pos] = ordinal;
+            ++itsSize;
+        }
+
+        /**
+         * Remove a record from the postings
+         */
+        private void remove(int ordinal)
+        {
+            int pos = Arrays.binarySearch(itsOrdinals, 0, itsSize, ordinal);
+            if (pos >= 0) {
+                --itsSize;
+                System.arraycopy(itsOrdinals, pos + 1, itsOrdinals, pos,
+                                 itsSize - pos);
+            }
+        }
+
+        /**
+         * Does the postings contain a record
+         */
+        private boolean contains(int ordinal)
+        {
+            return Arrays.binarySearch(itsOrdinals, 0, itsSize, ordinal) >= 0;
+        }
+    }
+
+    /** Length of the indexed grams */
+    private static final int GRAM_LEN = 3;
+
+    private static final long[] NO_GRAMS = new long[0];
+
+    private final HashMap<Long, Postings> itsPostings = new HashMap<>();
+    private final Map<PwsRecord, Integer> itsOrdinals =
+            new IdentityHashMap<>();
+    private final Set<PwsRecord> itsStaleRecords =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ArrayList<PwsRecord> itsRecords = new ArrayList<>();
+    private long[][] itsRecordGrams = new long[0][];
+    private boolean itsIsBuilt = false;
+
+    /**
+     * Reset the index when the file's records change
+     */
+    synchronized void reset()
+    {
+        itsPostings.clear();
+        itsOrdinals.clear();
+        itsStaleRecords.clear();
+        itsRecords.clear();
+        itsRecordGrams = new long[0][];
+        itsIsBuilt = false;
+    }
+
+    /**
+     * Mark a record whose fields have changed to be re-indexed
+     */
+    synchronized void invalidate(PwsRecord rec)
+    {
+        if (itsIsBuilt && itsOrdinals.containsKey(rec)) {
+            itsStaleRecords.add(rec);
+        }
+    }
+
+    /**
+     * Find the records which may contain a plain text query
+     *
+     * @return The candidate records in file order; null if the query is too
+     * short to be answered from the index
+     */
+    @Nullable
+    synchronized List<PwsRecord> findCandidates(
+            @NonNull String query,
+            @NonNull PasswdFileData fileData,
+            Context ctx)
+    {
+        long[] queryGrams = uniqueGrams(addGrams(query, NO_GRAMS));
+        if (queryGrams.length == 0) {
+            return null;
+        }
+
+        if (!itsIsBuilt) {
+            build(fileData, ctx);
+        } else if (!itsStaleRecords.isEmpty()) {
+            for (PwsRecord rec: itsStaleRecords) {
+                Integer ordinal = itsOrdinals.get(rec);
+                if (ordinal != null) {
+                    removeRecord(ordinal);
+                    addRecord(ordinal, rec, fileData, ctx);
+                }
+            }
+            itsStaleRecords.clear();
+        }
+
+        Postings[] postings = new Postings[queryGrams.length];
+        for (int i = 0; i < queryGrams.length; ++i) {
+            postings[i] = itsPostings.get(queryGrams[i]);
+            if (postings[i] == null) {
+                return Collections.emptyList();
+            }
+        }
+        Arrays.sort(postings, (p1, p2) -> Integer.compare(p1.itsSize,
+                                                          p2.itsSize));
+
+        Postings smallest = postings[0];
+        List<PwsRecord> candidates = new ArrayList<>(smallest.itsSize);
+        for (int i = 0; i < smallest.itsSize; ++i) {
+            int ordinal = smallest.itsOrdinals[i];
+            boolean match = true;
+            for (int j = 1; match && (j < postings.length); ++j) {
+                match = postings[j].contains(ordinal);
+            }
+            if (match) {
+                candidates.add(itsRecords.get(ordinal));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Build the index from the file's records
+     */
+    private void build(@NonNull PasswdFileData fileData, Context ctx)
+    {
+        List<PwsRecord> records = fileData.getRecords();
+        itsRecords.addAll(records);
+        itsRecordGrams = new long[itsRecords.size()][];
+        for (int i = 0; i < itsRecords.size(); ++i) {
+            PwsRecord rec = itsRecords.get(i);
+            itsOrdinals.put(rec, i);
+            addRecord(i, rec, fileData, ctx);
+        }
+        itsIsBuilt = true;
+    }
+
+    /**
+     * Add a record's trigrams to the index.  The fields are those matched by
+     * a PasswdRecordFilter query.
+     */
+    private void addRecord(int ordinal,
+                           PwsRecord rec,
+                           @NonNull PasswdFileData fileData,
+                           Context ctx)
+    {
+        long[] grams = NO_GRAMS;
+        grams = addGrams(fileData.getTitle(rec), grams);
+        grams = addGrams(fileData.getUsername(rec), grams);
+        grams = addGrams(fileData.getURL(rec, PasswdFileData.UrlStyle.FULL),
+                         grams);
+        grams = addGrams(
+                fileData.getEmail(rec, PasswdFileData.EmailStyle.FULL), grams);
+        grams = addGrams(fileData.getNotes(rec, ctx).getNotes(), grams);
+        grams = addGrams(fileData.getGroup(rec), grams);
+        grams = uniqueGrams(grams);
+
+        itsRecordGrams[ordinal] = grams;
+        for (long gram: grams) {
+            Postings postings = itsPostings.get(gram);
+            if (postings == null) {
+                postings = new Postings();
+                itsPostings.put(gram, postings);
+            }
+            postings.add(ordinal);
+        }
+    }
+
+    /**
+     * Remove a record's trigrams from the index
+     */
+    private void removeRecord(int ordinal)
+    {
+        for (long gram: itsRecordGrams[ordinal]) {
+            Postings postings = itsPostings.get(gram);
+            if (postings != null) {
+                postings.remove(ordinal);
+                if (postings.itsSize == 0) {
+                    itsPostings.remove(gram);
+                }
+            }
+        }
+        itsRecordGrams[ordinal] = NO_GRAMS;
+    }
+
+    /**
+     * Append the trigrams of a field to an array of trigrams
+     */
+    @NonNull
+    private static long[] addGrams(@Nullable String str, @NonNull long[] grams)
+    {
+        if ((str == null) || (str.length() < GRAM_LEN)) {
+            return grams;
+        }
+
+        int numGrams = str.length() - GRAM_LEN + 1;
+        int pos = grams.length;
+        grams = Arrays.copyOf(grams, pos + numGrams);
+        long gram = ((long)foldCase(str.charAt(0)) << 16) |
+                    foldCase(str.charAt(1));
+        for (int i = GRAM_LEN - 1; i < str.length(); ++i) {
+            gram = ((gram << 16) | foldCase(str.charAt(i))) & 0xffffffffffffL;
+            grams[pos++] = gram;
+        }
+        return grams;
+    }
+
+    /**
+     * Sort and remove duplicates from an array of trigrams
+     */
+    @NonNull
+    private static long[] uniqueGrams(@NonNull long[] grams)
+    {
+        if (grams.length == 0) {
+            return grams;
+        }
+        Arrays.sort(grams);
+        int len = 1;
+        for (int i = 1; i < grams.length; ++i) {
+            if (grams[i] != grams[len - 1]) {
+                grams[len++] = grams[i];
+            }
+        }
+        return (len == grams.length) ? grams : Arrays.copyOf(grams, len);
+    }
+
+    /**
+     * Fold the case of a US-ASCII letter
+     */
+    private static char foldCase(char c)
+    {
+        return ((c >= 'A') && (c <= 'Z')) ? (char)(c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.file;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.pwsafe.lib.file.PwsRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ranked search suggestions for the records and groups of a file.  Each
+ * match is scored by the field it matched, whether the match is at the start
+ * of the field or a word, and how recently the record was modified.  The
+ * best suggestions are kept in a bounded heap, and a record's remaining
+ * fields aren't matched once it can no longer score high enough to be kept.
+ */
+final class PasswdSuggestions
+{
+    /**
+     * A suggested record or group
+     */
+    static final class Suggestion
+    {
+        final String itsTitle;
+        final String itsUser;
+        final String itsLabel;
+        final String itsMatch;
+        final int itsScore;
+        private final PwsRecord itsRecord;
+        private final String itsGroup;
+
+        /**
+         * Constructor for a record
+         */
+        private Suggestion(@NonNull PwsRecord rec,
+                           @NonNull PasswdFieldSnapshot.Fields fields,
+                           String match,
+                           int score)
+        {
+            itsTitle = fields.title();
+            itsUser = fields.username();
+            itsLabel = PasswdRecord.getRecordId(null, itsTitle, itsUser);
+            itsMatch = match;
+            itsScore = score;
+            itsRecord = rec;
+            itsGroup = null;
+        }
+
+        /**
+         * Constructor for a group
+         */
+        private Suggestion(@NonNull String group, int score)
+        {
+            itsTitle = group;
+            itsUser = null;
+            itsLabel = group;
+            itsMatch = PasswdRecordFilter.QUERY_MATCH_GROUP;
+            itsScore = score;
+            itsRecord = null;
+            itsGroup = group;
+        }
+
+        /**
+         * Get the search view data to open the suggestion
+         */
+        @NonNull
+        String getData(@NonNull PasswdFileData fileData)
+        {
+            if (itsRecord != null) {
+                return PasswdRecordFilter.SEARCH_VIEW_RECORD +
+                       fileData.getUUID(itsRecord);
+            }
+            return PasswdRecordFilter.SEARCH_VIEW_GROUP + itsGroup;
+        }
+    }
+
+    /** Score of a title match */
+    private static final int SCORE_TITLE = 80;
+    /** Score of a group match */
+    private static final int SCORE_GROUP = 60;
+    /** Score of a username match */
+    private static final int SCORE_USERNAME = 50;
+    /** Score of a URL or email match */
+    private static final int SCORE_URL = 40;
+    /** Score of a notes match */
+    private static final int SCORE_NOTES = 20;
+    /** Added score for a match at the start of a field */
+    private static final int SCORE_PREFIX = 20;
+    /** Added score for a match at the start of a word */
+    private static final int SCORE_WORD = 10;
+    /** Maximum added score for a recently modified record */
+    private static final int SCORE_RECENT = 15;
+
+    private static final long RECENT_WEEK_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final long RECENT_MONTH_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final long RECENT_YEAR_MILLIS = TimeUnit.DAYS.toMillis(365);
+
+    private final Pattern itsQuery;
+    private final String itsPlainQuery;
+    private final boolean itsIsCaseInsensitive;
+    private final int itsLimit;
+    private final Comparator<Suggestion> itsOrder;
+    private final PriorityQueue<Suggestion> itsHeap;
+
+    /**
+     * Constructor
+     * @param query The query to match
+     * @param limit The maximum number of suggestions; no limit if not
+     *              positive
+     * @param order The order of suggestions with the same score
+     */
+    PasswdSuggestions(@NonNull Pattern query,
+                      int limit,
+                      @NonNull Comparator<Suggestion> order)
+    {
+        itsQuery = query;
+        itsIsCaseInsensitive =
+                (query.flags() & Pattern.CASE_INSENSITIVE) != 0;
+        String plainQuery = PasswdRecordFilter.getPlainQuery(query);
+        itsPlainQuery = ((plainQuery != null) && itsIsCaseInsensitive) ?
+                        PasswdFieldSnapshot.foldCase(plainQuery) : plainQuery;
+        itsLimit = limit;
+        itsOrder = order;
+        // The head of the heap is the worst suggestion kept
+        itsHeap = new PriorityQueue<>(Math.max(limit, 0) + 1,
+                                      (s1, s2) -> compareRank(s2, s1));
+    }
+
+    /**
+     * Find the best suggestions for the query
+     * @return The suggestions, best first
+     */
+    @NonNull
+    List<Suggestion> find(@NonNull PasswdFileData fileData, Context ctx)
+    {
+        PasswdFieldSnapshot snapshot = fileData.getFieldSnapshot();
+        long now = System.currentTimeMillis();
+        Set<String> groups = new HashSet<>();
+        for (PwsRecord rec: fileData.getRecords()) {
+            PasswdFieldSnapshot.Fields fields = snapshot.getFields(rec,
+                                                                   fileData);
+            String group = fields.group();
+            if ((group != null) && !groups.contains(group)) {
+                int score = scoreField(group, fields.foldedGroup(),
+                                       SCORE_GROUP);
+                if (score > 0) {
+                    groups.add(group);
+                    offer(new Suggestion(group, score));
+                }
+            }
+            scoreRecord(rec, fields, fileData, now, ctx);
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>(itsHeap);
+        itsHeap.clear();
+        Collections.sort(suggestions, this::compareRank);
+        return suggestions;
+    }
+
+    /**
+     * Score a record and add it to the suggestions if it scores high enough.
+     * The fields are matched from the highest scoring, and the first field
+     * which matches is used.
+     */
+    private void scoreRecord(@NonNull PwsRecord rec,
+                             @NonNull PasswdFieldSnapshot.Fields fields,
+                             @NonNull PasswdFileData fileData,
+                             long now,
+                             Context ctx)
+    {
+        int recent = getRecentScore(fields.modTime(), now);
+        String match = null;
+        int score;
+        if ((score = scoreField(fields.title(), fields.foldedTitle(),
+                                SCORE_TITLE)) > 0) {
+            match = PasswdRecordFilter.QUERY_MATCH_TITLE;
+        } else if (!canKeep(SCORE_GROUP + SCORE_PREFIX + recent)) {
+            return;
+        } else if ((score = scoreField(fields.group(), fields.foldedGroup(),
+                                       SCORE_GROUP)) > 0) {
+            match = PasswdRecordFilter.QUERY_MATCH_GROUP;
+        } else if (!canKeep(SCORE_USERNAME + SCORE_PREFIX + recent)) {
+            return;
+        } else if ((score = scoreField(fields.username(),
+                                       fields.foldedUsername(),
+                                       SCORE_USERNAME)) > 0) {
+            match = PasswdRecordFilter.QUERY_MATCH_USERNAME;
+        } else if (!canKeep(SCORE_URL + SCORE_PREFIX + recent)) {
+            return;
+        } else if ((score = scoreField(fields.url(), fields.foldedUrl(),
+                                       SCORE_URL)) > 0) {
+            match = PasswdRecordFilter.QUERY_MATCH_URL;
+        } else if ((score = scoreField(fields.email(), fields.foldedEmail(),
+                                       SCORE_URL)) > 0) {
+            match = PasswdRecordFilter.QUERY_MATCH_EMAIL;
+        } else if (!canKeep(SCORE_NOTES + SCORE_PREFIX + recent)) {
+            return;
+        } else if ((score = scoreField(fileData.getNotes(rec, ctx).getNotes(),
+                                       null, SCORE_NOTES)) > 0) {
+            match = PasswdRecordFilter.QUERY_MATCH_NOTES;
+        }
+
+        if (match != null) {
+            offer(new Suggestion(rec, fields, match, score + recent));
+        }
+    }
+
+    /**
+     * Add a suggestion if it ranks higher than the worst suggestion kept
+     */
+    private void offer(@NonNull Suggestion suggestion)
+    {
+        if ((itsLimit <= 0) || (itsHeap.size() < itsLimit)) {
+            itsHeap.add(suggestion);
+        } else if (compareRank(suggestion, itsHeap.peek()) < 0) {
+            itsHeap.poll();
+            itsHeap.add(suggestion);
+        }
+    }
+
+    /**
+     * Can a suggestion with a score be kept
+     */
+    private boolean canKeep(int score)
+    {
+        if ((itsLimit <= 0) || (itsHeap.size() < itsLimit)) {
+            return true;
+        }
+        //noinspection ConstantConditions
+        return score >= itsHeap.peek().itsScore;
+    }
+
+    /**
+     * Score a match of the query in a field
+     * @param field The field
+     * @param foldedField The case-folded field; null to match the query
+     *                    pattern against the field
+     * @param fieldScore The score of a match in the field
+     * @return The score; zero if the field doesn't match
+     */
+    private int scoreField(@Nullable String field,
+                           @Nullable String foldedField,
+                           int fieldScore)
+    {
+        if (field == null) {
+            return 0;
+        }
+
+        int start;
+        if ((itsPlainQuery != null) && (foldedField != null)) {
+            start = (itsIsCaseInsensitive ? foldedField : field)
+                    .indexOf(itsPlainQuery);
+        } else {
+            Matcher m = itsQuery.matcher(field);
+            start = m.find() ? m.start() : -1;
+        }
+
+        if (start < 0) {
+            return 0;
+        } else if (start == 0) {
+            return fieldScore + SCORE_PREFIX;
+        } else if (!Character.isLetterOrDigit(field.charAt(start - 1))) {
+            return fieldScore + SCORE_WORD;
+        }
+        return fieldScore;
+    }
+
+    /**
+     * Get the added score for how recently a record was modified
+     */
+    private static int getRecentScore(long modTime, long now)
+    {
+        if (modTime <= 0) {
+            return 0;
+        }
+        long age = now - modTime;
+        if (age < RECENT_WEEK_MILLIS) {
+            return SCORE_RECENT;
+        } else if (age < RECENT_MONTH_MILLIS) {
+            return (2 * SCORE_RECENT) / 3;
+        } else if (age < RECENT_YEAR_MILLIS) {
+            return SCORE_RECENT / 3;
+        }
+        return 0;
+    }
+
+    /**
+     * Compare the rank of two suggestions
+     * @return Less than zero if the first suggestion is better
+     */
+    private int compareRank(@NonNull Suggestion s1, @NonNull Suggestion s2)
+    {
+        int rc = Integer.compare(s2.itsScore, s1.itsScore);
+        if (rc == 0) {
+            rc = itsOrder.compare(s1, s2);
+        }
+        return rc;
+    }
+}
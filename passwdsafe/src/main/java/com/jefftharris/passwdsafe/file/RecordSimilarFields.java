@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2017-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2017-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -87,14 +87,20 @@ public final class RecordSimilarFields implements Closeable
     /**
      * Does the password or history match
      */
-    public boolean matchPassword(String recPassword, PasswdHistory history)
+    public boolean matchPassword(@Nullable PwsRecord passwdRec,
+                                 @NonNull PasswdFileData fileData,
+                                 PasswdHistory history)
     {
         if (itsPasswords == null) {
             return false;
         }
 
-        if ((recPassword != null) && matchPassword(recPassword)) {
-            return true;
+        if (passwdRec != null) {
+            for (Owner<PwsPassword> password: itsPasswords) {
+                if (fileData.matchPassword(passwdRec, password.get())) {
+                    return true;
+                }
+            }
         }
         if (history != null) {
             for (PasswdHistory.Entry entry: history.getPasswds()) {
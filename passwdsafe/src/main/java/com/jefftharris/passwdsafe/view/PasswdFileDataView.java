@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2016-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2016-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -20,6 +20,7 @@ import com.jefftharris.passwdsafe.Preferences;
 import com.jefftharris.passwdsafe.R;
 import com.jefftharris.passwdsafe.file.PasswdExpiryFilter;
 import com.jefftharris.passwdsafe.file.PasswdExpiration;
+import com.jefftharris.passwdsafe.file.PasswdFieldSnapshot;
 import com.jefftharris.passwdsafe.file.PasswdFileData;
 import com.jefftharris.passwdsafe.file.PasswdRecord;
 import com.jefftharris.passwdsafe.file.PasswdRecordFilter;
@@ -33,8 +34,10 @@ import org.pwsafe.lib.file.Owner;
 import org.pwsafe.lib.file.PwsRecord;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -59,6 +62,15 @@ public final class PasswdFileDataView
     private GroupNode itsCurrGroupNode;
     private final ArrayList<String> itsCurrGroups = new ArrayList<>();
     private Owner<PasswdRecordFilter> itsFilter;
+    /**
+     * The filter of the records in the current view, which may differ from
+     * the set filter while a rebuild is pending.  Only used to check for
+     * refinements.
+     */
+    private PasswdRecordFilter itsViewFilter;
+    private boolean itsIsFilterRefined = false;
+    private volatile boolean itsIsRebuildPending = false;
+    private ViewBuilder itsPendingBuild;
     private int itsNumExpired = 0;
     private boolean itsIsExpiryChanged = true;
     private PasswdRecordDisplayOptions itsRecordOptions =
@@ -67,6 +79,8 @@ public final class PasswdFileDataView
             Preferences.PREF_SEARCH_CASE_SENSITIVE_DEF;
     private boolean itsIsSearchRegex =
             Preferences.PREF_SEARCH_REGEX_DEF;
+    private boolean itsIsSearchFuzzy =
+            Preferences.PREF_SEARCH_FUZZY_DEF;
     private PasswdExpiryNotifPref itsExpiryNotifPref =
             Preferences.PREF_PASSWD_EXPIRY_NOTIF_DEF;
     private Context itsContext;
@@ -74,6 +88,9 @@ public final class PasswdFileDataView
     private int itsFolderIcon;
     private int itsRecordIcon;
 
+    /** Number of records filtered in each step of a pending rebuild */
+    private static final int REBUILD_CHUNK_RECORDS = 500;
+
     private static final String TAG = "PasswdFileDataView";
 
     /**
@@ -95,6 +112,7 @@ public final class PasswdFileDataView
         itsIsSearchCaseSensitive =
                 Preferences.getSearchCaseSensitivePref(prefs);
         itsIsSearchRegex = Preferences.getSearchRegexPref(prefs);
+        itsIsSearchFuzzy = Preferences.getSearchFuzzyPref(prefs);
         itsExpiryNotifPref = Preferences.getPasswdExpiryNotifPref(prefs);
 
         Resources.Theme theme = ctx.getTheme();
@@ -103,6 +121,11 @@ public final class PasswdFileDataView
         itsFolderIcon = attr.resourceId;
         theme.resolveAttribute(R.attr.drawablePersonOutline, attr, true);
         itsRecordIcon = attr.resourceId;
+
+        synchronized (this) {
+            // Cached items use the context's resources
+            clearListData(itsRootNode);
+        }
     }
 
     /**
@@ -138,6 +161,7 @@ public final class PasswdFileDataView
             itsIsSearchCaseSensitive =
                     Preferences.getSearchCaseSensitivePref(prefs);
             itsIsSearchRegex = Preferences.getSearchRegexPref(prefs);
+            itsIsSearchFuzzy = Preferences.getSearchFuzzyPref(prefs);
             itsExpiryNotifPref = Preferences.getPasswdExpiryNotifPref(prefs);
             rebuildSearch = true;
             rebuild = true;
@@ -164,6 +188,11 @@ public final class PasswdFileDataView
                 rebuildSearch = true;
                 break;
             }
+            case Preferences.PREF_SEARCH_FUZZY: {
+                itsIsSearchFuzzy = Preferences.getSearchFuzzyPref(prefs);
+                rebuildSearch = true;
+                break;
+            }
             case Preferences.PREF_PASSWD_EXPIRY_NOTIF: {
                 itsExpiryNotifPref =
                         Preferences.getPasswdExpiryNotifPref(prefs);
@@ -194,6 +223,7 @@ public final class PasswdFileDataView
     public synchronized void clearFileData()
     {
         itsCurrGroups.clear();
+        itsIsFilterRefined = false;
         itsIsExpiryChanged = true;
         rebuildView(null);
     }
@@ -204,6 +234,7 @@ public final class PasswdFileDataView
     public synchronized void setFileData(PasswdFileData fileData)
     {
         itsCurrGroups.clear();
+        itsIsFilterRefined = false;
         itsIsExpiryChanged = true;
         rebuildView(fileData);
     }
@@ -218,51 +249,69 @@ public final class PasswdFileDataView
     }
 
     /**
-     * Get records
+     * Is a rebuild of the view pending for a changed record filter
+     */
+    public boolean isRebuildPending()
+    {
+        return itsIsRebuildPending;
+    }
+
+    /**
+     * Perform the next step of a rebuild pending for a changed record filter.
+     * Called repeatedly from a background thread, acquiring the file data
+     * for each step, so other users of the file aren't blocked while a large
+     * file is filtered.  The current view is kept until the rebuild
+     * finishes.
+     * @return Whether more steps are needed
+     */
+    public synchronized boolean rebuildPendingView(PasswdFileData fileData)
+    {
+        if (!itsIsRebuildPending) {
+            return false;
+        }
+        if (itsIsFilterRefined || (fileData == null)) {
+            rebuildView(fileData);
+            return false;
+        }
+
+        if ((itsPendingBuild == null) ||
+            (itsPendingBuild.itsFileData != fileData)) {
+            itsPendingBuild = new ViewBuilder(fileData);
+        }
+        if (!addRecords(itsPendingBuild, REBUILD_CHUNK_RECORDS)) {
+            return true;
+        }
+        finishRebuild(itsPendingBuild);
+        return false;
+    }
+
+    /**
+     * Get records.  The sorted items of a group are cached until the view is
+     * rebuilt.
      */
     @NonNull
     public synchronized List<PasswdRecordListData> getRecords(
             boolean incRecords,
             boolean incGroups)
     {
-        List<PasswdRecordListData> records = new ArrayList<>();
         if ((itsCurrGroupNode == null) || (itsContext == null)) {
-            return records;
+            return new ArrayList<>();
         }
         Resources res = itsContext.getResources();
         if (res == null) {
-            return records;
+            return new ArrayList<>();
         }
 
-        if (incGroups) {
-            Map<String, GroupNode> entryGroups = itsCurrGroupNode.getGroups();
-            if (entryGroups != null) {
-                for (Map.Entry<String, GroupNode> entry:
-                        entryGroups.entrySet()) {
-                    int items = entry.getValue().getNumRecords();
-                    String str = res.getQuantityString(R.plurals.group_items,
-                                                       items, items);
-
-                    records.add(
-                            new PasswdRecordListData(entry.getKey(), str, null,
-                                                     itsFolderIcon, false));
-                }
-            }
+        GroupNode node = itsCurrGroupNode;
+        if ((node.itsListData == null) ||
+            (node.itsIsListRecords != incRecords) ||
+            (node.itsIsListGroups != incGroups)) {
+            node.itsListData = createListData(node, incRecords, incGroups,
+                                              res);
+            node.itsIsListRecords = incRecords;
+            node.itsIsListGroups = incGroups;
         }
-
-        if (incRecords) {
-            List<MatchPwsRecord> entryRecs = itsCurrGroupNode.getRecords();
-            if (entryRecs != null) {
-                for (MatchPwsRecord rec: entryRecs) {
-                    records.add(createListData(rec));
-                }
-            }
-        }
-
-        PasswdRecordListDataComparator comp =
-                new PasswdRecordListDataComparator(itsRecordOptions);
-        Collections.sort(records, comp);
-        return records;
+        return new ArrayList<>(node.itsListData);
     }
 
     /**
@@ -342,7 +391,7 @@ public final class PasswdFileDataView
             }
         }
         if (queryPattern != null) {
-            filter = new PasswdRecordFilter(queryPattern,
+            filter = new PasswdRecordFilter(queryPattern, itsIsSearchFuzzy,
                                             PasswdRecordFilter.OPTS_DEFAULT);
         }
 
@@ -373,10 +422,18 @@ public final class PasswdFileDataView
     }
 
     /**
-     * Set the record filter
+     * Set the record filter.  If the filter refines the one of the records
+     * in the current view, the next refresh only re-checks those records.
+     * The view is rebuilt by the next refresh or by the steps of a pending
+     * rebuild, restarting any pending rebuild for an older filter.
      */
     public synchronized void setRecordFilter(PasswdRecordFilter filter)
     {
+        itsIsRebuildPending = true;
+        // A discarded pending build leaves the view with its filter
+        itsPendingBuild = null;
+        itsIsFilterRefined = (filter != null) &&
+                             filter.isRefinementOf(itsViewFilter);
         if (itsFilter != null) {
             itsFilter.close();
             itsFilter = null;
@@ -389,8 +446,12 @@ public final class PasswdFileDataView
     /**
      * Visit all records under the current group
      */
-    public synchronized void walkGroupRecords(RecordVisitor visitor)
+    public synchronized void walkGroupRecords(PasswdFileData fileData,
+                                              RecordVisitor visitor)
     {
+        //noinspection StatementWithEmptyBody
+        while (rebuildPendingView(fileData)) {
+        }
         walkGroupRecords(itsCurrGroupNode, visitor);
     }
 
@@ -446,61 +507,90 @@ public final class PasswdFileDataView
      */
     private synchronized void rebuildView(PasswdFileData fileData)
     {
-        itsRootNode = new GroupNode();
-        itsNumExpired = 0;
-        if (fileData == null) {
+        itsPendingBuild = null;
+        boolean refine = itsIsFilterRefined;
+        itsIsFilterRefined = false;
+        if (refine && (fileData != null)) {
+            refineGroup(itsRootNode, fileData);
+            itsViewFilter = (itsFilter != null) ? itsFilter.get() : null;
+            itsIsRebuildPending = false;
             updateCurrentGroup();
             return;
         }
 
-        List<PwsRecord> records = fileData.getRecords();
-        if (itsRecordOptions.itsIsGroupRecords) {
-            Comparator<String> groupComp =
-                    itsRecordOptions.itsIsSortCaseSensitive ?
-                    new StringComparator() : String.CASE_INSENSITIVE_ORDER;
-            if (!itsRecordOptions.itsIsSortAscending) {
-                final Comparator<String> comp = groupComp;
-                groupComp = (s1, s2) -> -comp.compare(s1, s2);
-            }
+        if (fileData == null) {
+            itsRootNode = new GroupNode();
+            itsViewFilter = null;
+            itsNumExpired = 0;
+            itsIsRebuildPending = false;
+            updateCurrentGroup();
+            return;
+        }
 
-            for (PwsRecord rec: records) {
-                String match = filterRecord(rec, fileData);
-                if (match == null) {
-                    continue;
-                }
+        ViewBuilder builder = new ViewBuilder(fileData);
+        addRecords(builder, Integer.MAX_VALUE);
+        finishRebuild(builder);
+    }
 
-                String group = fileData.getGroup(rec);
-                if (group == null) {
-                    group = "";
-                }
-                ArrayList<String> groups = new ArrayList<>();
-                PasswdFileData.splitGroup(group, groups);
-                GroupNode node = itsRootNode;
-                for (String g : groups) {
+    /**
+     * Filter and add the next records of the file to a new view
+     * @return Whether all of the records have been added
+     */
+    private boolean addRecords(@NonNull ViewBuilder builder, int maxRecords)
+    {
+        PasswdFileData fileData = builder.itsFileData;
+        int end = builder.itsPos +
+                  Math.min(maxRecords,
+                           builder.itsRecords.size() - builder.itsPos);
+        List<PwsRecord> records = builder.itsRecords.subList(builder.itsPos,
+                                                             end);
+        String[] matches = filterRecords(records, fileData);
+        builder.itsPos = end;
+        for (int i = 0; i < matches.length; ++i) {
+            String match = matches[i];
+            if (match == null) {
+                continue;
+            }
+            PwsRecord rec = records.get(i);
+            PasswdFieldSnapshot.Fields recFields =
+                    fileData.getFieldSnapshot().getFields(rec, fileData);
+
+            GroupNode node = builder.itsRoot;
+            ++node.itsNumRecords;
+            if (builder.itsGroupComp != null) {
+                for (String g : recFields.groupPath()) {
                     GroupNode groupNode = node.getGroup(g);
                     if (groupNode == null) {
                         groupNode = new GroupNode();
-                        node.putGroup(g, groupNode, groupComp);
+                        node.putGroup(g, groupNode, builder.itsGroupComp);
                     }
                     node = groupNode;
-                }
-                node.addRecord(new MatchPwsRecord(rec, fileData, match));
-             }
-        } else {
-            for (PwsRecord rec: records) {
-                String match = filterRecord(rec, fileData);
-                if (match != null) {
-                    itsRootNode.addRecord(
-                            new MatchPwsRecord(rec, fileData, match));
+                    ++node.itsNumRecords;
                 }
             }
+            node.addRecord(new MatchPwsRecord(rec, recFields, fileData,
+                                              match));
         }
+        return builder.itsPos == builder.itsRecords.size();
+    }
+
+    /**
+     * Finish a rebuild, replacing the view with the new one
+     */
+    private void finishRebuild(@NonNull ViewBuilder builder)
+    {
+        itsPendingBuild = null;
+        itsIsFilterRefined = false;
+        itsIsRebuildPending = false;
+        itsRootNode = builder.itsRoot;
+        itsViewFilter = builder.itsBuildFilter;
         updateCurrentGroup();
 
+        itsNumExpired = 0;
         PasswdExpiryFilter filter = itsExpiryNotifPref.getFilter();
         if (filter != null) {
             long expiration = filter.getExpiryFromNow(null);
-            for (PasswdRecord rec : fileData.getPasswdRecords()) {
+            for (PasswdRecord rec : builder.itsFileData.getPasswdRecords()) {
                 PasswdExpiration expiry = rec.getPasswdExpiry();
                 if ((expiry != null) &&
                     (expiry.expiration().getTime() <= expiration)) {
@@ -510,6 +600,51 @@ public final class PasswdFileDataView
         }
     }
 
+    /**
+     * Re-check the records under a group against a refined filter, pruning
+     * the records and groups which no longer match
+     * @return Whether the group is now empty
+     */
+    private boolean refineGroup(@NonNull GroupNode node,
+                                PasswdFileData fileData)
+    {
+        node.itsListData = null;
+        node.itsNumRecords = 0;
+        Map<String, GroupNode> childGroups = node.getGroups();
+        if (childGroups != null) {
+            Iterator<GroupNode> iter = childGroups.values().iterator();
+            while (iter.hasNext()) {
+                GroupNode child = iter.next();
+                if (refineGroup(child, fileData)) {
+                    iter.remove();
+                } else {
+                    node.itsNumRecords += child.itsNumRecords;
+                }
+            }
+        }
+
+        List<MatchPwsRecord> childRecords = node.getRecords();
+        int numRecords = 0;
+        if (childRecords != null) {
+            for (int i = 0; i < childRecords.size(); ++i) {
+                MatchPwsRecord matchRec = childRecords.get(i);
+                String match = filterRecord(matchRec.itsRecord, fileData);
+                if (match == null) {
+                    continue;
+                }
+                if (!match.equals(matchRec.itsFields.itsMatch)) {
+                    matchRec = new MatchPwsRecord(matchRec, fileData, match);
+                }
+                childRecords.set(numRecords++, matchRec);
+            }
+            childRecords.subList(numRecords, childRecords.size()).clear();
+        }
+        node.itsNumRecords += numRecords;
+
+        return (numRecords == 0) &&
+               ((childGroups == null) || childGroups.isEmpty());
+    }
+
     /** Update the current group */
     private void updateCurrentGroup()
     {
@@ -539,6 +674,23 @@ public final class PasswdFileDataView
         return itsFilter.get().filterRecord(rec, fileData, itsContext);
     }
 
+    /**
+     * Filter a list of records
+     * @return The matches for the records in the same order; null entries
+     * for records which do not match
+     */
+    @NonNull
+    private String[] filterRecords(@NonNull List<PwsRecord> records,
+                                   PasswdFileData fileData)
+    {
+        if (itsFilter == null) {
+            String[] matches = new String[records.size()];
+            Arrays.fill(matches, PasswdRecordFilter.QUERY_MATCH);
+            return matches;
+        }
+        return itsFilter.get().filterRecords(records, fileData, itsContext);
+    }
+
     /**
      * Recursively visit all records under a group.  Must be called while
      * synchronized.
@@ -564,6 +716,63 @@ public final class PasswdFileDataView
         }
     }
 
+    /**
+     * Create the sorted items of a group's child groups and records
+     */
+    @NonNull
+    private List<PasswdRecordListData> createListData(@NonNull GroupNode node,
+                                                      boolean incRecords,
+                                                      boolean incGroups,
+                                                      @NonNull Resources res)
+    {
+        List<PasswdRecordListData> records = new ArrayList<>();
+        if (incGroups) {
+            Map<String, GroupNode> entryGroups = node.getGroups();
+            if (entryGroups != null) {
+                for (Map.Entry<String, GroupNode> entry:
+                        entryGroups.entrySet()) {
+                    int items = entry.getValue().itsNumRecords;
+                    String str = res.getQuantityString(R.plurals.group_items,
+                                                       items, items);
+
+                    String name = entry.getKey();
+                    records.add(new PasswdRecordListData(
+                            name, PasswdFieldSnapshot.getSortKey(name),
+                            str, PasswdFieldSnapshot.getSortKey(str), null,
+                            itsFolderIcon, false));
+                }
+            }
+        }
+
+        if (incRecords) {
+            List<MatchPwsRecord> entryRecs = node.getRecords();
+            if (entryRecs != null) {
+                for (MatchPwsRecord rec: entryRecs) {
+                    records.add(createListData(rec));
+                }
+            }
+        }
+
+        PasswdRecordListDataComparator comp =
+                new PasswdRecordListDataComparator(itsRecordOptions);
+        Collections.sort(records, comp);
+        return records;
+    }
+
+    /**
+     * Recursively clear the cached items of a group and its children
+     */
+    private static void clearListData(@NonNull GroupNode node)
+    {
+        node.itsListData = null;
+        Map<String, GroupNode> childGroups = node.getGroups();
+        if (childGroups != null) {
+            for (GroupNode child: childGroups.values()) {
+                clearListData(child);
+            }
+        }
+    }
+
     /**
      * Create a record item for a password record
      */
@@ -572,16 +781,61 @@ public final class PasswdFileDataView
     private PasswdRecordListData createListData(@NonNull MatchPwsRecord rec)
     {
         String title = rec.itsTitle;
+        String titleKey = rec.itsTitleKey;
         if (title == null) {
             title = "Untitled";
+            titleKey = PasswdFieldSnapshot.getSortKey(title);
         }
         String user = rec.itsUsername;
+        String userKey = rec.itsUsernameKey;
         if (!TextUtils.isEmpty(user)) {
             user = "[" + user + "]";
+            userKey = "[" + userKey + "]";
         }
 
-        return new PasswdRecordListData(title, user, rec.itsFields,
-                                        itsRecordIcon, true);
+        return new PasswdRecordListData(title, titleKey, user, userKey,
+                                        rec.itsFields, itsRecordIcon, true);
+    }
+
+
+    /**
+     * The state of a view being rebuilt
+     */
+    private final class ViewBuilder
+    {
+        private final PasswdFileData itsFileData;
+        private final PasswdRecordFilter itsBuildFilter;
+        private final List<PwsRecord> itsRecords;
+        private final GroupNode itsRoot = new GroupNode();
+        private final Comparator<String> itsGroupComp;
+        private int itsPos = 0;
+
+        /**
+         * Constructor
+         */
+        private ViewBuilder(@NonNull PasswdFileData fileData)
+        {
+            itsFileData = fileData;
+            itsBuildFilter = (itsFilter != null) ? itsFilter.get() : null;
+            // Copy the records as the file may change between steps
+            itsRecords = new ArrayList<>(
+                    (itsBuildFilter != null) ?
+                    itsBuildFilter.getCandidateRecords(fileData, itsContext) :
+                    fileData.getRecords());
+
+            if (itsRecordOptions.itsIsGroupRecords) {
+                Comparator<String> groupComp =
+                        itsRecordOptions.itsIsSortCaseSensitive ?
+                        new StringComparator() : String.CASE_INSENSITIVE_ORDER;
+                if (!itsRecordOptions.itsIsSortAscending) {
+                    final Comparator<String> comp = groupComp;
+                    groupComp = (s1, s2) -> -comp.compare(s1, s2);
+                }
+                itsGroupComp = groupComp;
+            } else {
+                itsGroupComp = null;
+            }
+        }
     }
 
 
@@ -592,6 +846,12 @@ public final class PasswdFileDataView
     {
         private List<MatchPwsRecord> itsRecords = null;
         private TreeMap<String, GroupNode> itsGroups = null;
+        /** Number of records in the group and its children */
+        private int itsNumRecords = 0;
+        /** Cached sorted items of the group's children */
+        private List<PasswdRecordListData> itsListData = null;
+        private boolean itsIsListRecords = false;
+        private boolean itsIsListGroups = false;
 
         /** Constructor */
         private GroupNode()
@@ -640,21 +900,6 @@ public final class PasswdFileDataView
         {
             return itsGroups;
         }
-
-        /** Get the number of records */
-        private int getNumRecords()
-        {
-            int num = 0;
-            if (itsRecords != null) {
-                num += itsRecords.size();
-            }
-            if (itsGroups != null) {
-                for (GroupNode child: itsGroups.values()) {
-                    num += child.getNumRecords();
-                }
-            }
-            return num;
-        }
     }
 
 
@@ -663,19 +908,45 @@ public final class PasswdFileDataView
      */
     private static final class MatchPwsRecord
     {
+        private final PwsRecord itsRecord;
         private final String itsTitle;
+        private final String itsTitleKey;
         private final String itsUsername;
+        private final String itsUsernameKey;
         private final PasswdRecordListData.RecordFields itsFields;
 
+        /**
+         * Constructor
+         */
         private MatchPwsRecord(PwsRecord rec,
+                               @NonNull PasswdFieldSnapshot.Fields recFields,
                                @NonNull PasswdFileData fileData,
                                String match)
         {
-            itsTitle = fileData.getTitle(rec);
-            itsUsername = fileData.getUsername(rec);
+            itsRecord = rec;
+            itsTitle = recFields.title();
+            itsTitleKey = recFields.titleKey();
+            itsUsername = recFields.username();
+            itsUsernameKey = recFields.usernameKey();
             itsFields = new PasswdRecordListData.RecordFields(rec, fileData,
                                                               match);
         }
+
+        /**
+         * Constructor for a record whose match has changed
+         */
+        private MatchPwsRecord(@NonNull MatchPwsRecord matchRec,
+                               @NonNull PasswdFileData fileData,
+                               String match)
+        {
+            itsRecord = matchRec.itsRecord;
+            itsTitle = matchRec.itsTitle;
+            itsTitleKey = matchRec.itsTitleKey;
+            itsUsername = matchRec.itsUsername;
+            itsUsernameKey = matchRec.itsUsernameKey;
+            itsFields = new PasswdRecordListData.RecordFields(itsRecord,
+                                                              fileData, match);
+        }
     }
 
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2016-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2016-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -21,7 +21,9 @@ import java.util.Date;
  */
 public record PasswdRecordListData(
         String title,
+        String titleKey,
         String user,
+        String userKey,
         @NonNull
         RecordFields fields,
         int icon,
@@ -87,15 +89,21 @@ public record PasswdRecordListData(
 
     /**
      * Constructor
+     * @param titleKey The case-insensitive sort key of the title
+     * @param userKey The case-insensitive sort key of the user
      */
     public PasswdRecordListData(String title,
+                                String titleKey,
                                 String user,
+                                String userKey,
                                 @Nullable RecordFields fields,
                                 int icon,
                                 boolean isRecord)
     {
         this.title = title;
+        this.titleKey = titleKey;
         this.user = user;
+        this.userKey = userKey;
         this.fields = (fields != null) ? fields : GROUP_FIELDS;
         this.icon = icon;
         this.isRecord = isRecord;
@@ -96,17 +96,25 @@ public final class PasswdRecordListDataComparator
         }
         }
 
-        rc = compareField(arg0.title(), arg1.title());
+        if (itsOptions.itsIsSortCaseSensitive) {
+            rc = compareField(arg0.title(), arg1.title());
+            if (rc != 0) {
+                return rc;
+            }
+            return compareField(arg0.user(), arg1.user());
+        }
+        rc = compareField(arg0.titleKey(), arg1.titleKey());
         if (rc != 0) {
             return rc;
         }
-        return compareField(arg0.user(), arg1.user());
+        return compareField(arg0.userKey(), arg1.userKey());
     }
 
     /**
-     * Compare two string fields
+     * Compare two string fields.  Case-insensitive sorts compare the
+     * fields' sort keys.
      */
-    private int compareField(String arg0, String arg1)
+    private static int compareField(String arg0, String arg1)
     {
         if ((arg0 == null) && (arg1 == null)) {
             return 0;
@@ -115,11 +123,7 @@ public final class PasswdRecordListDataComparator
         } else if (arg1 == null) {
             return 1;
         } else {
-            if (itsOptions.itsIsSortCaseSensitive) {
-                return arg0.compareTo(arg1);
-            } else {
-                return arg0.compareToIgnoreCase(arg1);
-            }
+            return arg0.compareTo(arg1);
         }
     }
 
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2008-2009 David Muller <roxon@users.sourceforge.net>.
- * Copyright (©) 2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2025-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -12,6 +12,7 @@ import androidx.annotation.NonNull;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.TimeZone;
@@ -107,18 +108,7 @@ public class UUID implements Comparable<Object>, Serializable
         if (that == null)
             return false;
 
-        byte[] b1;
-        byte[] b2;
-
-        b1 = this.getBytes();
-        b2 = that.getBytes();
-
-        for (int ii = 0; ii < b1.length; ++ii) {
-            if (b1[ii] != b2[ii]) {
-                return false;
-            }
-        }
-        return true;
+        return Arrays.equals(TheUUID, that.TheUUID);
     }
 
     /**
@@ -179,6 +169,24 @@ public class UUID implements Comparable<Object>, Serializable
         return Util.cloneByteArray(TheUUID);
     }
 
+    /**
+     * Returns the high 64 bits of the UUID, the first eight bytes in
+     * big-endian order
+     */
+    public long getHigh()
+    {
+        return getLong(TheUUID, 0);
+    }
+
+    /**
+     * Returns the low 64 bits of the UUID, the last eight bytes in
+     * big-endian order
+     */
+    public long getLow()
+    {
+        return getLong(TheUUID, 8);
+    }
+
     /**
      * Converts this UUID into human-readable form.  The string has the
      * format:
@@ -194,6 +202,18 @@ public class UUID implements Comparable<Object>, Serializable
         return toString(TheUUID);
     }
 
+    /**
+     * Get a long from eight big-endian bytes
+     */
+    private static long getLong(@NonNull byte[] bytes, int offset)
+    {
+        long val = 0;
+        for (int i = 0; i < 8; ++i) {
+            val = (val << 8) | (bytes[offset + i] & 0xff);
+        }
+        return val;
+    }
+
     /**
      * Converts <code>uuid</code> into human-readable form.  The string
      * has the format:
@@ -220,8 +220,25 @@ public final class Util
      */
     public static int getIntFromByteArray(@NonNull byte[] buff)
     {
-        return (buff[0] & 0x000000ff) | ((buff[1] & 0x000000ff) << 8) |
-               ((buff[2] & 0x000000ff) << 16) | ((buff[3] & 0x000000ff) << 24);
+        return getIntFromByteArray(buff, 0);
+    }
+
+    /**
+     * Extracts an int from a byte array.  The value is four bytes in
+     * little-endian order starting at <code>offset</code>.
+     *
+     * @param buff   the array to extract the int from.
+     * @param offset the offset of the value.
+     * @return The value extracted.
+     * @throws IndexOutOfBoundsException if offset is negative or <code>buff
+     * .length</code> &lt; <code>offset + 4</code>.
+     */
+    public static int getIntFromByteArray(@NonNull byte[] buff, int offset)
+    {
+        return (buff[offset] & 0x000000ff) |
+               ((buff[offset + 1] & 0x000000ff) << 8) |
+               ((buff[offset + 2] & 0x000000ff) << 16) |
+               ((buff[offset + 3] & 0x000000ff) << 24);
     }
 
     /**
@@ -43,6 +43,11 @@ public class HmacPws
         itsMac.update(incoming);
     }
 
+    public final void digest(byte[] incoming, int offset, int len)
+    {
+        itsMac.update(incoming, offset, len);
+    }
+
     public final byte[] doFinal()
     {
         return itsMac.doFinal();
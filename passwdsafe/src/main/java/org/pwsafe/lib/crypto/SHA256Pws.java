@@ -26,10 +26,34 @@ import java.util.Locale;
  */
 public class SHA256Pws {
 
-    private static final boolean IS_CHROME;
+    /**
+     * Engines for hashing bytes multiple times
+     */
+    private enum Engine
+    {
+        /** Java provider */
+        JAVA,
+        /** Native code */
+        NATIVE,
+        /** Native code using the CPU's SHA instructions */
+        NATIVE_ACCEL
+    }
+
+    private static final Engine ENGINE;
     static {
         String brand = Build.BRAND.toLowerCase(Locale.getDefault());
-        IS_CHROME = (brand.contains("chromium"));
+        if (brand.contains("chromium")) {
+            ENGINE = Engine.JAVA;
+        } else {
+            Engine engine;
+            try {
+                engine = hasNativeAccel() ? Engine.NATIVE_ACCEL :
+                         Engine.NATIVE;
+            } catch (UnsatisfiedLinkError e) {
+                engine = Engine.NATIVE;
+            }
+            ENGINE = engine;
+        }
     }
 
     /**
@@ -37,11 +61,11 @@ public class SHA256Pws {
      */
     public static byte[] digestN(byte[] p, int iter)
     {
-        if (IS_CHROME) {
-            return digestNJava(p, iter);
-        } else {
-            return digestNNative(p, iter);
-        }
+        return switch (ENGINE) {
+            case JAVA -> digestNJava(p, iter);
+            case NATIVE -> digestNNative(p, iter);
+            case NATIVE_ACCEL -> digestNNativeAccel(p, iter);
+        };
     }
 
     /**
@@ -73,6 +97,17 @@ public class SHA256Pws {
      */
     public static native byte[] digestNNative(byte[] p, int iter);
 
+    /**
+     * Hash the incoming bytes iter+1 times using native code with the CPU's
+     * SHA instructions
+     */
+    public static native byte[] digestNNativeAccel(byte[] p, int iter);
+
+    /**
+     * Whether the CPU's SHA instructions are available to native code
+     */
+    public static native boolean hasNativeAccel();
+
     /**
      * Get the default provider's SHA-256 digester
      */
@@ -1,5 +1,6 @@
 /*
  * Copyright (c) 2008-2009 David Muller <roxon@users.sourceforge.net>.
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -40,6 +41,28 @@ public class TwofishPws
         return out;
     }
 
+    /**
+     * Process a run of whole blocks without allocating.  The input and output
+     * may be the same array to process the blocks in place.
+     *
+     * @param input  the input bytes
+     * @param inOff  the offset of the first input block
+     * @param output the output bytes
+     * @param outOff the offset of the first output block
+     * @param len    the number of bytes; a multiple of the block size
+     */
+    public final void processCBC(byte[] input, int inOff,
+                                 byte[] output, int outOff, int len)
+    {
+        final int blockSize = cipher.getBlockSize();
+        if ((len % blockSize) != 0) {
+            throw new IllegalArgumentException("len");
+        }
+        for (int pos = 0; pos < len; pos += blockSize) {
+            cipher.processBlock(input, inOff + pos, output, outOff + pos);
+        }
+    }
+
     public static byte[] processECB(byte[] key, boolean forEncryption,
                                     byte[] input)
     {
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2009-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2009-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -9,35 +9,33 @@ package org.pwsafe.lib.file;
 
 import androidx.annotation.NonNull;
 
-import org.bouncycastle.crypto.RuntimeCryptoException;
 import org.jetbrains.annotations.Contract;
 
-import java.io.IOException;
 import java.io.Serial;
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.SealedObject;
-
 
+/**
+ * A password field whose value is kept encrypted in the file's sealed arena
+ */
 public abstract class AbstractPwsPasswdField extends PwsField
 {
     @Serial
     private static final long serialVersionUID = -5633832199601878672L;
 
-    private final Cipher itsReadCipher;
+    private final PwsSealedArena itsArena;
     private final String itsStrEncoding;
 
     protected AbstractPwsPasswdField(
             PwsFieldType type, byte[] value, @NonNull PwsFile file,
             @SuppressWarnings("SameParameterValue") String encoding)
     {
-        super(type, sealValue(value, encoding, file.getWriteCipher()));
+        super(type, sealValue(value, encoding, file.getSealedArena()));
         Arrays.fill(value, (byte)0);
-        itsReadCipher = file.getReadCipher();
+        itsArena = file.getSealedArena();
         itsStrEncoding = encoding;
     }
 
@@ -47,8 +45,8 @@ public abstract class AbstractPwsPasswdField extends PwsField
                                      @NonNull PwsFile file,
                                      String encoding)
     {
-        super(type, sealValue(value, file.getWriteCipher()));
-        itsReadCipher = file.getReadCipher();
+        super(type, file.getSealedArena().seal(value));
+        itsArena = file.getSealedArena();
         itsStrEncoding = encoding;
     }
 
@@ -56,7 +54,7 @@ public abstract class AbstractPwsPasswdField extends PwsField
     protected AbstractPwsPasswdField(PwsFieldType type, String encoding)
     {
         super(type, null);
-        itsReadCipher = null;
+        itsArena = null;
         itsStrEncoding = encoding;
     }
 
@@ -82,63 +80,63 @@ public abstract class AbstractPwsPasswdField extends PwsField
         if (arg0 instanceof AbstractPwsPasswdField) {
             return toString().equals(arg0.toString());
         } else if (arg0 instanceof String) {
-            return toString().equals(arg0);
+            PwsSealedArena.Ref ref = (PwsSealedArena.Ref)getValue();
+            if (ref == null) {
+                return ((String)arg0).isEmpty();
+            }
+            return itsArena.equals(ref, (String)arg0);
         }
         throw new ClassCastException();
     }
 
 
-    @Override
-    @NonNull
-    public String toString()
+    /**
+     * Does the field's value match a password without unsealing it into a
+     * string
+     */
+    public boolean matches(@NonNull PwsPassword passwd)
     {
-        SealedObject sealValue = (SealedObject)getValue();
-        try {
-            if (sealValue == null) {
-                return "";
-            } else {
-                return (String)sealValue.getObject(itsReadCipher);
-            }
-        } catch (IllegalBlockSizeException | BadPaddingException |
-                ClassNotFoundException e) {
-            throw new RuntimeCryptoException(e.getMessage());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        PwsSealedArena.Ref ref = (PwsSealedArena.Ref)getValue();
+        if (ref == null) {
+            return passwd.length() == 0;
         }
+        return itsArena.equals(ref, passwd);
     }
 
 
     @Override
-    public byte[] getBytes()
+    @NonNull
+    public String toString()
     {
-        try {
-            return toString().getBytes(itsStrEncoding);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
-        }
+        PwsSealedArena.Ref ref = (PwsSealedArena.Ref)getValue();
+        return (ref == null) ? "" : itsArena.getString(ref);
     }
 
 
-    @NonNull
-    private static SealedObject sealValue(byte[] value, String encoding,
-                                          Cipher cipher)
+    @Override
+    public byte[] getBytes()
     {
-        try {
-            return sealValue(new String(value, encoding), cipher);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+        PwsSealedArena.Ref ref = (PwsSealedArena.Ref)getValue();
+        if (ref == null) {
+            return new byte[0];
         }
+        return itsArena.getBytes(ref, Charset.forName(itsStrEncoding));
     }
 
 
     @NonNull
-    @Contract("_, _ -> new")
-    private static SealedObject sealValue(String value, Cipher cipher)
+    @Contract("_, _, _ -> new")
+    private static PwsSealedArena.Ref sealValue(byte[] value, String encoding,
+                                                PwsSealedArena arena)
     {
+        CharBuffer chars =
+                Charset.forName(encoding).decode(ByteBuffer.wrap(value));
         try {
-            return new SealedObject(value, cipher);
-        } catch (IllegalBlockSizeException | IOException e) {
-            throw new RuntimeCryptoException(e.getMessage());
+            return arena.seal(chars);
+        } finally {
+            if (chars.hasArray()) {
+                Arrays.fill(chars.array(), '\0');
+            }
         }
     }
 }
@@ -24,6 +24,7 @@ import org.pwsafe.lib.exception.UnsupportedFileVersionException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
@@ -165,6 +166,13 @@ public abstract class PwsFile
      */
     protected InputStream inStream;
 
+    /**
+     * The buffer used to read data from the storage when it is loaded as a
+     * whole.  It is non-null only whilst data are being read from the file
+     * and is used in place of <code>inStream</code>.
+     */
+    protected ByteBuffer inBuffer;
+
     /**
      * The stream used to write data to the storage.  It is non-null only
      * whilst data are being written to the file.
@@ -198,6 +206,7 @@ public abstract class PwsFile
 
     private Cipher itsReadCipher;
     private Cipher itsWriteCipher;
+    private PwsSealedArena itsSealedArena;
 
     /**
      * The password encoding which was used to open the file
@@ -296,6 +305,7 @@ public abstract class PwsFile
      */
     void close() throws IOException
     {
+        inBuffer = null;
         if (inStream != null) {
             inStream.close();
             inStream = null;
@@ -308,6 +318,9 @@ public abstract class PwsFile
     public void dispose()
     {
         passphrase = null;
+        if (itsSealedArena != null) {
+            itsSealedArena.dispose();
+        }
         if (memoryKey != null) {
             memoryKey.dispose();
         }
@@ -327,13 +340,19 @@ public abstract class PwsFile
         return getCipher(true);
     }
 
-    private Cipher getCipher(boolean forWriting)
+    /**
+     * Get the arena of sealed values, such as passwords, for the file
+     */
+    final synchronized PwsSealedArena getSealedArena()
     {
-        if (memoryIv == null) {
-            memoryIv = new byte[CIPHER_KEY_LEN];
-            Util.newRandBytes(memoryIv);
+        if (itsSealedArena == null) {
+            itsSealedArena = new PwsSealedArena(getKeyBytes());
         }
+        return itsSealedArena;
+    }
 
+    private Cipher getCipher(boolean forWriting)
+    {
         if (forWriting && (itsWriteCipher != null)) {
             return itsWriteCipher;
         } else if (!forWriting && (itsReadCipher != null)) {
@@ -341,7 +360,7 @@ public abstract class PwsFile
         }
 
         SecretKeySpec key = new SecretKeySpec(getKeyBytes(), CIPHER_KEY_SPEC);
-        IvParameterSpec ivSpec = new IvParameterSpec(memoryIv);
+        IvParameterSpec ivSpec = new IvParameterSpec(getMemoryIv());
         Cipher cipher;
         try {
             cipher = Cipher.getInstance(CIPHER_SPEC);
@@ -364,6 +383,15 @@ public abstract class PwsFile
         return cipher;
     }
 
+    private byte[] getMemoryIv()
+    {
+        if (memoryIv == null) {
+            memoryIv = new byte[CIPHER_KEY_LEN];
+            Util.newRandBytes(memoryIv);
+        }
+        return memoryIv;
+    }
+
     private byte[] getKeyBytes()
     {
         if (memoryKey == null) {
@@ -560,6 +588,18 @@ public abstract class PwsFile
     public final void readBytes(byte[] bytes)
             throws IOException, EndOfFileException
     {
+        if (inBuffer != null) {
+            int remaining = inBuffer.remaining();
+            if (remaining == 0) {
+                throw new EndOfFileException();
+            } else if (remaining < bytes.length) {
+                inBuffer.position(inBuffer.limit());
+                throw new IOException("short read");
+            }
+            inBuffer.get(bytes);
+            return;
+        }
+
         int count = inStream.read(bytes);
 
         if (count == -1) {
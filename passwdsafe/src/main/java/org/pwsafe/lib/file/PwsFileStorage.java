@@ -14,6 +14,8 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Date;
 
 /**
@@ -29,36 +31,72 @@ public class PwsFileStorage extends PwsStreamStorage
      */
     private static final Log LOG = Log.getInstance("org.pwsafe.lib.file");
 
+    /**
+     * The stream of the file being loaded; null if not loading
+     */
+    private FileInputStream itsFileStream;
+
     /*
      * Build an implementation given the filename for the underlying storage.
      */
     public PwsFileStorage(String identifier, String fileToOpen)
             throws IOException
     {
-        super(identifier,
-              (fileToOpen == null) ? null : new FileInputStream(fileToOpen));
+        this(identifier,
+             (fileToOpen == null) ? null : new FileInputStream(fileToOpen));
+    }
+
+    /**
+     * Constructor with the stream of the file to load
+     */
+    private PwsFileStorage(String identifier, FileInputStream fileStream)
+    {
+        super(identifier, fileStream);
+        itsFileStream = fileStream;
     }
 
     /**
-     * Takes the (encrypted) bytes and writes them out to the file.
+     * Map the file into memory rather than reading it onto the heap.  The
+     * stream is used if the file can't be mapped.
+     */
+    @Override
+    public ByteBuffer loadBuffer() throws IOException
+    {
+        if (itsFileStream != null) {
+            try {
+                FileChannel channel = itsFileStream.getChannel();
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                   channel.size());
+            } catch (IOException e) {
+                LOG.error("Error mapping file", e);
+            }
+        }
+        return super.loadBuffer();
+    }
+
+    @Override
+    public void closeAfterLoad() throws IOException
+    {
+        itsFileStream = null;
+        super.closeAfterLoad();
+    }
+
+    /**
+     * Streams the (encrypted) bytes out to the file.
      * <p/>
      * This particular method takes steps to make sure that the
      * original file is not overwritten or deleted until the
-     * new file has been successfully saved.
+     * new file has been successfully saved.  The bytes are written to a
+     * temporary file in the same directory which is renamed over the
+     * original.
      */
     @Override
-    public void save(byte[] data, boolean isV3) throws IOException
+    public void save(SaveWriter writer, boolean isV3) throws IOException
     {
         File file = new File(getIdentifier());
-        if (!file.exists()) {
-            /* Original file doesn't exist, just go ahead and write it
-             * (no backup, temp files needed).
-             */
-            writeFile(file, data);
-            return;
-        }
-
-        File dir = file.getCanonicalFile().getParentFile();
+        boolean exists = file.exists();
+        File dir = (exists ? file.getCanonicalFile() :
+                    file.getAbsoluteFile()).getParentFile();
         if (dir == null) {
             throw new FileNotFoundException(
                     "Couldn't find the parent directory for: " +
@@ -66,14 +104,20 @@ public class PwsFileStorage extends PwsStreamStorage
         }
         File FilePath = dir.getAbsoluteFile();
         File fromFile = new File(FilePath, file.getName());
-        File toFile = new File(FilePath, getSaveFileName(file, isV3));
+        /* Original file doesn't exist, just go ahead and rename the temp
+         * file to it (no backup needed).
+         */
+        File toFile = exists ? new File(FilePath, getSaveFileName(file, isV3))
+                             : fromFile;
 
         File tempFile = null;
         try {
             tempFile = File.createTempFile("pwsafe", null, FilePath);
-            writeFile(tempFile, data);
+            writeFile(tempFile, writer);
 
-            createBackupFile(fromFile, toFile);
+            if (exists) {
+                createBackupFile(fromFile, toFile);
+            }
 
             if (tempFile.renameTo(toFile)) {
                 tempFile = null;
@@ -131,11 +175,15 @@ public class PwsFileStorage extends PwsStreamStorage
         }
     }
 
-    public static void writeFile(File file, byte[] data) throws IOException
+    /**
+     * Stream a file being saved to a local file and sync it to the disk
+     */
+    public static void writeFile(File file, SaveWriter writer)
+            throws IOException
     {
         FileOutputStream outStream = new FileOutputStream(file);
         try {
-            outStream.write(data);
+            writeStream(outStream, writer);
             outStream.getFD().sync();
         } catch (IOException e) {
             try {
@@ -20,8 +20,8 @@ import org.pwsafe.lib.exception.RecordLoadException;
 import org.pwsafe.lib.exception.UnsupportedFileVersionException;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.util.Iterator;
@@ -169,44 +169,40 @@ public abstract class PwsFileV1V2 extends PwsFile
     @Override
     public void saveAs(PwsStorage saveStorage) throws IOException
     {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        outStream = baos;
-
         try {
-            header.save(this);
-
-            // Can only be created once the V1 header's been written.
-            try (Owner<PwsPassword> passwd = getPassphrase()) {
-                algorithm = makeBlowfish(passwd.pass(),
-                                         PwsFile.getUpdatePasswordEncoding());
-            }
-
-            writeExtraHeader(this);
-
-            PwsRecord rec;
-            for (Iterator<? extends PwsRecord> iter = getRecords(); iter
-                    .hasNext(); ) {
-                rec = iter.next();
-
-                rec.saveRecord(this);
-            }
-
-            outStream.close();
-
-            saveStorage.save(baos.toByteArray(), false);
-        } catch (IOException e) {
-            try {
-                outStream.close();
-            } catch (Exception e2) {
-                // do nothing we're going to throw the original exception
-            }
-            throw e;
+            saveStorage.save(this::writeFile, false);
         } finally {
             outStream = null;
             algorithm = null;
         }
     }
 
+    /**
+     * Encrypt and write the file to the output of a save
+     */
+    private void writeFile(OutputStream out) throws IOException
+    {
+        outStream = out;
+
+        header.save(this);
+
+        // Can only be created once the V1 header's been written.
+        try (Owner<PwsPassword> passwd = getPassphrase()) {
+            algorithm = makeBlowfish(passwd.pass(),
+                                     PwsFile.getUpdatePasswordEncoding());
+        }
+
+        writeExtraHeader(this);
+
+        PwsRecord rec;
+        for (Iterator<? extends PwsRecord> iter = getRecords(); iter
+                .hasNext(); ) {
+            rec = iter.next();
+
+            rec.saveRecord(this);
+        }
+    }
+
     /**
      * Encrypts then writes the contents of <code>buff</code> to the file.
      *
@@ -21,13 +21,25 @@ import org.pwsafe.lib.exception.MemoryKeyException;
 import org.pwsafe.lib.exception.RecordLoadException;
 import org.pwsafe.lib.exception.UnsupportedFileVersionException;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
@@ -52,6 +64,25 @@ public final class PwsFileV3 extends PwsFile
      */
     private static final byte[] EOF_BYTES_RAW = "PWS3-EOFPWS3-EOF".getBytes();
 
+    /**
+     * Length of the length and type at the start of a field
+     */
+    private static final int FIELD_HEADER_LEN = 5;
+
+    /**
+     * Initial length of the blocks of a record being saved
+     */
+    private static final int SAVE_BLOCKS_LEN = 1024;
+
+    private static final byte[] EMPTY_FIELD = new byte[0];
+
+    /**
+     * Seconds an idle password check thread waits before exiting
+     */
+    private static final long PASSWORD_CHECK_IDLE_SECS = 30;
+
+    private static ExecutorService itsPasswordCheckExecutor;
+
     private byte[] stretchedPassword;
     public byte[] decryptedRecordKey;
     public byte[] decryptedHmacKey;
@@ -60,6 +91,23 @@ public final class PwsFileV3 extends PwsFile
     HmacPws hasher;
     private PwsRecordV3 headerRecord;
 
+    /**
+     * The decrypted image of the records while loading.  Items are parsed as
+     * views into the image by offset, and the image is wiped once loading is
+     * complete.
+     */
+    private byte[] loadImage;
+    private int loadImageStart;
+    private int loadImagePos;
+    private int loadImageEnd;
+
+    /**
+     * The plaintext blocks of the record being saved.  A record's blocks are
+     * encrypted in place and written once the record is ended.
+     */
+    private byte[] saveBlocks;
+    private int saveBlocksLen;
+
     private static final String TAG = "org.pwsafe.lib.file.PwsFileV3";
 
     /**
@@ -98,6 +146,10 @@ public final class PwsFileV3 extends PwsFile
     @Override
     public void dispose()
     {
+        if ((storage != null) && (sealedHeaderV3 != null)) {
+            PwsStretchedKeyCache.refresh(storage.getIdentifier(),
+                                         getHeaderV3());
+        }
         super.dispose();
         if (stretchedPassword != null)
             Arrays.fill(stretchedPassword, (byte)0);
@@ -105,29 +157,168 @@ public final class PwsFileV3 extends PwsFile
             Arrays.fill(decryptedHmacKey, (byte)0);
         if (decryptedRecordKey != null)
             Arrays.fill(decryptedRecordKey, (byte)0);
+        clearLoadImage();
     }
 
+    /**
+     * Attempts to close the file, wiping the decrypted records.
+     */
+    @Override
+    void close() throws IOException
+    {
+        clearLoadImage();
+        super.close();
+    }
+
+    /**
+     * A check of the password encoded with a charset
+     */
+    private static final class PasswordCheck implements Callable<PasswordCheck>
+    {
+        private final String itsEncoding;
+        private final byte[] itsPasswd;
+        private final PwsFileHeaderV3 itsHeader;
+        private final int itsIter;
+        private byte[] itsStretch;
+
+        /**
+         * Constructor
+         */
+        private PasswordCheck(String encoding, byte[] passwd,
+                              PwsFileHeaderV3 header, int iter)
+        {
+            itsEncoding = encoding;
+            itsPasswd = passwd;
+            itsHeader = header;
+            itsIter = iter;
+        }
+
+        /**
+         * Stretch the password and check it against the file's hash
+         *
+         * @return The check if the password matches; null otherwise
+         */
+        @Override
+        @Nullable
+        public PasswordCheck call()
+        {
+            byte[] stretch = Util.stretchPassphrase(itsPasswd,
+                                                    itsHeader.getSalt(),
+                                                    itsIter);
+            if (Util.bytesAreEqual(itsHeader.getPassword(),
+                                   SHA256Pws.digest(stretch))) {
+                itsStretch = stretch;
+                return this;
+            }
+            Util.clearArray(stretch);
+            return null;
+        }
+    }
+
+    /**
+     * Add a check of the password with an encoding if its encoded bytes
+     * differ from those of the checks already added
+     */
+    private static void addPasswordCheck(@NonNull List<PasswordCheck> checks,
+                                         @NonNull PwsPassword passwd,
+                                         String encoding,
+                                         @NonNull PwsFileHeaderV3 headerV3,
+                                         int iter)
+    {
+        byte[] passwdBytes;
+        try {
+            passwdBytes = passwd.getBytes(encoding);
+        } catch (UnsupportedEncodingException e) {
+            // Skip this charset
+            return;
+        }
+        for (PasswordCheck check: checks) {
+            if (Arrays.equals(check.itsPasswd, passwdBytes)) {
+                Util.clearArray(passwdBytes);
+                return;
+            }
+        }
+        if (encoding == null) {
+            encoding = Charset.defaultCharset().name();
+        }
+        checks.add(new PasswordCheck(encoding, passwdBytes, headerV3, iter));
+    }
+
+    /**
+     * Run the password checks and return the first which matches.  The first
+     * check, with the most likely encoding, runs alone.  Only if it fails are
+     * the remaining checks run concurrently on the shared executor, and they
+     * are cancelled once a match is found.  A cancelled check which has
+     * already started runs to completion as the native stretch can't be
+     * interrupted, though its result is discarded.
+     */
     @Nullable
-    private byte[] checkPassword(@NonNull Owner<PwsPassword>.Param passwdParam,
-                                 String encoding,
-                                 @NonNull PwsFileHeaderV3 headerV3,
-                                 int iter)
+    private static PasswordCheck runPasswordChecks(
+            @NonNull List<PasswordCheck> checks)
+            throws IOException
     {
+        if (checks.isEmpty()) {
+            return null;
+        }
+        PasswordCheck match = checks.get(0).call();
+        if ((match != null) || (checks.size() == 1)) {
+            return match;
+        }
+        if (checks.size() == 2) {
+            return checks.get(1).call();
+        }
+
+        CompletionService<PasswordCheck> completion =
+                new ExecutorCompletionService<>(getPasswordCheckExecutor());
+        List<Future<PasswordCheck>> futures = new ArrayList<>();
         try {
-            try (Owner<PwsPassword> passwd = passwdParam.use()) {
-                byte[] stretch =
-                        Util.stretchPassphrase(passwd.get().getBytes(encoding),
-                                               headerV3.getSalt(), iter);
-                if (Util.bytesAreEqual(headerV3.getPassword(),
-                                       SHA256Pws.digest(stretch))) {
-                    return stretch;
+            for (PasswordCheck check: checks.subList(1, checks.size())) {
+                futures.add(completion.submit(check));
+            }
+            for (int i = 0; i < futures.size(); ++i) {
+                match = completion.take().get();
+                if (match != null) {
+                    return match;
                 }
             }
-        } catch (UnsupportedEncodingException e) {
-            // Skip this charset
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Password check interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException rte) {
+                throw rte;
+            }
+            throw new IOException(cause);
+        } finally {
+            for (Future<PasswordCheck> future: futures) {
+                future.cancel(true);
+            }
         }
+    }
 
-        return null;
+    /**
+     * Get the executor shared by the password checks of all files.  Its
+     * threads are started as needed and exit when idle.
+     */
+    @NonNull
+    private static synchronized ExecutorService getPasswordCheckExecutor()
+    {
+        if (itsPasswordCheckExecutor == null) {
+            int numThreads = Runtime.getRuntime().availableProcessors();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    numThreads, numThreads,
+                    PASSWORD_CHECK_IDLE_SECS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread thread = new Thread(r, "PwsPasswordCheck");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            itsPasswordCheckExecutor = executor;
+        }
+        return itsPasswordCheckExecutor;
     }
 
     @Override
@@ -137,7 +328,7 @@ public final class PwsFileV3 extends PwsFile
         setPassphrase(passwdParam);
 
         if (storage != null) {
-            inStream = new ByteArrayInputStream(storage.load());
+            inBuffer = storage.loadBuffer();
             lastStorageChange = storage.getModifiedDate();
         }
         PwsFileHeaderV3 theHeaderV3 = new PwsFileHeaderV3(this);
@@ -147,33 +338,43 @@ public final class PwsFileV3 extends PwsFile
         int iter = theHeaderV3.getIter();
         stretchedPassword = null;
 
-        if (encoding != null) {
-            stretchedPassword = checkPassword(passwdParam, encoding,
-                                              theHeaderV3, iter);
-        }
-
-        if (stretchedPassword == null) {
-            for (String charset : PwsFile.getPasswordEncodings()) {
-                stretchedPassword = checkPassword(passwdParam, charset,
-                                                  theHeaderV3, iter);
-                if (stretchedPassword != null) {
-                    encoding = charset;
-                    break;
+        String cacheId = (storage != null) ? storage.getIdentifier() : null;
+        try (Owner<PwsPassword> passwd = passwdParam.use()) {
+            PwsStretchedKeyCache.Match cached =
+                    PwsStretchedKeyCache.get(cacheId, theHeaderV3,
+                                             passwd.get());
+            if (cached != null) {
+                stretchedPassword = cached.stretch();
+                encoding = cached.encoding();
+            } else {
+                List<PasswordCheck> checks = new ArrayList<>();
+                if (encoding != null) {
+                    addPasswordCheck(checks, passwd.get(), encoding,
+                                     theHeaderV3, iter);
                 }
-            }
-        }
-
-        if (stretchedPassword == null) {
-            //try another method to avoid asymmetric encoding bug in V0.8 Beta1
-            try (Owner<PwsPassword> passwd = passwdParam.use()) {
-                stretchedPassword =
-                        Util.stretchPassphrase(passwd.get().getBytes(null),
-                                               theHeaderV3.getSalt(), iter);
-                if (Util.bytesAreEqual(theHeaderV3.getPassword(),
-                                       SHA256Pws.digest(stretchedPassword))) {
-                    encoding = Charset.defaultCharset().name();
-                } else {
-                    throw new IOException("Invalid password");
+                for (String charset : PwsFile.getPasswordEncodings()) {
+                    addPasswordCheck(checks, passwd.get(), charset,
+                                     theHeaderV3, iter);
+                }
+                //try another method to avoid asymmetric encoding bug in V0.8
+                // Beta1
+                addPasswordCheck(checks, passwd.get(), null, theHeaderV3,
+                                 iter);
+
+                try {
+                    PasswordCheck match = runPasswordChecks(checks);
+                    if (match == null) {
+                        throw new IOException("Invalid password");
+                    }
+                    stretchedPassword = match.itsStretch;
+                    encoding = match.itsEncoding;
+                    PwsStretchedKeyCache.put(cacheId, theHeaderV3, encoding,
+                                             match.itsPasswd,
+                                             stretchedPassword);
+                } finally {
+                    for (PasswordCheck check: checks) {
+                        Util.clearArray(check.itsPasswd);
+                    }
                 }
             }
         }
@@ -203,10 +404,17 @@ public final class PwsFileV3 extends PwsFile
         twofishCbc = new TwofishPws(decryptedRecordKey, false,
                                     theHeaderV3.getIV());
 
+        boolean loaded = false;
         try {
+            decryptLoadImage();
             readExtraHeader();
+            loaded = true;
         } catch (RecordLoadException rle) {
             throw new IOException("Error reading header record", rle);
+        } finally {
+            if (!loaded) {
+                clearLoadImage();
+            }
         }
     }
 
@@ -214,49 +422,105 @@ public final class PwsFileV3 extends PwsFile
     @Override
     public void saveAs(PwsStorage saveStorage) throws IOException
     {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        outStream = baos;
-
         try {
-            PwsFileHeaderV3 theHeaderV3 = getHeaderV3();
-            theHeaderV3.save(this);
-
-            // Can only be created once the V3 header resets key info
+            saveStorage.save(this::writeFile, true);
+        } finally {
+            outStream = null;
+            if (saveBlocks != null) {
+                Util.clearArray(saveBlocks);
+                saveBlocks = null;
+                saveBlocksLen = 0;
+            }
+        }
+    }
 
-            twofishCbc = new TwofishPws(decryptedRecordKey, true,
-                                        theHeaderV3.getIV());
+    /**
+     * Encrypt and write the file to the output of a save
+     */
+    private void writeFile(OutputStream out) throws IOException
+    {
+        outStream = out;
 
-            writeExtraHeader(this);
+        PwsFileHeaderV3 theHeaderV3 = getHeaderV3();
+        theHeaderV3.save(this);
 
-            PwsRecordV3 rec;
-            for (Iterator<? extends PwsRecord> iter = getRecords();
-                 iter.hasNext(); ) {
-                rec = (PwsRecordV3)iter.next();
-                if (!rec.isHeaderRecord())
-                    rec.saveRecord(this);
-            }
+        // Can only be created once the V3 header resets key info
 
-            outStream.write(PwsRecordV3.EOF_BYTES_RAW);
-            outStream.write(hasher.doFinal());
+        twofishCbc = new TwofishPws(decryptedRecordKey, true,
+                                    theHeaderV3.getIV());
 
-            outStream.close();
+        writeExtraHeader(this);
 
-            saveStorage.save(baos.toByteArray(), true);
-        } catch (IOException e) {
-            try {
-                if (outStream != null) {
-                    outStream.close();
-                }
-            } catch (Exception e2) {
-                // do nothing we're going to throw the original exception
-            }
-            throw e;
-        } finally {
-            outStream = null;
+        PwsRecordV3 rec;
+        for (Iterator<? extends PwsRecord> iter = getRecords();
+             iter.hasNext(); ) {
+            rec = (PwsRecordV3)iter.next();
+            if (!rec.isHeaderRecord())
+                rec.saveRecord(this);
         }
+
+        outStream.write(PwsRecordV3.EOF_BYTES_RAW);
+        outStream.write(hasher.doFinal());
     }
 
 
+    /**
+     * Add a field to the record being saved and to the HMAC
+     *
+     * @param type   the field type
+     * @param data   the data holding the field's value
+     * @param offset the offset of the value in the data
+     * @param len    the length of the value
+     */
+    void addSaveField(int type, byte[] data, int offset, int len)
+    {
+        appendSaveField(type, data, offset, len);
+        hasher.digest(data, offset, len);
+    }
+
+    /**
+     * End the record being saved.  The record's blocks are encrypted and
+     * written in one pass.
+     */
+    void endSaveRecord() throws IOException
+    {
+        appendSaveField(PwsFieldTypeV3.END_OF_RECORD.getId(), EMPTY_FIELD, 0,
+                        0);
+        twofishCbc.processCBC(saveBlocks, 0, saveBlocks, 0, saveBlocksLen);
+        outStream.write(saveBlocks, 0, saveBlocksLen);
+        saveBlocksLen = 0;
+    }
+
+    /**
+     * Append the plaintext blocks of a field to the record being saved.  The
+     * first block has the length and type followed by the start of the
+     * value.  The last block is padded with zeros.
+     */
+    private void appendSaveField(int type, byte[] data, int offset, int len)
+    {
+        final int blockSize = getBlockSize();
+        int fieldLen = ((FIELD_HEADER_LEN + len + blockSize - 1) /
+                        blockSize) * blockSize;
+        if (saveBlocks == null) {
+            saveBlocks = new byte[Math.max(fieldLen, SAVE_BLOCKS_LEN)];
+        } else if ((saveBlocksLen + fieldLen) > saveBlocks.length) {
+            byte[] blocks = Arrays.copyOf(
+                    saveBlocks, Math.max(saveBlocksLen + fieldLen,
+                                         2 * saveBlocks.length));
+            Util.clearArray(saveBlocks);
+            saveBlocks = blocks;
+        }
+
+        int pos = saveBlocksLen;
+        Util.putIntToByteArray(saveBlocks, len, pos);
+        saveBlocks[pos + 4] = (byte)type;
+        System.arraycopy(data, offset, saveBlocks, pos + FIELD_HEADER_LEN,
+                         len);
+        Arrays.fill(saveBlocks, pos + FIELD_HEADER_LEN + len, pos + fieldLen,
+                    (byte)0);
+        saveBlocksLen += fieldLen;
+    }
+
     /**
      * Returns the major version number for the file.
      *
@@ -351,15 +615,118 @@ public final class PwsFileV3 extends PwsFile
             throw new EndOfFileException();
         }
 
-        byte[] decrypted;
         try {
-            decrypted = twofishCbc.processCBC(buff);
+            twofishCbc.processCBC(buff, 0, buff, 0, buff.length);
         } catch (Exception e) {
             var ioe = new IOException("Error decrypting field");
             Log.getInstance(TAG).error(ioe);
             throw ioe;
         }
-        Util.copyBytes(decrypted, buff);
+    }
+
+    /**
+     * Decrypts all of the records following the header in a single pass into
+     * an image which is then parsed by offset.  A writable heap buffer is
+     * decrypted in place; otherwise, e.g. for a memory-mapped file, the image
+     * is a copy.
+     *
+     * @throws IOException If a decryption error occurs
+     */
+    private void decryptLoadImage() throws IOException
+    {
+        final int blockSize = getBlockSize();
+        final int start = inBuffer.position();
+        int end = start;
+        while (((end + blockSize) <= inBuffer.limit()) &&
+               !isEofBlock(inBuffer, end)) {
+            end += blockSize;
+        }
+
+        int len = end - start;
+        if (inBuffer.hasArray() && !inBuffer.isReadOnly()) {
+            loadImage = inBuffer.array();
+            loadImageStart = inBuffer.arrayOffset() + start;
+            inBuffer.position(end);
+        } else {
+            try {
+                loadImage = new byte[len];
+            } catch (OutOfMemoryError e) {
+                throw new IOException("Out of memory.  File too long: " + len);
+            }
+            loadImageStart = 0;
+            inBuffer.get(loadImage);
+        }
+        loadImagePos = loadImageStart;
+        loadImageEnd = loadImageStart + len;
+
+        try {
+            twofishCbc.processCBC(loadImage, loadImageStart,
+                                  loadImage, loadImageStart, len);
+        } catch (Exception e) {
+            clearLoadImage();
+            var ioe = new IOException("Error decrypting records");
+            Log.getInstance(TAG).error(ioe);
+            throw ioe;
+        }
+    }
+
+    /**
+     * Get the decrypted image of the records being loaded
+     */
+    byte[] getLoadImage()
+    {
+        return loadImage;
+    }
+
+    /**
+     * Reads the blocks holding <code>len</code> bytes of data from the
+     * decrypted image.  At the end of the image, the end of file marker is
+     * read so the HMAC follows.
+     *
+     * @param len the number of data bytes
+     * @return The offset of the data in the image
+     * @throws EndOfFileException If end of file has been reached.
+     * @throws IOException        If a read error occurs.
+     */
+    int readImageBlocks(int len) throws EndOfFileException, IOException
+    {
+        final int blockSize = getBlockSize();
+        final int pos = loadImagePos;
+        if (pos == loadImageEnd) {
+            readBytes(new byte[blockSize]);
+            throw new EndOfFileException();
+        }
+        if ((len < 0) || (len > (loadImageEnd - pos))) {
+            loadImagePos = loadImageEnd;
+            throw new EndOfFileException();
+        }
+        loadImagePos = pos + (((len + blockSize - 1) / blockSize) * blockSize);
+        return pos;
+    }
+
+    /**
+     * Wipe the decrypted image of the records
+     */
+    private void clearLoadImage()
+    {
+        if (loadImage != null) {
+            Arrays.fill(loadImage, loadImageStart, loadImageEnd, (byte)0);
+            loadImage = null;
+        }
+        loadImageStart = loadImagePos = loadImageEnd = 0;
+    }
+
+    /**
+     * Check whether the raw block at the position is the end of file marker
+     */
+    private static boolean isEofBlock(@NonNull ByteBuffer buff, int pos)
+    {
+        for (int i = 0; i < EOF_BYTES_RAW.length; ++i) {
+            if (buff.get(pos + i) != EOF_BYTES_RAW[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
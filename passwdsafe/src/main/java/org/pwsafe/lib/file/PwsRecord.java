@@ -63,6 +63,34 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
     private final Map<Integer, PwsField> attributes = new TreeMap<>();
     protected final Type itsType;
 
+    /**
+     * Raw values of fields whose decoding is deferred until first accessed.
+     * The index holds the type, offset, and length in the data of each
+     * deferred field.  Deferred fields have a null value in the attributes
+     * so they are still listed with the record's fields.
+     * <p>
+     * Reading a deferred field decodes it into the attributes, so records may
+     * be read from several threads, e.g. while filtering in parallel.  The
+     * attributes and the deferred fields are only accessed while locked on
+     * the record.
+     */
+    private byte[] itsDeferredData;
+    private int itsDeferredDataLen;
+    private int[] itsDeferredIndex;
+    private int itsNumDeferred;
+
+    /**
+     * Writer of the raw value of a deferred field
+     */
+    protected interface DeferredFieldWriter
+    {
+        /**
+         * Write the raw value of a field
+         */
+        void write(int typeId, byte[] data, int offset, int len)
+                throws IOException;
+    }
+
     /**
      * A holder class for all the data about a single field. It holds the
      * field's length, data and, for those formats that use it, the field's
@@ -72,9 +100,16 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
     {
         protected byte[] rawData;
         protected byte[] data;
+        protected int offset;
         protected int length;
         protected int type;
 
+        /**
+         * Whether data is a view into a buffer shared with other items,
+         * starting at offset, rather than owned by this item
+         */
+        protected boolean isDataShared;
+
         /**
          * No args constructor helps subclassing.
          */
@@ -113,7 +148,9 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
          */
         protected byte[] getByteData()
         {
-            if (length != data.length) {
+            if (isDataShared) {
+                return Util.getBytes(data, offset, length);
+            } else if (length != data.length) {
                 return Util.cloneByteArray(data, length);
             }
             return data;
@@ -139,11 +176,11 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
                     // changes to
                 // unicode
 
-                return new String(data, 0, length, DEFAULT_CHARSET);
+                return new String(data, offset, length, DEFAULT_CHARSET);
             } catch (UnsupportedEncodingException e) {
                 // Should never get here since all Java implementations must
                 // support the above charset.
-                return new String(data, 0, length);
+                return new String(data, offset, length);
             }
         }
 
@@ -182,11 +219,19 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
 
         protected final void clear()
         {
-            Arrays.fill(data, (byte)0);
-            Arrays.fill(rawData, (byte)0);
+            if (isDataShared) {
+                Arrays.fill(data, offset, offset + length, (byte)0);
+            } else {
+                Arrays.fill(data, (byte)0);
+            }
+            if (rawData != null) {
+                Arrays.fill(rawData, (byte)0);
+            }
             data = new byte[0];
             rawData = new byte[0];
+            offset = 0;
             length = 0;
+            isDataShared = false;
         }
     }
 
@@ -215,6 +260,7 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
         this(type);
 
         loadRecord(owner);
+        trimDeferredFields();
 
         isLoaded = true;
     }
@@ -283,6 +329,20 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
         return false;
     }
 
+    /**
+     * Decode the value of a field whose decoding was deferred.  Only records
+     * which defer fields when loaded override this.
+     *
+     * @param typeId the field type
+     * @param value  the raw field value
+     * @return The field
+     */
+    protected PwsField decodeDeferredField(int typeId, byte[] value)
+    {
+        throw new UnsupportedOperationException(
+                "Deferred field " + typeId + " in " + getClass().getName());
+    }
+
     // *************************************************************************
     // * Class methods
     // *************************************************************************
@@ -318,9 +378,13 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
      * @param aType the field to get.
      * @return The value of the field.
      */
-    protected final PwsField getField(Integer aType)
+    protected final synchronized PwsField getField(Integer aType)
     {
-        return attributes.get(aType);
+        PwsField field = attributes.get(aType);
+        if ((field == null) && (itsNumDeferred > 0)) {
+            field = decodeDeferred(aType);
+        }
+        return field;
     }
 
     /**
@@ -397,7 +461,7 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
      * @throws IllegalArgumentException if value is not the correct type
      * for the file.
      */
-    public void setField(@NonNull PwsField value)
+    public synchronized void setField(@NonNull PwsField value)
     {
         int typeId = value.getTypeId();
         var fieldType = getFieldType(typeId);
@@ -406,6 +470,7 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
             var fieldClass = fieldType.getFieldClass();
 
             if (cl == fieldClass) {
+                removeDeferred(typeId);
                 attributes.put(typeId, value);
                 setModified();
                 return;
@@ -416,6 +481,7 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
         if (allowUnknownFieldTypes()) {
             LOG.warn("Adding unknown field of type " + typeId + ", class " +
                      value.getClass() + " - maybe a new version is needed?");
+            removeDeferred(typeId);
             attributes.put(typeId, value);
             setModified();
         } else {
@@ -428,14 +494,133 @@ public abstract class PwsRecord implements Comparable<Object>, Serializable
      *
      * @param type The type of field to remove
      */
-    public void removeField(int type)
+    public synchronized void removeField(int type)
     {
-        PwsField field = attributes.remove(type);
-        if (field != null) {
+        boolean hasField = attributes.containsKey(type);
+        attributes.remove(type);
+        removeDeferred(type);
+        if (hasField) {
             setModified();
         }
     }
 
+    /**
+     * Add a field whose decoding is deferred until it is first accessed.
+     * The raw value is copied from the given data.
+     *
+     * @param typeId the field type
+     * @param data   the data holding the field's raw value
+     * @param offset the offset of the value in the data
+     * @param len    the length of the value
+     */
+    protected final synchronized void deferField(int typeId, byte[] data,
+                                                 int offset, int len)
+    {
+        removeDeferred(typeId);
+        if (itsDeferredData == null) {
+            itsDeferredData = new byte[Math.max(len, 64)];
+            itsDeferredIndex = new int[3 * 4];
+        }
+        if ((itsDeferredDataLen + len) > itsDeferredData.length) {
+            itsDeferredData = Arrays.copyOf(
+                    itsDeferredData,
+                    Math.max(itsDeferredDataLen + len,
+                             2 * itsDeferredData.length));
+        }
+        if ((3 * (itsNumDeferred + 1)) > itsDeferredIndex.length) {
+            itsDeferredIndex = Arrays.copyOf(itsDeferredIndex,
+                                             2 * itsDeferredIndex.length);
+        }
+
+        System.arraycopy(data, offset, itsDeferredData, itsDeferredDataLen,
+                         len);
+        int idx = 3 * itsNumDeferred++;
+        itsDeferredIndex[idx] = typeId;
+        itsDeferredIndex[idx + 1] = itsDeferredDataLen;
+        itsDeferredIndex[idx + 2] = len;
+        itsDeferredDataLen += len;
+        attributes.put(typeId, null);
+    }
+
+    /**
+     * Write the raw value of a field whose decoding is still deferred
+     * without decoding it
+     *
+     * @return true if the field is deferred and was written; false otherwise
+     */
+    protected final synchronized boolean writeDeferredField(
+            int typeId, @NonNull DeferredFieldWriter writer)
+            throws IOException
+    {
+        for (int i = 0; i < itsNumDeferred; ++i) {
+            int idx = 3 * i;
+            if (itsDeferredIndex[idx] == typeId) {
+                writer.write(typeId, itsDeferredData, itsDeferredIndex[idx + 1],
+                             itsDeferredIndex[idx + 2]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Trim the deferred field storage to its used size once a record is
+     * loaded
+     */
+    private void trimDeferredFields()
+    {
+        if ((itsDeferredData != null) &&
+            (itsDeferredDataLen < itsDeferredData.length)) {
+            itsDeferredData = Arrays.copyOf(itsDeferredData,
+                                            itsDeferredDataLen);
+        }
+    }
+
+    /**
+     * Decode a deferred field, replacing its placeholder in the attributes
+     *
+     * @return The decoded field; null if the field isn't deferred
+     */
+    @Nullable
+    private PwsField decodeDeferred(int typeId)
+    {
+        for (int i = 0; i < itsNumDeferred; ++i) {
+            int idx = 3 * i;
+            if (itsDeferredIndex[idx] == typeId) {
+                PwsField field = decodeDeferredField(
+                        typeId, Util.getBytes(itsDeferredData,
+                                              itsDeferredIndex[idx + 1],
+                                              itsDeferredIndex[idx + 2]));
+                removeDeferred(typeId);
+                attributes.put(typeId, field);
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove a deferred field from the index.  The storage is released once
+     * no deferred fields remain.
+     */
+    private void removeDeferred(int typeId)
+    {
+        for (int i = 0; i < itsNumDeferred; ++i) {
+            int idx = 3 * i;
+            if (itsDeferredIndex[idx] == typeId) {
+                --itsNumDeferred;
+                System.arraycopy(itsDeferredIndex, idx + 3, itsDeferredIndex,
+                                 idx, 3 * (itsNumDeferred - i));
+                break;
+            }
+        }
+        if (itsNumDeferred == 0) {
+            itsDeferredData = null;
+            itsDeferredDataLen = 0;
+            itsDeferredIndex = null;
+        }
+    }
+
     /**
      * Sets the modified flag on this record, and also on the file this record
      * belongs to.
@@ -19,8 +19,8 @@ import org.pwsafe.lib.exception.RecordLoadException;
 
 import java.io.IOException;
 import java.io.Serial;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
 
@@ -114,6 +114,20 @@ public class PwsRecordV3 extends PwsRecord
         return true;
     }
 
+    /**
+     * Decode the deferred string fields of a record
+     */
+    @Override
+    protected PwsField decodeDeferredField(int typeId, byte[] value)
+    {
+        try {
+            return new PwsStringUnicodeField(PwsFieldTypeV3.fromType(typeId),
+                                             value);
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Compares this record to another returning a value that is less than zero
      * if this record is "less than" <code>other</code>, zero if they are
@@ -189,8 +203,10 @@ public class PwsRecordV3 extends PwsRecord
                 throws EndOfFileException, IOException
         {
             super();
+            final int blockSize = file.getBlockSize();
+            int pos;
             try {
-                rawData = file.readBlock();
+                pos = file.readImageBlocks(blockSize);
             } catch (EndOfFileException eofe) {
                 data = new byte[32]; // to hold closing HMAC
                 file.readBytes(data);
@@ -204,44 +220,21 @@ public class PwsRecordV3 extends PwsRecord
                 throw eofe;
             }
 
-            length = Util.getIntFromByteArray(rawData);
-            type = rawData[4] & 0x000000ff; // rest of header is now random data
-            try {
-                data = new byte[length];
-            } catch (OutOfMemoryError e) {
-                throw new IOException(
-                        "Out of memory.  Record length too long: " + length);
+            // The data starts in the first block and continues in the
+            // following blocks, so the item is a view into the image
+            byte[] image = file.getLoadImage();
+            length = Util.getIntFromByteArray(image, pos);
+            type = image[pos + 4] & 0x000000ff; // rest of header is now random
+            if (length < 0) {
+                throw new IOException("Invalid record length: " + length);
             }
-            byte[] remainingDataInRecord = Util.getBytes(rawData, 5, 11);
-            if (length <= 11) {
-                System.arraycopy(remainingDataInRecord, 0, data, 0, length);
-            } else {
-                int bytesToRead = length - 11;
-                final int blockSize = file.getBlockSize();
-                int blocksToRead = bytesToRead / blockSize;
-
-                System.arraycopy(remainingDataInRecord, 0, data, 0,
-                                 remainingDataInRecord.length);
-                int pos = remainingDataInRecord.length;
-
-                byte[] nextBlock = new byte[blockSize];
-                int nextBlockLen = nextBlock.length;
-                for (int i = 0; i < blocksToRead; i++, pos += nextBlockLen) {
-                    file.readDecryptedBytes(nextBlock);
-                    System.arraycopy(nextBlock, 0, data, pos, nextBlockLen);
-                }
-
-                // if blocksToRead doesn't fit neatly into current block
-                // size, add an extra block for the remaining bytes
-                if ((bytesToRead % blockSize) != 0) {
-                    file.readDecryptedBytes(nextBlock);
-                    int bytesRead = pos - remainingDataInRecord.length;
-                    nextBlockLen = bytesToRead - bytesRead;
-                    System.arraycopy(nextBlock, 0, data, pos, nextBlockLen);
-                }
+            if (length > 11) {
+                file.readImageBlocks(length - 11);
             }
-            byte[] dataToHash = data;
-            file.hasher.digest(dataToHash);
+            data = image;
+            offset = pos + 5;
+            isDataShared = true;
+            file.hasher.digest(data, offset, length);
         }
     }
 
@@ -319,6 +312,10 @@ public class PwsRecordV3 extends PwsRecord
                     case GROUP:
                     case TITLE:
                     case USERNAME:
+                        itemVal = new PwsStringUnicodeField(type,
+                                                            item.getByteData());
+                        break;
+
                     case NOTES:
                     case PASSWORD_POLICY:
                     case PASSWORD_HISTORY:
@@ -328,9 +325,11 @@ public class PwsRecordV3 extends PwsRecord
                     case EMAIL:
                     case OWN_PASSWORD_SYMBOLS:
                     case PASSWORD_POLICY_NAME:
-                        itemVal = new PwsStringUnicodeField(type,
-                                                            item.getByteData());
-                        break;
+                        // Decode when first accessed as the list view only
+                        // needs the naming fields
+                        deferField(itemType, item.data, item.offset,
+                                   item.length);
+                        continue;
 
                     case PASSWORD:
                     case TWO_FACTOR_KEY:
@@ -408,19 +407,19 @@ public class PwsRecordV3 extends PwsRecord
     @Override
     protected void saveRecord(PwsFile file) throws IOException
     {
+        PwsFileV3 fileV3 = (PwsFileV3)file;
+        DeferredFieldWriter deferredWriter = fileV3::addSaveField;
         for (Iterator<Integer> iter = getFields(); iter.hasNext(); ) {
-            int type;
-            PwsField value;
-
-            type = iter.next();
-            value = getField(type);
-
-            writeField(file, value);
+            int type = iter.next();
 
-            PwsFileV3 fileV3 = (PwsFileV3)file;
-            fileV3.hasher.digest(value.getBytes());
+            // Fields which were never accessed are saved from their raw
+            // values without decoding
+            if (!writeDeferredField(type, deferredWriter)) {
+                byte[] value = getField(type).getBytes();
+                fileV3.addSaveField(type, value, 0, value.length);
+            }
         }
-        writeField(file, new PwsStringField(PwsFieldTypeV3.END_OF_RECORD, ""));
+        fileV3.endSaveRecord();
     }
 
     @Override
@@ -437,54 +436,6 @@ public class PwsRecordV3 extends PwsRecord
         return null;
     }
 
-    /**
-     * Writes a single field to the file.
-     *
-     * @param file the file to write the field to.
-     * @param field the field to be written.
-     * @param type the type to write to the file instead of
-     * <code>field.getType()</code>
-     */
-    @Override
-    protected void writeField(@NonNull PwsFile file,
-                              @NonNull PwsField field,
-                              int type) throws IOException
-    {
-        byte[] lenBlock = new byte[5];
-        byte[] dataBlock = field.getBytes();
-
-        Util.putIntToByteArray(lenBlock, dataBlock.length, 0);
-        lenBlock[4] = (byte)type;
-
-        final int blockSize = 16;
-        byte[] nextBlock = new byte[blockSize];
-
-        int firstBlockLen = Math.min(dataBlock.length, 11);
-        System.arraycopy(lenBlock, 0, nextBlock, 0, lenBlock.length);
-        System.arraycopy(dataBlock, 0, nextBlock, lenBlock.length,
-                         firstBlockLen);
-        file.writeEncryptedBytes(nextBlock);
-
-        int bytesToWrite = dataBlock.length - 11;
-        if (bytesToWrite > 0) {
-            int blocksToWrite = bytesToWrite / blockSize;
-            int pos = 11;
-            int nextBlockLen = nextBlock.length;
-            for (int i = 0; i < blocksToWrite; ++i, pos += nextBlockLen) {
-                System.arraycopy(dataBlock, pos, nextBlock, 0, nextBlockLen);
-                file.writeEncryptedBytes(nextBlock);
-            }
-
-            if ((bytesToWrite % blockSize) != 0) {
-                int bytesWritten = pos - 11;
-                nextBlockLen = bytesToWrite - bytesWritten;
-                System.arraycopy(dataBlock, pos, nextBlock, 0, nextBlockLen);
-                Arrays.fill(nextBlock, nextBlockLen, nextBlock.length, (byte)0);
-                file.writeEncryptedBytes(nextBlock);
-            }
-        }
-    }
-
     /**
      * Returns a string representation of this record.
      *
@@ -0,0 +1,370 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package org.pwsafe.lib.file;
+
+import androidx.annotation.NonNull;
+
+import org.pwsafe.lib.Util;
+import org.pwsafe.lib.exception.MemoryKeyException;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A contiguous arena of protected values, such as passwords, for a file.
+ * Values are stored as encrypted characters under a key derived from the
+ * file's in-memory key, so the arena never shares a keystream with the other
+ * values sealed with the in-memory key.  Each value is encrypted with AES/CTR
+ * under its own nonce in the upper half of the counter block, with the lower
+ * half counting the value's blocks from zero, so the keystreams of the values
+ * never overlap.  Values are appended without serialization or re-encrypting
+ * the rest of the arena.
+ * Values are decrypted into reusable buffers which are wiped after each use.
+ * <p>
+ * Values may be read concurrently, e.g. while filtering records in parallel.
+ * Each thread uses its own cipher and buffers, and readers only exclude the
+ * sealing of new values.
+ * <p>
+ * The arena only grows while the file is open.  Space for values which are
+ * replaced is reclaimed when the file is disposed.
+ */
+final class PwsSealedArena
+{
+    /**
+     * A reference to a sealed value in the arena
+     */
+    static final class Ref
+    {
+        private final int itsOffset;
+        private final int itsLength;
+        private final long itsNonce;
+
+        /**
+         * Constructor
+         */
+        private Ref(int offset, int length, long nonce)
+        {
+            itsOffset = offset;
+            itsLength = length;
+            itsNonce = nonce;
+        }
+    }
+
+    /**
+     * Access to the characters of a value
+     */
+    private interface CharAt
+    {
+        char charAt(int i);
+    }
+
+    /**
+     * A thread's cipher and buffers for decrypting values
+     */
+    private static final class Worker
+    {
+        private final Cipher itsCipher;
+        private byte[] itsWorkBytes = new byte[64];
+        private char[] itsWorkChars = new char[32];
+
+        /**
+         * Constructor
+         */
+        private Worker()
+        {
+            try {
+                itsCipher = Cipher.getInstance(CIPHER_SPEC);
+            } catch (GeneralSecurityException e) {
+                throw new MemoryKeyException("memory key generation failed",
+                                             e);
+            }
+        }
+    }
+
+    private static final String CIPHER_SPEC = "AES/CTR/NoPadding";
+
+    private static final String CIPHER_KEY_SPEC = "AES";
+
+    private static final String KEY_DERIVE_SPEC = "HmacSHA256";
+
+    /** Label for deriving the arena key from the in-memory key */
+    private static final byte[] KEY_DERIVE_LABEL =
+            "org.pwsafe.lib.file.PwsSealedArena".getBytes();
+
+    private static final int IV_LEN = 16;
+
+    /** Length of the nonce in the upper half of the counter block */
+    private static final int NONCE_LEN = 8;
+
+    private static final int INITIAL_ARENA_LEN = 4096;
+
+    private final SecretKeySpec itsKey;
+    private final byte[] itsNonceBase = new byte[NONCE_LEN];
+    private final ReadWriteLock itsLock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Worker> itsWorkers = new ThreadLocal<>()
+    {
+        @Override
+        protected Worker initialValue()
+        {
+            return new Worker();
+        }
+    };
+    private byte[] itsArena = new byte[INITIAL_ARENA_LEN];
+    private int itsArenaLen = 0;
+    private long itsNextNonce = 0;
+
+    /**
+     * Constructor
+     *
+     * @param memoryKey the file's in-memory key bytes from which the arena's
+     *                  key is derived; the bytes are cleared
+     */
+    PwsSealedArena(@NonNull byte[] memoryKey)
+    {
+        byte[] key = null;
+        try {
+            Mac mac = Mac.getInstance(KEY_DERIVE_SPEC);
+            mac.init(new SecretKeySpec(memoryKey, KEY_DERIVE_SPEC));
+            key = mac.doFinal(KEY_DERIVE_LABEL);
+            itsKey = new SecretKeySpec(key, 0, memoryKey.length,
+                                       CIPHER_KEY_SPEC);
+        } catch (GeneralSecurityException e) {
+            throw new MemoryKeyException("memory key generation failed", e);
+        } finally {
+            Util.clearArray(memoryKey);
+            if (key != null) {
+                Util.clearArray(key);
+            }
+        }
+        Util.newRandBytes(itsNonceBase);
+        // Check the cipher is available
+        itsWorkers.get();
+    }
+
+    /**
+     * Seal a value into the arena
+     *
+     * @return A reference to the sealed value
+     */
+    @NonNull
+    Ref seal(@NonNull CharSequence value)
+    {
+        itsLock.writeLock().lock();
+        try {
+            return doSeal(value);
+        } finally {
+            itsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get a sealed value as a string
+     */
+    @NonNull
+    String getString(@NonNull Ref ref)
+    {
+        Worker worker = itsWorkers.get();
+        itsLock.readLock().lock();
+        try {
+            unseal(ref, worker);
+            return new String(worker.itsWorkChars, 0, ref.itsLength);
+        } finally {
+            Arrays.fill(worker.itsWorkChars, 0, ref.itsLength, '\0');
+            itsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get a sealed value encoded with a charset
+     */
+    @NonNull
+    byte[] getBytes(@NonNull Ref ref, @NonNull Charset charset)
+    {
+        Worker worker = itsWorkers.get();
+        itsLock.readLock().lock();
+        ByteBuffer buf = null;
+        try {
+            unseal(ref, worker);
+            buf = charset.encode(CharBuffer.wrap(worker.itsWorkChars, 0,
+                                                 ref.itsLength));
+            byte[] bytes = new byte[buf.remaining()];
+            buf.get(bytes);
+            return bytes;
+        } finally {
+            Arrays.fill(worker.itsWorkChars, 0, ref.itsLength, '\0');
+            if ((buf != null) && buf.hasArray()) {
+                Util.clearArray(buf.array());
+            }
+            itsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Does a sealed value equal the given characters
+     */
+    boolean equals(@NonNull Ref ref, @NonNull CharSequence value)
+    {
+        return equals(ref, value.length(), value::charAt);
+    }
+
+    /**
+     * Does a sealed value equal the given password
+     */
+    boolean equals(@NonNull Ref ref, @NonNull PwsPassword value)
+    {
+        return equals(ref, value.length(), value::charAt);
+    }
+
+    /**
+     * Wipe the arena and the buffers of the calling thread.  The buffers of
+     * other threads are wiped after each use.
+     */
+    void dispose()
+    {
+        itsLock.writeLock().lock();
+        try {
+            if (itsArena != null) {
+                Util.clearArray(itsArena);
+                itsArena = null;
+                itsArenaLen = 0;
+            }
+            Worker worker = itsWorkers.get();
+            Util.clearArray(worker.itsWorkBytes);
+            Util.clearArray(worker.itsWorkChars);
+            itsWorkers.remove();
+        } finally {
+            itsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Seal a value into the arena while locked for writing
+     */
+    @NonNull
+    private Ref doSeal(@NonNull CharSequence value)
+    {
+        checkDisposed();
+        int len = value.length();
+        int numBytes = 2 * len;
+        if ((itsArenaLen + numBytes) > itsArena.length) {
+            byte[] arena = Arrays.copyOf(
+                    itsArena, Math.max(itsArenaLen + numBytes,
+                                       2 * itsArena.length));
+            Util.clearArray(itsArena);
+            itsArena = arena;
+        }
+
+        int offset = itsArenaLen;
+        for (int i = 0, pos = offset; i < len; ++i) {
+            char c = value.charAt(i);
+            itsArena[pos++] = (byte)(c >>> 8);
+            itsArena[pos++] = (byte)c;
+        }
+
+        Ref ref = new Ref(offset, len, itsNextNonce++);
+        crypt(ref, itsArena, offset, itsWorkers.get().itsCipher);
+        itsArenaLen += numBytes;
+        return ref;
+    }
+
+    /**
+     * Does a sealed value equal a value's characters
+     */
+    private boolean equals(@NonNull Ref ref, int length, @NonNull CharAt value)
+    {
+        if (ref.itsLength != length) {
+            return false;
+        }
+        Worker worker = itsWorkers.get();
+        itsLock.readLock().lock();
+        try {
+            unseal(ref, worker);
+            for (int i = 0; i < ref.itsLength; ++i) {
+                if (worker.itsWorkChars[i] != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            Arrays.fill(worker.itsWorkChars, 0, ref.itsLength, '\0');
+            itsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Decrypt a sealed value into the work characters
+     */
+    private void unseal(@NonNull Ref ref, @NonNull Worker worker)
+    {
+        checkDisposed();
+        int numBytes = 2 * ref.itsLength;
+        if (numBytes > worker.itsWorkBytes.length) {
+            Util.clearArray(worker.itsWorkBytes);
+            worker.itsWorkBytes = new byte[numBytes];
+        }
+        if (ref.itsLength > worker.itsWorkChars.length) {
+            Util.clearArray(worker.itsWorkChars);
+            worker.itsWorkChars = new char[ref.itsLength];
+        }
+
+        byte[] workBytes = worker.itsWorkBytes;
+        char[] workChars = worker.itsWorkChars;
+        System.arraycopy(itsArena, ref.itsOffset, workBytes, 0, numBytes);
+        crypt(ref, workBytes, 0, worker.itsCipher);
+        for (int i = 0, pos = 0; i < ref.itsLength; ++i, pos += 2) {
+            workChars[i] = (char)(((workBytes[pos] & 0xff) << 8) |
+                                  (workBytes[pos + 1] & 0xff));
+        }
+        Arrays.fill(workBytes, 0, numBytes, (byte)0);
+    }
+
+    /**
+     * Encrypt or decrypt a value in place
+     */
+    private void crypt(@NonNull Ref ref, byte[] bytes, int offset,
+                       @NonNull Cipher cipher)
+    {
+        int numBytes = 2 * ref.itsLength;
+        if (numBytes == 0) {
+            return;
+        }
+
+        // The upper half of the counter block is the value's nonce and the
+        // lower half counts its blocks from zero
+        byte[] iv = new byte[IV_LEN];
+        for (int i = 0; i < NONCE_LEN; ++i) {
+            iv[i] = (byte)(itsNonceBase[i] ^ (ref.itsNonce >>> (8 * i)));
+        }
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, itsKey, new IvParameterSpec(iv));
+            cipher.doFinal(bytes, offset, numBytes, bytes, offset);
+        } catch (GeneralSecurityException e) {
+            throw new MemoryKeyException(e);
+        }
+    }
+
+    /**
+     * Check whether the arena has been disposed
+     */
+    private void checkDisposed()
+    {
+        if (itsArena == null) {
+            throw new IllegalStateException("Sealed arena has been disposed");
+        }
+    }
+}
@@ -1,6 +1,6 @@
 /*
  * Copyright (c) 2008-2009 David Muller <roxon@users.sourceforge.net>.
- * Copyright (©) 2024 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2024-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -10,6 +10,8 @@ package org.pwsafe.lib.file;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Date;
 
 /**
@@ -42,6 +44,18 @@ public interface PwsStorage
                 throws IOException;
     }
 
+    /**
+     * Writer of the (encrypted) bytes of a file being saved
+     */
+    interface SaveWriter
+    {
+        /**
+         * Write the file to the output of the storage.  The output is
+         * buffered by the storage and must not be closed.
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
     /**
      * Open the file for loading
      *
@@ -57,24 +71,35 @@ public interface PwsStorage
      */
     byte[] load() throws IOException;
 
+    /**
+     * Grab all the bytes in the file as a buffer.  The buffer may be a
+     * read-only view of a memory-mapped file rather than an array on the
+     * heap.
+     *
+     * @return The bytes in the file
+     */
+    ByteBuffer loadBuffer() throws IOException;
+
     /**
      * Close the file after being loaded
      */
     void closeAfterLoad() throws IOException;
 
     /**
-     * This method takes a series of bytes as input and then attempts
-     * to save them to the underlying storage provider.  It returns
-     * true if the save was successful and false otherwise.
+     * This method saves the file to the underlying storage provider by
+     * streaming the bytes from the writer to the provider's output.  The
+     * bytes are not collected in memory.  Where possible, the output is a
+     * temporary file which replaces the original only if the writer
+     * succeeds.
      * <p/>
      * Note that this interface does not care what version or format the
      * file is.  That is handled at the PwSFile layer.
      * <p/>
      *
-     * @param data The bytes making up the PasswordSafe file
+     * @param writer The writer of the bytes making up the PasswordSafe file
      * @param isV3 Is the file version 3
      */
-    void save(byte[] data, boolean isV3) throws IOException;
+    void save(SaveWriter writer, boolean isV3) throws IOException;
 
     /**
      * Returns a human readable identifier of this storage that might be
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2012-2024 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2012-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -10,9 +10,12 @@ package org.pwsafe.lib.file;
 import androidx.annotation.Nullable;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Date;
 
 /**
@@ -20,6 +23,11 @@ import java.util.Date;
  */
 public class PwsStreamStorage implements PwsStorage
 {
+    /**
+     * Size of the buffer for the output of a save
+     */
+    private static final int SAVE_BUFFER_SIZE = 64 * 1024;
+
     private SaveHelper itsSaveHelper;
     private BufferedInputStream itsLoadStream;
     private byte[] itsLoadBytes;
@@ -71,6 +79,11 @@ public class PwsStreamStorage implements PwsStorage
         return itsLoadBytes;
     }
 
+    public ByteBuffer loadBuffer() throws IOException
+    {
+        return ByteBuffer.wrap(load());
+    }
+
     public void closeAfterLoad() throws IOException
     {
         itsLoadBytes = null;
@@ -84,11 +97,24 @@ public class PwsStreamStorage implements PwsStorage
     }
 
     @Override
-    public void save(byte[] data, boolean isV3) throws IOException
+    public void save(SaveWriter writer, boolean isV3) throws IOException
     {
         throw new IOException("Not supported");
     }
 
+    /**
+     * Write a file being saved to an output stream through a bounded buffer.
+     * The stream is flushed but not closed.
+     */
+    protected static void writeStream(OutputStream out, SaveWriter writer)
+            throws IOException
+    {
+        BufferedOutputStream bufOut =
+                new BufferedOutputStream(out, SAVE_BUFFER_SIZE);
+        writer.write(bufOut);
+        bufOut.flush();
+    }
+
     public String getIdentifier()
     {
         return itsIdentifier;
@@ -0,0 +1,312 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package org.pwsafe.lib.file;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.pwsafe.lib.Util;
+import org.pwsafe.lib.crypto.InMemoryKey;
+import org.pwsafe.lib.crypto.SHA256Pws;
+import org.pwsafe.lib.exception.MemoryKeyException;
+
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Memory-only cache of the stretched keys of recently opened V3 files so a
+ * file can be re-opened with the same password without repeating the key
+ * stretch.  The cache is disabled until a timeout is set.
+ * <p>
+ * Entries are keyed by the file's storage identifier and are only used when
+ * the file's salt, iteration count, and password hash are unchanged.  The
+ * entered password is verified against a keyed MAC of the password used to
+ * create the entry.  The stretched keys are encrypted with an ephemeral
+ * in-memory key.  Entries expire after the timeout from when their file was
+ * last opened or closed.
+ */
+public final class PwsStretchedKeyCache
+{
+    /**
+     * A stretched key found in the cache
+     */
+    record Match(@NonNull String encoding, @NonNull byte[] stretch)
+    {
+    }
+
+    /**
+     * A cached stretched key
+     */
+    private static final class Entry
+    {
+        private final byte[] itsSalt;
+        private final int itsIter;
+        private final byte[] itsPasswdHash;
+        private final String itsEncoding;
+        private final byte[] itsPasswdMac;
+        private final byte[] itsIv;
+        private final byte[] itsSealedStretch;
+        private long itsExpiry;
+
+        /**
+         * Constructor
+         */
+        private Entry(@NonNull PwsFileHeaderV3 header, String encoding,
+                      byte[] passwdMac, byte[] iv, byte[] sealedStretch)
+        {
+            itsSalt = header.getSalt().clone();
+            itsIter = header.getIter();
+            itsPasswdHash = header.getPassword().clone();
+            itsEncoding = encoding;
+            itsPasswdMac = passwdMac;
+            itsIv = iv;
+            itsSealedStretch = sealedStretch;
+        }
+
+        /**
+         * Does the entry match a file header
+         */
+        private boolean matches(@NonNull PwsFileHeaderV3 header)
+        {
+            return (itsIter == header.getIter()) &&
+                   Util.bytesAreEqual(itsSalt, header.getSalt()) &&
+                   Util.bytesAreEqual(itsPasswdHash, header.getPassword());
+        }
+
+        /**
+         * Wipe the entry
+         */
+        private void clear()
+        {
+            Util.clearArray(itsPasswdMac);
+            Util.clearArray(itsSealedStretch);
+        }
+    }
+
+    private static final String CIPHER_SPEC = "AES/CTR/NoPadding";
+
+    private static final String CIPHER_KEY_SPEC = "AES";
+
+    private static final String MAC_SPEC = "HmacSHA256";
+
+    private static final int CIPHER_KEY_LEN = 16;
+
+    private static final int MAC_KEY_LEN = 32;
+
+    private static final int IV_LEN = 16;
+
+    private static final int MAX_ENTRIES = 4;
+
+    private static final Map<String, Entry> itsEntries = new HashMap<>();
+    private static InMemoryKey itsKey;
+    private static long itsTimeout = 0;
+
+    /**
+     * Set the timeout for cached keys in milliseconds.  A timeout of zero
+     * disables and clears the cache.
+     */
+    public static synchronized void setTimeout(long timeout)
+    {
+        itsTimeout = timeout;
+        if (timeout <= 0) {
+            clear();
+        }
+    }
+
+    /**
+     * Clear all cached keys
+     */
+    public static synchronized void clear()
+    {
+        for (Entry entry: itsEntries.values()) {
+            entry.clear();
+        }
+        itsEntries.clear();
+        if (itsKey != null) {
+            itsKey.dispose();
+            itsKey = null;
+        }
+    }
+
+    /**
+     * Get the cached stretched key for a file if the password matches
+     *
+     * @return The match; null if not cached
+     */
+    @Nullable
+    static synchronized Match get(@Nullable String fileId,
+                                  @NonNull PwsFileHeaderV3 header,
+                                  @NonNull PwsPassword passwd)
+    {
+        removeExpired();
+        Entry entry = (fileId != null) ? itsEntries.get(fileId) : null;
+        if ((entry == null) || !entry.matches(header)) {
+            return null;
+        }
+
+        byte[] passwdBytes;
+        try {
+            passwdBytes = passwd.getBytes(entry.itsEncoding);
+        } catch (UnsupportedEncodingException e) {
+            return null;
+        }
+        byte[] passwdMac;
+        try {
+            passwdMac = macPassword(passwdBytes);
+        } finally {
+            Util.clearArray(passwdBytes);
+        }
+        if (!MessageDigest.isEqual(passwdMac, entry.itsPasswdMac)) {
+            return null;
+        }
+
+        byte[] stretch = crypt(entry.itsIv, entry.itsSealedStretch);
+        if (!Util.bytesAreEqual(header.getPassword(),
+                                SHA256Pws.digest(stretch))) {
+            Util.clearArray(stretch);
+            return null;
+        }
+        entry.itsExpiry = SystemClock.elapsedRealtime() + itsTimeout;
+        return new Match(entry.itsEncoding, stretch);
+    }
+
+    /**
+     * Cache the stretched key for a file if the cache is enabled
+     */
+    static synchronized void put(@Nullable String fileId,
+                                 @NonNull PwsFileHeaderV3 header,
+                                 @NonNull String encoding,
+                                 @NonNull byte[] passwdBytes,
+                                 @NonNull byte[] stretch)
+    {
+        if ((itsTimeout <= 0) || (fileId == null)) {
+            return;
+        }
+        removeExpired();
+
+        byte[] iv = new byte[IV_LEN];
+        Util.newRandBytes(iv);
+        Entry entry = new Entry(header, encoding, macPassword(passwdBytes),
+                                iv, crypt(iv, stretch));
+        entry.itsExpiry = SystemClock.elapsedRealtime() + itsTimeout;
+        Entry prev = itsEntries.put(fileId, entry);
+        if (prev != null) {
+            prev.clear();
+        }
+
+        while (itsEntries.size() > MAX_ENTRIES) {
+            Map.Entry<String, Entry> oldest = null;
+            for (Map.Entry<String, Entry> e: itsEntries.entrySet()) {
+                if ((oldest == null) ||
+                    (e.getValue().itsExpiry < oldest.getValue().itsExpiry)) {
+                    oldest = e;
+                }
+            }
+            //noinspection ConstantConditions
+            oldest.getValue().clear();
+            itsEntries.remove(oldest.getKey());
+        }
+    }
+
+    /**
+     * Restart the timeout of a file's cached key, e.g. when the file is
+     * closed
+     */
+    static synchronized void refresh(@Nullable String fileId,
+                                     @NonNull PwsFileHeaderV3 header)
+    {
+        removeExpired();
+        Entry entry = (fileId != null) ? itsEntries.get(fileId) : null;
+        if ((entry != null) && entry.matches(header)) {
+            entry.itsExpiry = SystemClock.elapsedRealtime() + itsTimeout;
+        }
+    }
+
+    /**
+     * Remove expired entries, disposing of the key when the cache is empty
+     */
+    private static void removeExpired()
+    {
+        long now = SystemClock.elapsedRealtime();
+        Iterator<Entry> iter = itsEntries.values().iterator();
+        while (iter.hasNext()) {
+            Entry entry = iter.next();
+            if (now >= entry.itsExpiry) {
+                entry.clear();
+                iter.remove();
+            }
+        }
+        if (itsEntries.isEmpty() && (itsKey != null)) {
+            itsKey.dispose();
+            itsKey = null;
+        }
+    }
+
+    /**
+     * Compute the keyed MAC of the password bytes
+     */
+    @NonNull
+    private static byte[] macPassword(@NonNull byte[] passwdBytes)
+    {
+        byte[] keyBytes = getKeyBytes();
+        try {
+            Mac mac = Mac.getInstance(MAC_SPEC);
+            mac.init(new SecretKeySpec(keyBytes, CIPHER_KEY_LEN, MAC_KEY_LEN,
+                                       MAC_SPEC));
+            return mac.doFinal(passwdBytes);
+        } catch (GeneralSecurityException e) {
+            throw new MemoryKeyException(e);
+        } finally {
+            Util.clearArray(keyBytes);
+        }
+    }
+
+    /**
+     * Encrypt or decrypt a stretched key
+     */
+    @NonNull
+    private static byte[] crypt(@NonNull byte[] iv, @NonNull byte[] bytes)
+    {
+        byte[] keyBytes = getKeyBytes();
+        try {
+            Cipher cipher = Cipher.getInstance(CIPHER_SPEC);
+            cipher.init(Cipher.ENCRYPT_MODE,
+                        new SecretKeySpec(keyBytes, 0, CIPHER_KEY_LEN,
+                                          CIPHER_KEY_SPEC),
+                        new IvParameterSpec(iv));
+            return cipher.doFinal(bytes);
+        } catch (GeneralSecurityException e) {
+            throw new MemoryKeyException(e);
+        } finally {
+            Util.clearArray(keyBytes);
+        }
+    }
+
+    /**
+     * Get the bytes of the ephemeral key, creating it if needed
+     */
+    @NonNull
+    private static byte[] getKeyBytes()
+    {
+        if (itsKey == null) {
+            itsKey = new InMemoryKey(CIPHER_KEY_LEN + MAC_KEY_LEN);
+            itsKey.init();
+        }
+        return itsKey.getKey(CIPHER_KEY_LEN + MAC_KEY_LEN);
+    }
+}
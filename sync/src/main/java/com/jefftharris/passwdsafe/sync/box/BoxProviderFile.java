@@ -60,6 +60,12 @@ class BoxProviderFile implements ProviderRemoteFile
         return itsFile.getSha1();
     }
 
+    @Override
+    public String getContentHash()
+    {
+        return itsFile.getSha1();
+    }
+
     /**
      * Is the file a folder
      */
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2017-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2017-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -32,14 +32,17 @@ import com.jefftharris.passwdsafe.lib.PasswdSafeUtil;
 import com.jefftharris.passwdsafe.sync.lib.AbstractLocalToRemoteSyncOper;
 import com.jefftharris.passwdsafe.sync.lib.AbstractRemoteToLocalSyncOper;
 import com.jefftharris.passwdsafe.sync.lib.AbstractRmSyncOper;
+import com.jefftharris.passwdsafe.sync.lib.ContentHasher;
 import com.jefftharris.passwdsafe.sync.lib.DbFile;
 import com.jefftharris.passwdsafe.sync.lib.DbProvider;
+import com.jefftharris.passwdsafe.sync.lib.DigestContentHasher;
 import com.jefftharris.passwdsafe.sync.lib.ProviderRemoteFile;
 import com.jefftharris.passwdsafe.sync.lib.ProviderSyncer;
 import com.jefftharris.passwdsafe.sync.lib.SyncConnectivityResult;
 import com.jefftharris.passwdsafe.sync.lib.SyncLogRecord;
 import com.jefftharris.passwdsafe.sync.lib.SyncRemoteFiles;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -55,6 +58,10 @@ public class BoxSyncer extends ProviderSyncer<BoxSession>
 
     private static final String TAG = "BoxSyncer";
 
+    /** Hasher of the file SHA-1 */
+    private static final ContentHasher CONTENT_HASHER =
+            new DigestContentHasher("SHA-1");
+
     /** Constructor */
     public BoxSyncer(BoxSession client, DbProvider provider,
                      SyncConnectivityResult connResult,
@@ -94,7 +101,7 @@ public class BoxSyncer extends ProviderSyncer<BoxSession>
 
     @Override
     protected SyncRemoteFiles getSyncRemoteFiles(@NonNull List<DbFile> dbfiles)
-            throws BoxException
+            throws Exception
     {
         BoxApiFolder folderApi = new BoxApiFolder(itsProviderClient);
         SyncRemoteFiles boxfiles = new SyncRemoteFiles();
@@ -121,6 +128,7 @@ public class BoxSyncer extends ProviderSyncer<BoxSession>
         BoxRequestsSearch.Search searchReq =
                 searchApi.getSearchRequest("passwdsafe");
 
+        List<RemoteLookup<SyncRemoteFiles>> lookups = new ArrayList<>();
         long offset = 0L;
         boolean hasMoreFiles = true;
         while (hasMoreFiles) {
@@ -130,8 +138,15 @@ public class BoxSyncer extends ProviderSyncer<BoxSession>
                 PasswdSafeUtil.dbginfo(TAG, "search item %s",
                                        boxToString(item));
                 if (item instanceof BoxFolder) {
-                    retrieveBoxFolderFiles(item.getId(), FILE_FIELDS, folderApi,
-                                           boxfiles);
+                    String folderId = item.getId();
+                    lookups.add(() -> {
+                        SyncRemoteFiles folderFiles = new SyncRemoteFiles();
+                        retrieveBoxFolderFiles(
+                                folderId, FILE_FIELDS,
+                                new BoxApiFolder(itsProviderClient),
+                                folderFiles);
+                        return folderFiles;
+                    });
                 }
             }
             offset += items.limit();
@@ -139,9 +154,23 @@ public class BoxSyncer extends ProviderSyncer<BoxSession>
                            (offset < (long)Integer.MAX_VALUE);
         }
 
+        // Retrieve the folders' files concurrently and merge them in the
+        // order of the search
+        for (SyncRemoteFiles folderFiles: lookupRemote(lookups)) {
+            for (ProviderRemoteFile remfile: folderFiles.getRemoteFiles()) {
+                boxfiles.addRemoteFile(remfile);
+            }
+        }
+
         return boxfiles;
     }
 
+    @Override
+    protected ContentHasher getContentHasher()
+    {
+        return CONTENT_HASHER;
+    }
+
     @Override
     protected AbstractLocalToRemoteSyncOper<BoxSession>
     createLocalToRemoteOper(DbFile dbfile)
@@ -164,6 +193,17 @@ public class BoxSyncer extends ProviderSyncer<BoxSession>
     }
 
 
+    @Override
+    protected long getRateLimitBackoff(Exception e, int retry)
+    {
+        if ((e instanceof BoxException boxExcept) &&
+            (boxExcept.getResponseCode() == 429)) {
+            return getExponentialBackoff(retry);
+        }
+        return -1;
+    }
+
+
     /** Update an exception thrown during syncing */
     @Override
     protected Exception updateSyncException(Exception e)
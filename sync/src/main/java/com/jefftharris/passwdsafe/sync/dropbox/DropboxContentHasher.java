@@ -0,0 +1,61 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.dropbox;
+
+import androidx.annotation.NonNull;
+
+import com.jefftharris.commons.codec.binary.Hex;
+import com.jefftharris.passwdsafe.sync.lib.ContentHasher;
+import com.jefftharris.passwdsafe.sync.lib.DigestContentHasher;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+
+/**
+ * Content hasher for the Dropbox content_hash.  The file is split into
+ * 4 MiB blocks, and the hash is the SHA-256 of the concatenated SHA-256
+ * hashes of the blocks in lower-case hex.
+ */
+public final class DropboxContentHasher implements ContentHasher
+{
+    private static final int BLOCK_SIZE = 4 * 1024 * 1024;
+    private static final String DIGEST = "SHA-256";
+
+    @NonNull
+    @Override
+    public String hash(@NonNull File file) throws IOException
+    {
+        MessageDigest overall = DigestContentHasher.getDigest(DIGEST);
+        MessageDigest block = DigestContentHasher.getDigest(DIGEST);
+        int blockLen = 0;
+        try (InputStream is = new FileInputStream(file)) {
+            byte[] buf = new byte[READ_BUFFER_SIZE];
+            int len;
+            while ((len = is.read(buf)) > 0) {
+                int pos = 0;
+                while (pos < len) {
+                    int blockBytes = Math.min(len - pos, BLOCK_SIZE - blockLen);
+                    block.update(buf, pos, blockBytes);
+                    blockLen += blockBytes;
+                    pos += blockBytes;
+                    if (blockLen == BLOCK_SIZE) {
+                        overall.update(block.digest());
+                        blockLen = 0;
+                    }
+                }
+            }
+        }
+        if (blockLen > 0) {
+            overall.update(block.digest());
+        }
+        return Hex.encodeHexString(overall.digest());
+    }
+}
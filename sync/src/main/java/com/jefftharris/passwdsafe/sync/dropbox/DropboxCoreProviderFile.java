@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2016-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2016-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -86,6 +86,15 @@ public class DropboxCoreProviderFile implements ProviderRemoteFile
         return isFolder() ? "0" : ((FileMetadata)itsFile).getRev();
     }
 
+    /**
+     * Get the file's content hash
+     */
+    @Override
+    public String getContentHash()
+    {
+        return isFolder() ? null : ((FileMetadata)itsFile).getContentHash();
+    }
+
     /**
      * Is the file a folder
      */
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2017-2024 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2017-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -13,24 +13,31 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.dropbox.core.DbxException;
+import com.dropbox.core.RateLimitException;
 import com.dropbox.core.v2.DbxClientV2;
+import com.dropbox.core.v2.files.DeletedMetadata;
 import com.dropbox.core.v2.files.FileMetadata;
 import com.dropbox.core.v2.files.GetMetadataError;
 import com.dropbox.core.v2.files.GetMetadataErrorException;
+import com.dropbox.core.v2.files.ListFolderContinueErrorException;
+import com.dropbox.core.v2.files.ListFolderResult;
 import com.dropbox.core.v2.files.Metadata;
 import com.dropbox.core.v2.users.FullAccount;
 import com.jefftharris.passwdsafe.lib.PasswdSafeUtil;
 import com.jefftharris.passwdsafe.sync.lib.AbstractLocalToRemoteSyncOper;
 import com.jefftharris.passwdsafe.sync.lib.AbstractRemoteToLocalSyncOper;
 import com.jefftharris.passwdsafe.sync.lib.AbstractRmSyncOper;
+import com.jefftharris.passwdsafe.sync.lib.ContentHasher;
 import com.jefftharris.passwdsafe.sync.lib.DbFile;
 import com.jefftharris.passwdsafe.sync.lib.DbProvider;
 import com.jefftharris.passwdsafe.sync.lib.ProviderRemoteFile;
 import com.jefftharris.passwdsafe.sync.lib.ProviderSyncer;
 import com.jefftharris.passwdsafe.sync.lib.SyncConnectivityResult;
 import com.jefftharris.passwdsafe.sync.lib.SyncLogRecord;
+import com.jefftharris.passwdsafe.sync.lib.SyncRemoteChanges;
 import com.jefftharris.passwdsafe.sync.lib.SyncRemoteFiles;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -40,6 +47,12 @@ public class DropboxCoreSyncer extends ProviderSyncer<DbxClientV2>
 {
     private static final String TAG = "DropboxCoreSyncer";
 
+    /** Path of the root folder for listing changes */
+    private static final String ROOT_PATH = "";
+
+    private static final ContentHasher CONTENT_HASHER =
+            new DropboxContentHasher();
+
     /** Constructor */
     public DropboxCoreSyncer(DbxClientV2 client,
                              DbProvider provider,
@@ -71,31 +84,22 @@ public class DropboxCoreSyncer extends ProviderSyncer<DbxClientV2>
 
     @Override
     protected SyncRemoteFiles getSyncRemoteFiles(@NonNull List<DbFile> dbfiles)
-            throws DbxException
+            throws Exception
     {
-        SyncRemoteFiles files = new SyncRemoteFiles();
+        List<DbFile> lookupFiles = new ArrayList<>();
+        List<RemoteLookup<Metadata>> lookups = new ArrayList<>();
         for (DbFile dbfile: dbfiles) {
             if (dbfile.itsRemoteId == null) {
-                Metadata entry = getRemoteFile(createRemoteIdFromLocal(dbfile));
-                if (entry instanceof FileMetadata) {
-                    PasswdSafeUtil.dbginfo(
-                            TAG, "dbx file for local: %s",
-                            DropboxCoreProviderFile.entryToString(entry));
-                    files.addRemoteFileForNew(
-                            dbfile.itsId, new DropboxCoreProviderFile(entry));
-                }
+                String remoteId = createRemoteIdFromLocal(dbfile);
+                lookupFiles.add(dbfile);
+                lookups.add(() -> getRemoteFile(remoteId));
             } else {
                 switch (dbfile.itsRemoteChange) {
                 case NO_CHANGE:
                 case ADDED:
                 case MODIFIED: {
-                    Metadata entry = getRemoteFile(dbfile.itsRemoteId);
-                    if (entry instanceof FileMetadata) {
-                        PasswdSafeUtil.dbginfo(
-                                TAG, "dbx file: %s",
-                                DropboxCoreProviderFile.entryToString(entry));
-                        files.addRemoteFile(new DropboxCoreProviderFile(entry));
-                    }
+                    lookupFiles.add(dbfile);
+                    lookups.add(() -> getRemoteFile(dbfile.itsRemoteId));
                     break;
                 }
                 case REMOVED: {
@@ -104,10 +108,99 @@ public class DropboxCoreSyncer extends ProviderSyncer<DbxClientV2>
                 }
             }
         }
+
+        List<Metadata> entries = lookupRemote(lookups);
+        SyncRemoteFiles files = new SyncRemoteFiles();
+        for (int i = 0; i < entries.size(); ++i) {
+            DbFile dbfile = lookupFiles.get(i);
+            Metadata entry = entries.get(i);
+            if (!(entry instanceof FileMetadata)) {
+                continue;
+            }
+            if (dbfile.itsRemoteId == null) {
+                PasswdSafeUtil.dbginfo(
+                        TAG, "dbx file for local: %s",
+                        DropboxCoreProviderFile.entryToString(entry));
+                files.addRemoteFileForNew(
+                        dbfile.itsId, new DropboxCoreProviderFile(entry));
+            } else {
+                PasswdSafeUtil.dbginfo(
+                        TAG, "dbx file: %s",
+                        DropboxCoreProviderFile.entryToString(entry));
+                files.addRemoteFile(new DropboxCoreProviderFile(entry));
+            }
+        }
         return files;
     }
 
 
+    @Override
+    protected long getRateLimitBackoff(Exception e, int retry)
+    {
+        if (e instanceof RateLimitException rateEx) {
+            return Math.max(rateEx.getBackoffMillis(),
+                            getExponentialBackoff(retry));
+        }
+        return -1;
+    }
+
+
+    @Override
+    protected String getSyncCursor() throws DbxException
+    {
+        return itsProviderClient.files()
+                                .listFolderGetLatestCursorBuilder(ROOT_PATH)
+                                .withRecursive(true)
+                                .withIncludeDeleted(true)
+                                .start()
+                                .getCursor();
+    }
+
+
+    @Override
+    protected SyncRemoteChanges getSyncRemoteChanges(
+            @NonNull List<DbFile> dbfiles,
+            @NonNull String cursor)
+            throws DbxException
+    {
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        ListFolderResult result;
+        try {
+            result = itsProviderClient.files().listFolderContinue(cursor);
+        } catch (ListFolderContinueErrorException e) {
+            if (e.errorValue.isReset()) {
+                return null;
+            }
+            throw e;
+        }
+
+        while (true) {
+            for (Metadata entry: result.getEntries()) {
+                if (addChange(entry, dbfiles, changes)) {
+                    PasswdSafeUtil.dbginfo(
+                            TAG, "dbx change: %s",
+                            DropboxCoreProviderFile.entryToString(entry));
+                }
+            }
+            if (!result.getHasMore()) {
+                break;
+            }
+            result = itsProviderClient.files()
+                                      .listFolderContinue(result.getCursor());
+        }
+        changes.setCursor(result.getCursor());
+        return changes;
+    }
+
+
+    /** Get the hasher of the Dropbox content hash */
+    @Override
+    protected ContentHasher getContentHasher()
+    {
+        return CONTENT_HASHER;
+    }
+
+
     /** Create an operation to sync local to remote */
     @Override
     protected AbstractLocalToRemoteSyncOper<DbxClientV2>
@@ -135,6 +228,44 @@ public class DropboxCoreSyncer extends ProviderSyncer<DbxClientV2>
     }
 
 
+    /**
+     * Add a changed entry to the remote changes if it changes a synced file.
+     * A removed folder removes the files within it.  Package-private for
+     * testing, so it doesn't use the Android logging.
+     * @return Whether the entry changed a synced file
+     */
+    static boolean addChange(Metadata entry,
+                             @NonNull List<DbFile> dbfiles,
+                             SyncRemoteChanges changes)
+    {
+        String path = entry.getPathLower();
+        if (path == null) {
+            return false;
+        }
+        boolean changed = false;
+        for (DbFile dbfile: dbfiles) {
+            String remoteId = dbfile.itsRemoteId;
+            if (remoteId == null) {
+                continue;
+            }
+            if (entry instanceof FileMetadata) {
+                if (remoteId.equals(path)) {
+                    changes.addChangedFile(new DropboxCoreProviderFile(entry));
+                    changed = true;
+                }
+            } else if (entry instanceof DeletedMetadata) {
+                if (remoteId.equals(path) ||
+                    remoteId.startsWith(path +
+                                        ProviderRemoteFile.PATH_SEPARATOR)) {
+                    changes.addRemovedFile(remoteId);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+
     /**
      * Get a remote file's metadata from Dropbox
      * @return The file's FileMetadata if found; null or DeletedMetadata if
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2016 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2016-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -37,7 +37,7 @@ public class FileFolders
 
 
     /** Compute the folders for the given file */
-    public String computeFileFolders(File file)
+    public synchronized String computeFileFolders(File file)
             throws IOException
     {
         String fileId = file.getId();
@@ -55,7 +55,7 @@ public class FileFolders
 
 
     /** Get a cached file */
-    public @Nullable File getCachedFile(String id)
+    public synchronized @Nullable File getCachedFile(String id)
             throws IOException
     {
         File file = itsFileCache.get(id);
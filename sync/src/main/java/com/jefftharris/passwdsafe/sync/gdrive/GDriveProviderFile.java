@@ -63,6 +63,12 @@ public class GDriveProviderFile implements ProviderRemoteFile
         return itsFile.getMd5Checksum();
     }
 
+    @Override
+    public String getContentHash()
+    {
+        return itsFile.getMd5Checksum();
+    }
+
     @Override
     public boolean isFolder()
     {
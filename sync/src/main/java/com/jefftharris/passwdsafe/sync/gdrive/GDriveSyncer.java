@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2017-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2017-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -12,8 +12,11 @@ import android.text.TextUtils;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.model.About;
+import com.google.api.services.drive.model.Change;
+import com.google.api.services.drive.model.ChangeList;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
 import com.jefftharris.passwdsafe.lib.PasswdSafeUtil;
@@ -21,18 +24,23 @@ import com.jefftharris.passwdsafe.sync.SyncUpdateHandler;
 import com.jefftharris.passwdsafe.sync.lib.AbstractLocalToRemoteSyncOper;
 import com.jefftharris.passwdsafe.sync.lib.AbstractRemoteToLocalSyncOper;
 import com.jefftharris.passwdsafe.sync.lib.AbstractRmSyncOper;
+import com.jefftharris.passwdsafe.sync.lib.ContentHasher;
 import com.jefftharris.passwdsafe.sync.lib.DbFile;
 import com.jefftharris.passwdsafe.sync.lib.DbProvider;
+import com.jefftharris.passwdsafe.sync.lib.DigestContentHasher;
 import com.jefftharris.passwdsafe.sync.lib.ProviderRemoteFile;
 import com.jefftharris.passwdsafe.sync.lib.ProviderSyncer;
 import com.jefftharris.passwdsafe.sync.lib.SyncConnectivityResult;
 import com.jefftharris.passwdsafe.sync.lib.SyncLogRecord;
+import com.jefftharris.passwdsafe.sync.lib.SyncRemoteChanges;
 import com.jefftharris.passwdsafe.sync.lib.SyncRemoteFiles;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * The Syncer class encapsulates a sync operation
@@ -45,6 +53,15 @@ public class GDriveSyncer extends ProviderSyncer<Drive>
 
     private static final String TAG = "GDriveSyncer";
 
+    private static final String CHANGES_FIELDS =
+            "nextPageToken,newStartPageToken," +
+            "changes(fileId,removed,file(" +
+            GDriveProvider.FILE_FIELDS + "))";
+
+    /** Hasher of the file md5Checksum */
+    private static final ContentHasher CONTENT_HASHER =
+            new DigestContentHasher("MD5");
+
     /** Constructor */
     public GDriveSyncer(Drive drive,
                         DbProvider provider,
@@ -115,6 +132,78 @@ public class GDriveSyncer extends ProviderSyncer<Drive>
         return driveFiles;
     }
 
+    @Override
+    protected String getSyncCursor() throws IOException
+    {
+        if (itsProviderClient == null) {
+            return null;
+        }
+        return itsProviderClient.changes().getStartPageToken().execute()
+                                .getStartPageToken();
+    }
+
+    /**
+     * Get the remote changes since a page token.  The folders of changed
+     * files are computed from a full listing, so any change which may
+     * affect a synced file needs the files to be fully listed.
+     */
+    @Override
+    protected SyncRemoteChanges getSyncRemoteChanges(
+            @NonNull List<DbFile> dbfiles,
+            @NonNull String cursor)
+            throws IOException
+    {
+        if (itsProviderClient == null) {
+            return null;
+        }
+
+        Set<String> remoteIds = new HashSet<>();
+        for (DbFile dbfile: dbfiles) {
+            remoteIds.add(dbfile.itsRemoteId);
+        }
+
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        String pageToken = cursor;
+        while (true) {
+            ChangeList changeList;
+            try {
+                changeList = itsProviderClient.changes().list(pageToken)
+                                              .setFields(CHANGES_FIELDS)
+                                              .execute();
+            } catch (GoogleJsonResponseException e) {
+                // An invalid page token
+                if ((e.getStatusCode() == 400) || (e.getStatusCode() == 404)) {
+                    return null;
+                }
+                throw e;
+            }
+
+            for (Change change: changeList.getChanges()) {
+                if (isSyncChange(change, remoteIds)) {
+                    PasswdSafeUtil.dbginfo(TAG, "changed file: %s",
+                                           change.getFileId());
+                    changes.setListingNeeded();
+                }
+            }
+
+            String newStartToken = changeList.getNewStartPageToken();
+            if (newStartToken != null) {
+                changes.setCursor(newStartToken);
+                return changes;
+            }
+            pageToken = changeList.getNextPageToken();
+            if (pageToken == null) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    protected ContentHasher getContentHasher()
+    {
+        return CONTENT_HASHER;
+    }
+
     @Override
     protected AbstractLocalToRemoteSyncOper<Drive> createLocalToRemoteOper(
             DbFile dbfile)
@@ -238,6 +327,25 @@ public class GDriveSyncer extends ProviderSyncer<Drive>
         return retfiles;
     }
 
+    /**
+     * Can a change affect the synced files.  A synced file may have changed,
+     * a new file to sync may have been added, or a folder containing synced
+     * files may have been renamed, moved, or trashed.
+     */
+    private static boolean isSyncChange(@NonNull Change change,
+                                        @NonNull Set<String> remoteIds)
+    {
+        if (remoteIds.contains(change.getFileId())) {
+            return true;
+        }
+        File file = change.getFile();
+        if ((file == null) || Boolean.TRUE.equals(change.getRemoved())) {
+            return false;
+        }
+        return GDriveProvider.FOLDER_MIME.equals(file.getMimeType()) ||
+               isSyncFile(file);
+    }
+
     /** Should the file be synced */
     private static boolean isSyncFile(@NonNull File file)
     {
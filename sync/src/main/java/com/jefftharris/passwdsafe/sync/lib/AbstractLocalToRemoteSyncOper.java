@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2016 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2016-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -58,6 +58,8 @@ public abstract class AbstractLocalToRemoteSyncOper<ProviderClientT>
         SyncDb.updateRemoteFile(itsFile.itsId, itsUpdatedFile.getRemoteId(),
                                 title, folders, modDate,
                                 itsUpdatedFile.getHash(), db);
+        SyncDb.updateLocalFileHash(itsFile.itsId,
+                                   itsUpdatedFile.getContentHash(), db);
         if (updateLocal) {
             SyncDb.updateLocalFile(itsFile.itsId, itsFile.itsLocalFile,
                                    title, folders, modDate, db);
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2016-2024 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2016-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -27,6 +27,7 @@ public abstract class AbstractRemoteToLocalSyncOper<ProviderClientT>
         extends SyncOper<ProviderClientT>
 {
     private File itsDownloadFile;
+    private String itsDownloadHash;
 
     /** Constructor */
     protected AbstractRemoteToLocalSyncOper(DbFile dbfile, String tag)
@@ -43,6 +44,11 @@ public abstract class AbstractRemoteToLocalSyncOper<ProviderClientT>
         itsDownloadFile = File.createTempFile("passwd", ".tmp",
                                               ctx.getFilesDir());
         doDownload(itsDownloadFile, providerClient);
+
+        ContentHasher hasher = getContentHasher();
+        if (hasher != null) {
+            itsDownloadHash = hasher.hash(itsDownloadFile);
+        }
     }
 
     @Override
@@ -69,6 +75,8 @@ public abstract class AbstractRemoteToLocalSyncOper<ProviderClientT>
                                        itsFile.itsRemoteTitle,
                                        itsFile.itsRemoteFolder,
                                        itsFile.itsRemoteModDate, db);
+                SyncDb.updateLocalFileHash(itsFile.itsId, itsDownloadHash,
+                                           db);
             }
             clearFileChanges(updateLocal, db);
         } catch (SQLException e) {
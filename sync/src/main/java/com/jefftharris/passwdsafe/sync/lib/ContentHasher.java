@@ -0,0 +1,28 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.lib;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Computes a provider's native hash of the contents of a local file so it
+ * can be compared with the content hash of a remote file.  A hasher may be
+ * used from multiple threads.
+ */
+public interface ContentHasher
+{
+    /** Size of the buffer for reading a file */
+    int READ_BUFFER_SIZE = 64 * 1024;
+
+    /** Compute the hash of a local file's contents */
+    @NonNull
+    String hash(@NonNull File file) throws IOException;
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2013-2014 Jeff Harris <jefftharris@gmail.com> All rights reserved.
+ * Copyright (©) 2013-2026 Jeff Harris <jefftharris@gmail.com> All rights reserved.
  * Use of the code is allowed under the Artistic License 2.0 terms, as specified
  * in the LICENSE file distributed with this code, or available from
  * http://www.opensource.org/licenses/artistic-license-2.0.php
@@ -29,7 +29,7 @@ public class DbFile
         /** Get the FileChange from its string stored in the database */
         private static FileChange fromDbStr(String str)
         {
-            if (TextUtils.isEmpty(str)) {
+            if ((str == null) || str.isEmpty()) {
                 return NO_CHANGE;
             }
             return valueOf(str);
@@ -60,6 +60,8 @@ public class DbFile
     public final String itsRemoteFolder;
     public final FileChange itsRemoteChange;
     public final String itsRemoteHash;
+    /// Provider's native hash of the local file's contents as of its last sync
+    public final String itsLocalHash;
 
     public static final String[] QUERY_FIELDS = {
         SyncDb.DB_COL_FILES_ID,
@@ -75,7 +77,8 @@ public class DbFile
         SyncDb.DB_COL_FILES_REMOTE_DELETED,
         SyncDb.DB_COL_FILES_REMOTE_FOLDER,
         SyncDb.DB_COL_FILES_REMOTE_CHANGE,
-        SyncDb.DB_COL_FILES_REMOTE_HASH };
+        SyncDb.DB_COL_FILES_REMOTE_HASH,
+        SyncDb.DB_COL_FILES_LOCAL_HASH };
 
     /** Constructor */
     public DbFile(@NonNull Cursor cursor)
@@ -94,6 +97,7 @@ public class DbFile
         itsRemoteFolder = cursor.getString(11);
         itsRemoteChange = FileChange.fromDbStr(cursor.getString(12));
         itsRemoteHash = cursor.getString(13);
+        itsLocalHash = cursor.getString(14);
     }
 
     /** Get the local title and folder */
@@ -123,11 +127,12 @@ public class DbFile
         return String.format(Locale.US,
                 "{id:%d, " +
                 "local:{title:%s, folder:%s, file:%s, " +
-                    "mod:%d, del:%b, ch:%s}, " +
+                    "mod:%d, hash:%s, del:%b, ch:%s}, " +
                 "remote:{id:%s, title:'%s', folder:%s, " +
                     "mod:%d, hash:%s, del:%b, ch:%s}}",
                 itsId, itsLocalTitle, itsLocalFolder, itsLocalFile,
-                itsLocalModDate, itsIsLocalDeleted, itsLocalChange,
+                itsLocalModDate, itsLocalHash, itsIsLocalDeleted,
+                itsLocalChange,
                 itsRemoteId, itsRemoteTitle, itsRemoteFolder,
                 itsRemoteModDate, itsRemoteHash, itsIsRemoteDeleted,
                 itsRemoteChange);
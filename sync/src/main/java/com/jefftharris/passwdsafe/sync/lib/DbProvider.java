@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2013 Jeff Harris <jefftharris@gmail.com> All rights reserved.
+ * Copyright (©) 2013-2026 Jeff Harris <jefftharris@gmail.com> All rights reserved.
  * Use of the code is allowed under the Artistic License 2.0 terms, as specified
  * in the LICENSE file distributed with this code, or available from
  * http://www.opensource.org/licenses/artistic-license-2.0.php
@@ -30,6 +30,8 @@ public class DbProvider
     public final String itsDisplayName;
     public final long itsSyncLastSuccess;
     public final long itsSyncLastFailure;
+    /** Cursor of the remote changes since the last sync; null if none */
+    public final String itsSyncCursor;
 
     public static final String[] QUERY_FIELDS = {
         SyncDb.DB_COL_PROVIDERS_ID,
@@ -38,7 +40,8 @@ public class DbProvider
         SyncDb.DB_COL_PROVIDERS_SYNC_FREQ,
         SyncDb.DB_COL_PROVIDERS_DISPLAY_NAME,
         SyncDb.DB_COL_PROVIDERS_SYNC_LAST_SUCCESS,
-        SyncDb.DB_COL_PROVIDERS_SYNC_LAST_FAILURE };
+        SyncDb.DB_COL_PROVIDERS_SYNC_LAST_FAILURE,
+        SyncDb.DB_COL_PROVIDERS_SYNC_CURSOR };
 
     /** Constructor */
     public DbProvider(Cursor cursor)
@@ -52,6 +55,7 @@ public class DbProvider
                 cursor.isNull(5) ? UNKNOWN_SYNC_TIME : cursor.getLong(5);
         itsSyncLastFailure =
                 cursor.isNull(6) ? UNKNOWN_SYNC_TIME : cursor.getLong(6);
+        itsSyncCursor = cursor.getString(7);
     }
 
     /** Get the type and display name */
@@ -0,0 +1,66 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.lib;
+
+import androidx.annotation.NonNull;
+
+import com.jefftharris.commons.codec.binary.Hex;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A content hasher for providers whose content hash is a plain message
+ * digest of the file in lower-case hex
+ */
+public final class DigestContentHasher implements ContentHasher
+{
+    private final String itsAlgorithm;
+
+    /**
+     * Constructor
+     * @param algorithm The message digest algorithm
+     */
+    public DigestContentHasher(@NonNull String algorithm)
+    {
+        itsAlgorithm = algorithm;
+    }
+
+    @NonNull
+    @Override
+    public String hash(@NonNull File file) throws IOException
+    {
+        MessageDigest digest = getDigest(itsAlgorithm);
+        try (InputStream is = new FileInputStream(file)) {
+            byte[] buf = new byte[READ_BUFFER_SIZE];
+            int len;
+            while ((len = is.read(buf)) > 0) {
+                digest.update(buf, 0, len);
+            }
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Get a message digest
+     */
+    @NonNull
+    public static MessageDigest getDigest(@NonNull String algorithm)
+            throws IOException
+    {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("No digest " + algorithm, e);
+        }
+    }
+}
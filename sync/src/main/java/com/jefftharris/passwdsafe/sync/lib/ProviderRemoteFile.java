@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2015 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2015-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -32,6 +32,13 @@ public interface ProviderRemoteFile
     /** Get the file's hash code */
     String getHash();
 
+    /**
+     * Get the provider's native hash of the file's contents, or null if not
+     * available.  The hash is in the form computed by the provider's
+     * ContentHasher.
+     */
+    String getContentHash();
+
     /** Is the file a folder */
     boolean isFolder();
 
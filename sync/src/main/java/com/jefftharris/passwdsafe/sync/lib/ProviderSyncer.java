@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2017-2025 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2017-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -10,6 +10,7 @@ package com.jefftharris.passwdsafe.sync.lib;
 import android.content.Context;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.util.Log;
 import androidx.annotation.NonNull;
@@ -20,18 +21,38 @@ import com.jefftharris.passwdsafe.lib.PasswdSafeUtil;
 import com.jefftharris.passwdsafe.sync.R;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  *  Base attributes and methods for the sync operation for a provider
  */
 public abstract class ProviderSyncer<ProviderClientT>
 {
+    /** Default maximum number of sync operation transfers in flight */
+    protected static final int DEFAULT_MAX_SYNC_OPERS = 3;
+
+    /** Default maximum number of remote lookups in flight */
+    protected static final int DEFAULT_MAX_REMOTE_LOOKUPS = 4;
+
+    /** Maximum number of retries of a rate limited remote lookup */
+    private static final int MAX_REMOTE_LOOKUP_RETRIES = 5;
+
     protected final ProviderClientT itsProviderClient;
     private final Context itsContext;
     private final DbProvider itsProvider;
@@ -39,6 +60,21 @@ public abstract class ProviderSyncer<ProviderClientT>
     private final SyncLogRecord itsLogrec;
     private final String itsTag;
     private long itsDbUpdateCount = SyncDb.INVALID_UPDATE_COUNT;
+    private String itsSyncCursor = null;
+    private final Object itsLookupLock = new Object();
+    private long itsLookupResumeTime = 0;
+
+    /**
+     * A lookup of remote file metadata which may run concurrently with the
+     * lookups of other files
+     */
+    protected interface RemoteLookup<T>
+    {
+        /**
+         * Look up the metadata
+         */
+        @Nullable T lookup() throws Exception;
+    }
 
     /**
      * Interface for a user of the database
@@ -85,7 +121,10 @@ public abstract class ProviderSyncer<ProviderClientT>
                     }
                 });
 
-                final SyncRemoteFiles remoteFiles = getSyncRemoteFiles(dbfiles);
+                final SyncRemoteFiles remoteFiles = getRemoteFiles(dbfiles);
+                final Map<Long, LocalContentHash> localHashes =
+                        (remoteFiles != null) ?
+                        hashModifiedLocalFiles(dbfiles) : null;
                 opers = useDb(new CheckedDbUser<>()
                 {
                     @Nullable
@@ -96,7 +135,12 @@ public abstract class ProviderSyncer<ProviderClientT>
                     {
                         if (remoteFiles != null) {
                             updateDbFiles(remoteFiles, db);
-                            return resolveSyncOpers(db);
+                            if (!TextUtils.equals(itsSyncCursor,
+                                                  itsProvider.itsSyncCursor)) {
+                                SyncDb.updateProviderSyncCursor(
+                                        itsProvider.itsId, itsSyncCursor, db);
+                            }
+                            return resolveSyncOpers(localHashes, db);
                         }
                         return null;
                     }
@@ -106,27 +150,7 @@ public abstract class ProviderSyncer<ProviderClientT>
             }
 
             if (opers != null) {
-                for (final SyncOper<ProviderClientT> oper: opers) {
-                    if (oper == null) {
-                        continue;
-                    }
-                    try {
-                        itsLogrec.checkSyncInterrupted();
-                        itsLogrec.addEntry(oper.getDescription(itsContext));
-                        oper.doOper(itsProviderClient, itsContext);
-                        useDb((DbUser<Void>)(dbOk, db) -> {
-                            oper.doPostOperUpdate(dbOk, db, itsContext);
-                            return null;
-                        });
-                    } catch (Exception e) {
-                        Exception updatedEx = updateSyncException(e);
-                        Log.e(itsTag, "Sync error for file " + oper.getFile(),
-                              updatedEx);
-                        itsLogrec.addFailure(updatedEx);
-                    } finally {
-                        oper.finish();
-                    }
-                }
+                runSyncOpers(opers);
             }
         } finally {
             itsContext.getContentResolver().notifyChange(
@@ -141,6 +165,32 @@ public abstract class ProviderSyncer<ProviderClientT>
             throws Exception;
 
 
+    /**
+     * Get the cursor for the remote changes after the current state of the
+     * remote files
+     * @return The cursor; null if the provider doesn't support getting the
+     * remote changes
+     */
+    protected @Nullable String getSyncCursor()
+            throws Exception
+    {
+        return null;
+    }
+
+
+    /**
+     * Get the remote changes since the cursor of a previous sync
+     * @return The changes; null if the cursor is no longer valid
+     */
+    protected @Nullable SyncRemoteChanges getSyncRemoteChanges(
+            List<DbFile> dbfiles,
+            @NonNull String cursor)
+            throws Exception
+    {
+        return null;
+    }
+
+
     /** Create an operation to sync local to remote */
     protected abstract AbstractLocalToRemoteSyncOper<ProviderClientT>
     createLocalToRemoteOper(DbFile dbfile);
@@ -163,12 +213,271 @@ public abstract class ProviderSyncer<ProviderClientT>
     }
 
 
+    /**
+     * Get the hasher of the provider's native content hash for local files.
+     * Without one, no operations are skipped for unchanged contents.
+     */
+    @Nullable
+    protected ContentHasher getContentHasher()
+    {
+        return null;
+    }
+
+
+    /** Get the maximum number of sync operation transfers in flight */
+    protected int getMaxSyncOpers()
+    {
+        return DEFAULT_MAX_SYNC_OPERS;
+    }
+
+
+    /** Get the maximum number of remote lookups in flight */
+    protected int getMaxRemoteLookups()
+    {
+        return DEFAULT_MAX_REMOTE_LOOKUPS;
+    }
+
+
+    /**
+     * Get the time to back off before retrying a remote lookup which failed
+     * because the provider's rate limit was exceeded
+     * @param e The exception from the lookup
+     * @param retry The number of retries of the lookup so far
+     * @return The backoff time in milliseconds; negative if the lookup
+     * should not be retried
+     */
+    protected long getRateLimitBackoff(Exception e, int retry)
+    {
+        return -1;
+    }
+
+
+    /**
+     * Get an exponential rate limit backoff time for a retry
+     */
+    protected static long getExponentialBackoff(int retry)
+    {
+        return 1000L << Math.min(retry, 6);
+    }
+
+
+    /**
+     * Run remote lookups concurrently, up to the maximum lookups in flight.
+     * A rate limited lookup is retried after the provider's backoff, and the
+     * other lookups are held until the backoff has passed.
+     * @return The results of the lookups in the same order as the lookups
+     */
+    @NonNull
+    protected final <T> List<T> lookupRemote(
+            @NonNull List<RemoteLookup<T>> lookups)
+            throws Exception
+    {
+        List<T> results = new ArrayList<>(lookups.size());
+        int numThreads = Math.min(getMaxRemoteLookups(), lookups.size());
+        if (numThreads <= 1) {
+            for (RemoteLookup<T> lookup: lookups) {
+                itsLogrec.checkSyncInterrupted();
+                results.add(runLookup(lookup));
+            }
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<T>> futures = new ArrayList<>(lookups.size());
+            for (RemoteLookup<T> lookup: lookups) {
+                futures.add(executor.submit(() -> runLookup(lookup)));
+            }
+            for (Future<T> future: futures) {
+                itsLogrec.checkSyncInterrupted();
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception causeEx) {
+                        throw causeEx;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+
+    /**
+     * Run a remote lookup, retrying it if it is rate limited
+     */
+    private <T> T runLookup(@NonNull RemoteLookup<T> lookup) throws Exception
+    {
+        for (int retry = 0; ; ++retry) {
+            waitForLookupResume();
+            try {
+                return lookup.lookup();
+            } catch (Exception e) {
+                long backoff = (retry < MAX_REMOTE_LOOKUP_RETRIES) ?
+                               getRateLimitBackoff(e, retry) : -1;
+                if (backoff < 0) {
+                    throw e;
+                }
+                PasswdSafeUtil.dbginfo(itsTag, "lookup rate limited, wait %d",
+                                       backoff);
+                synchronized (itsLookupLock) {
+                    itsLookupResumeTime = Math.max(
+                            itsLookupResumeTime,
+                            SystemClock.elapsedRealtime() + backoff);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Wait until remote lookups can resume after a rate limit backoff
+     */
+    private void waitForLookupResume() throws InterruptedException
+    {
+        while (true) {
+            long delay;
+            synchronized (itsLookupLock) {
+                delay = itsLookupResumeTime - SystemClock.elapsedRealtime();
+            }
+            if (delay <= 0) {
+                return;
+            }
+            Thread.sleep(delay);
+        }
+    }
+
+
+    /**
+     * Run the sync operations.  The transfers of different files run
+     * concurrently, up to the maximum transfers in flight, while the
+     * operations of a file run in order.  The database updates after the
+     * transfers are made together in one transaction, with a savepoint for
+     * each operation so a failed operation's updates are rolled back.  If
+     * the sync is interrupted, the transfers not yet done are canceled, and
+     * the updates for the finished transfers are still made.
+     */
+    private void runSyncOpers(@NonNull List<SyncOper<ProviderClientT>> opers)
+    {
+        ContentHasher hasher = getContentHasher();
+        List<OperTask> tasks = new ArrayList<>(opers.size());
+        Map<Long, List<OperTask>> fileTasks = new LinkedHashMap<>();
+        for (SyncOper<ProviderClientT> oper: opers) {
+            if (oper == null) {
+                continue;
+            }
+            oper.setContentHasher(hasher);
+            OperTask task = new OperTask(oper, () -> {
+                oper.doOper(itsProviderClient, itsContext);
+                return null;
+            });
+            tasks.add(task);
+            List<OperTask> chain = fileTasks.get(oper.getFile().itsId);
+            if (chain == null) {
+                chain = new ArrayList<>();
+                fileTasks.put(oper.getFile().itsId, chain);
+            }
+            chain.add(task);
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        List<SyncOper<ProviderClientT>> doneOpers = new ArrayList<>();
+        boolean interrupted = false;
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(Math.min(getMaxSyncOpers(), fileTasks.size()), 1));
+        try {
+            for (List<OperTask> chain: fileTasks.values()) {
+                executor.execute(() -> {
+                    for (OperTask task: chain) {
+                        task.runTransfer();
+                    }
+                });
+            }
+
+            for (OperTask task: tasks) {
+                try {
+                    itsLogrec.addEntry(task.itsOper.getDescription(itsContext));
+                    try {
+                        task.waitForTransfer();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        for (OperTask cancelTask: tasks) {
+                            cancelTask.cancel(true);
+                        }
+                        // Keep the transfer if it finished before canceling
+                        task.waitForTransfer();
+                    }
+                    doneOpers.add(task.itsOper);
+                } catch (Exception e) {
+                    logOperFailure(task.itsOper, e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try {
+            useDbUninterrupted((DbUser<Void>)(dbOk, db) -> {
+                for (SyncOper<ProviderClientT> oper: doneOpers) {
+                    try {
+                        SyncDb.useSavepoint(spDb -> {
+                            oper.doPostOperUpdate(dbOk, spDb, itsContext);
+                            return null;
+                        }, db);
+                    } catch (Exception e) {
+                        logOperFailure(oper, e);
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            Exception updatedEx = updateSyncException(e);
+            Log.e(itsTag, "Sync error updating files", updatedEx);
+            itsLogrec.addFailure(updatedEx);
+        } finally {
+            for (SyncOper<ProviderClientT> oper: doneOpers) {
+                oper.finish();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * Log the failure of a sync operation
+     */
+    private void logOperFailure(@NonNull SyncOper<ProviderClientT> oper,
+                                Exception e)
+    {
+        Exception updatedEx = updateSyncException(e);
+        Log.e(itsTag, "Sync error for file " + oper.getFile(), updatedEx);
+        itsLogrec.addFailure(updatedEx);
+    }
+
+
     /**
      * Use the database
      */
     private <T> T useDb(final DbUser<T> user) throws Exception
     {
         itsLogrec.checkSyncInterrupted();
+        return useDbUninterrupted(user);
+    }
+
+
+    /**
+     * Use the database even if the sync was interrupted
+     */
+    private <T> T useDbUninterrupted(final DbUser<T> user) throws Exception
+    {
         return SyncDb.useDb(db -> {
             try {
                 boolean dbOk = SyncDb.checkUpdateCount(itsDbUpdateCount);
@@ -179,6 +488,52 @@ public abstract class ProviderSyncer<ProviderClientT>
         });
     }
 
+    /**
+     * Get the remote files to sync.  A periodic sync applies the remote
+     * changes since the previous sync's cursor when all of the files are
+     * already synced.  Otherwise, or if the cursor has expired, the files are
+     * fully listed.  Package-private for testing, so it doesn't use the
+     * Android logging.
+     */
+    @Nullable
+    SyncRemoteFiles getRemoteFiles(@NonNull List<DbFile> dbfiles)
+            throws Exception
+    {
+        String cursor = itsProvider.itsSyncCursor;
+        if ((cursor != null) && !itsLogrec.isManualSync() &&
+            isChangesSyncable(dbfiles)) {
+            SyncRemoteChanges changes = getSyncRemoteChanges(dbfiles, cursor);
+            if (changes != null) {
+                itsSyncCursor = changes.getCursor();
+                if (!changes.isListingNeeded()) {
+                    return changes.getRemoteFiles(dbfiles);
+                }
+                return getSyncRemoteFiles(dbfiles);
+            }
+        }
+
+        // Get the cursor first so changes made during the listing are found
+        // in the next sync
+        itsSyncCursor = getSyncCursor();
+        return getSyncRemoteFiles(dbfiles);
+    }
+
+
+    /**
+     * Can the remote files be synced from their changes.  New local files
+     * must be looked up by their names.
+     */
+    private static boolean isChangesSyncable(@NonNull List<DbFile> dbfiles)
+    {
+        for (DbFile dbfile: dbfiles) {
+            if (dbfile.itsRemoteId == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
     /** Update database files from the remote files */
     private void updateDbFiles(@NonNull SyncRemoteFiles remoteFiles,
                                @NonNull SQLiteDatabase db)
@@ -250,12 +605,13 @@ public abstract class ProviderSyncer<ProviderClientT>
 
     /** Resolve the sync operations after the database files are updated */
     private List<SyncOper<ProviderClientT>> resolveSyncOpers(
+            Map<Long, LocalContentHash> localHashes,
             @NonNull SQLiteDatabase db)
     {
         List<SyncOper<ProviderClientT>> opers = new ArrayList<>();
         List<DbFile> dbfiles = SyncDb.getFiles(itsProvider.itsId, db);
         for (DbFile dbfile: dbfiles) {
-            resolveSyncOper(dbfile, opers, db);
+            resolveSyncOper(dbfile, opers, localHashes, db);
         }
         return opers;
     }
@@ -290,6 +646,17 @@ public abstract class ProviderSyncer<ProviderClientT>
             return;
         }
 
+        if (isRemoteContentSynced(dbfile, remTitle, remFolder,
+                                  remfile.getContentHash())) {
+            PasswdSafeUtil.dbginfo(itsTag,
+                                   "checkRemoteFileChange same contents %s",
+                                   dbfile);
+            SyncDb.updateRemoteFile(dbfile.itsId, dbfile.itsRemoteId,
+                                    remTitle, remFolder, remModDate, remHash,
+                                    db);
+            return;
+        }
+
         PasswdSafeUtil.dbginfo(itsTag, "checkRemoteFileChange update remote %s",
                                dbfile);
         SyncDb.updateRemoteFile(dbfile.itsId, dbfile.itsRemoteId,
@@ -331,9 +698,105 @@ public abstract class ProviderSyncer<ProviderClientT>
     }
 
 
+    /**
+     * Check whether a changed remote file has the same contents as the
+     * unchanged local file when it was last synced so that the download can
+     * be skipped
+     */
+    private boolean isRemoteContentSynced(DbFile dbfile,
+                                          String remTitle,
+                                          String remFolder,
+                                          String remContentHash)
+    {
+        if ((dbfile.itsLocalChange != DbFile.FileChange.NO_CHANGE) ||
+            (dbfile.itsRemoteChange != DbFile.FileChange.NO_CHANGE) ||
+            !TextUtils.equals(dbfile.itsRemoteTitle, remTitle) ||
+            !TextUtils.equals(dbfile.itsRemoteFolder, remFolder) ||
+            TextUtils.isEmpty(dbfile.itsLocalHash) ||
+            !TextUtils.equals(dbfile.itsLocalHash, remContentHash) ||
+            TextUtils.isEmpty(dbfile.itsLocalFile)) {
+            return false;
+        }
+
+        File localFile = itsContext.getFileStreamPath(dbfile.itsLocalFile);
+        return localFile.exists();
+    }
+
+
+    /**
+     * Hash the contents of the modified local files which may be unchanged
+     * since they were last synced.  The files are hashed before the database
+     * transaction which resolves the sync operations.
+     *
+     * @return The hashes by file id
+     */
+    @NonNull
+    private Map<Long, LocalContentHash> hashModifiedLocalFiles(
+            @NonNull List<DbFile> dbfiles)
+    {
+        Map<Long, LocalContentHash> hashes = new HashMap<>();
+        ContentHasher hasher = getContentHasher();
+        if (hasher == null) {
+            return hashes;
+        }
+        for (DbFile dbfile: dbfiles) {
+            if ((dbfile.itsLocalChange != DbFile.FileChange.MODIFIED) ||
+                TextUtils.isEmpty(dbfile.itsRemoteId) ||
+                TextUtils.isEmpty(dbfile.itsLocalHash) ||
+                TextUtils.isEmpty(dbfile.itsLocalFile)) {
+                continue;
+            }
+
+            File localFile = itsContext.getFileStreamPath(dbfile.itsLocalFile);
+            if (!localFile.exists()) {
+                continue;
+            }
+            long modTime = localFile.lastModified();
+            long length = localFile.length();
+            try {
+                hashes.put(dbfile.itsId,
+                           new LocalContentHash(dbfile.itsLocalFile,
+                                                hasher.hash(localFile),
+                                                modTime, length));
+            } catch (IOException e) {
+                Log.e(itsTag, "Error hashing local file " + dbfile, e);
+            }
+        }
+        return hashes;
+    }
+
+
+    /**
+     * Check whether a modified local file has the same contents as when it
+     * was last synced so that the upload can be skipped.  The file must not
+     * have changed since it was hashed.
+     */
+    private boolean isLocalContentSynced(
+            DbFile dbfile,
+            @Nullable Map<Long, LocalContentHash> localHashes)
+    {
+        LocalContentHash localHash =
+                (localHashes != null) ? localHashes.get(dbfile.itsId) : null;
+        if ((localHash == null) ||
+            (dbfile.itsLocalChange != DbFile.FileChange.MODIFIED) ||
+            TextUtils.isEmpty(dbfile.itsRemoteId) ||
+            TextUtils.isEmpty(dbfile.itsLocalHash) ||
+            !TextUtils.equals(dbfile.itsLocalFile, localHash.itsLocalFile) ||
+            !TextUtils.equals(dbfile.itsLocalHash, localHash.itsHash)) {
+            return false;
+        }
+
+        File localFile = itsContext.getFileStreamPath(dbfile.itsLocalFile);
+        return localFile.exists() &&
+               (localFile.lastModified() == localHash.itsModTime) &&
+               (localFile.length() == localHash.itsLength);
+    }
+
+
     /** Resolve the sync operations for a file */
     private void resolveSyncOper(DbFile dbfile,
                                  List<SyncOper<ProviderClientT>> opers,
+                                 Map<Long, LocalContentHash> localHashes,
                                  @NonNull SQLiteDatabase db)
             throws SQLException
     {
@@ -353,7 +816,15 @@ public abstract class ProviderSyncer<ProviderClientT>
                 break;
             }
             case NO_CHANGE: {
-                opers.add(createLocalToRemoteOper(dbfile));
+                if (isLocalContentSynced(dbfile, localHashes)) {
+                    PasswdSafeUtil.dbginfo(itsTag,
+                                           "resolveSyncOper same contents %s",
+                                           dbfile);
+                    SyncDb.updateLocalFileChange(
+                            dbfile.itsId, DbFile.FileChange.NO_CHANGE, db);
+                } else {
+                    opers.add(createLocalToRemoteOper(dbfile));
+                }
                 break;
             }
             case REMOVED: {
@@ -503,6 +974,82 @@ public abstract class ProviderSyncer<ProviderClientT>
         itsLogrec.addEntry(log);
     }
 
+    /**
+     * The transfer of a sync operation
+     */
+    private final class OperTask extends FutureTask<Void>
+    {
+        private final SyncOper<ProviderClientT> itsOper;
+
+        /**
+         * Constructor
+         */
+        private OperTask(SyncOper<ProviderClientT> oper,
+                         Callable<Void> transfer)
+        {
+            super(transfer);
+            itsOper = oper;
+        }
+
+        /**
+         * Run the transfer.  The operation is finished if the transfer
+         * failed or was canceled as its database update won't be made.
+         */
+        private void runTransfer()
+        {
+            run();
+            try {
+                get();
+            } catch (Exception e) {
+                itsOper.finish();
+            }
+        }
+
+        /**
+         * Wait for the transfer to finish
+         * @throws InterruptedException if the wait was interrupted or the
+         * transfer was canceled
+         */
+        private void waitForTransfer() throws Exception
+        {
+            try {
+                get();
+            } catch (CancellationException e) {
+                throw new InterruptedException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception causeEx) {
+                    throw causeEx;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * The hash of a local file's contents along with its attributes when
+     * hashed
+     */
+    private static final class LocalContentHash
+    {
+        private final String itsLocalFile;
+        private final String itsHash;
+        private final long itsModTime;
+        private final long itsLength;
+
+        /**
+         * Constructor
+         */
+        private LocalContentHash(String localFile, String hash, long modTime,
+                                 long length)
+        {
+            itsLocalFile = localFile;
+            itsHash = hash;
+            itsModTime = modTime;
+            itsLength = length;
+        }
+    }
+
     /**
      * A user of the database that checks for an ok state
      */
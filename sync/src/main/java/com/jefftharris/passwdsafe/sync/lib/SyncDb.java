@@ -34,6 +34,8 @@ public class SyncDb
 {
     private static final String TAG = "SyncDb";
 
+    private static final String SAVEPOINT_NAME = "sync_update";
+
     public static final String GDRIVE_ACCOUNT_TYPE = "com.google";
     public static final String DROPBOX_ACCOUNT_TYPE = "com.jefftharris.dropbox";
     public static final String BOX_ACCOUNT_TYPE = "com.jefftharris.box";
@@ -52,6 +54,7 @@ public class SyncDb
             "sync_last_success";
     public static final String DB_COL_PROVIDERS_SYNC_LAST_FAILURE =
             "sync_last_failure";
+    public static final String DB_COL_PROVIDERS_SYNC_CURSOR = "sync_cursor";
     public static final String DB_MATCH_PROVIDERS_ID =
         DB_COL_PROVIDERS_ID + " = ?";
     private static final String DB_MATCH_PROVIDERS_TYPE_ACCT =
@@ -73,6 +76,7 @@ public class SyncDb
     public static final String DB_COL_FILES_REMOTE_FOLDER = "remote_folder";
     public static final String DB_COL_FILES_REMOTE_CHANGE = "remote_change";
     public static final String DB_COL_FILES_REMOTE_HASH = "remote_hash";
+    public static final String DB_COL_FILES_LOCAL_HASH = "local_hash";
     public static final String DB_MATCH_FILES_ID =
         DB_COL_FILES_ID + " = ?";
     public static final String DB_MATCH_FILES_PROVIDER_ID =
@@ -142,6 +146,28 @@ public class SyncDb
         }
     }
 
+    /**
+     * Use the database within a savepoint of the current transaction.  If the
+     * user fails, its updates are rolled back and the transaction continues.
+     */
+    public static <T> T useSavepoint(@NonNull DbUser<T> user,
+                                     @NonNull SQLiteDatabase db)
+            throws Exception
+    {
+        db.execSQL("SAVEPOINT " + SAVEPOINT_NAME);
+        try {
+            T rc = user.useDb(db);
+            db.execSQL("RELEASE " + SAVEPOINT_NAME);
+            return rc;
+        } catch (Exception e) {
+            // The leading ';' keeps the statement from being treated as a
+            // rollback of the whole transaction
+            db.execSQL(";ROLLBACK TO " + SAVEPOINT_NAME);
+            db.execSQL("RELEASE " + SAVEPOINT_NAME);
+            throw e;
+        }
+    }
+
     /**
      * Query the database without a transaction
      */
@@ -224,6 +250,17 @@ public class SyncDb
         updateProviderFields(id, values, db);
     }
 
+    /** Update the remote change cursor for a provider */
+    public static void updateProviderSyncCursor(long id,
+                                                @Nullable String cursor,
+                                                SQLiteDatabase db)
+            throws SQLException
+    {
+        ContentValues values = new ContentValues();
+        values.put(DB_COL_PROVIDERS_SYNC_CURSOR, cursor);
+        updateProviderFields(id, values, db);
+    }
+
     /** Get a provider by id */
     public static DbProvider getProvider(long id, SQLiteDatabase db)
             throws SQLException
@@ -362,6 +399,22 @@ public class SyncDb
     }
 
 
+    /**
+     * Update the provider's native hash of a local file's contents as of its
+     * last sync
+     */
+    public static void updateLocalFileHash(long fileId,
+                                           @Nullable String hash,
+                                           SQLiteDatabase db)
+            throws SQLException
+    {
+        ContentValues values = new ContentValues();
+        values.put(DB_COL_FILES_LOCAL_HASH, hash);
+        doUpdate(db, DB_TABLE_FILES, values,
+                 DB_MATCH_FILES_ID, new String[] { Long.toString(fileId) });
+    }
+
+
     /** Update the change for a local file */
     public static void updateLocalFileChange(long fileId,
                                              DbFile.FileChange change,
@@ -606,7 +659,7 @@ public class SyncDb
     private static final class DbHelper extends SQLiteOpenHelper
     {
         private static final String DB_NAME = "sync.db";
-        private static final int DB_VERSION = 6;
+        private static final int DB_VERSION = 8;
 
         private final Context itsContext;
 
@@ -665,6 +718,7 @@ public class SyncDb
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion)
         {
             enableForeignKey(db);
+            boolean upgradeV4Files = false;
 
             if (oldVersion < 2) {
                 PasswdSafeUtil.dbginfo(TAG, "Upgrade to v2");
@@ -694,19 +748,7 @@ public class SyncDb
                 db.execSQL("ALTER TABLE " + DB_TABLE_FILES +
                            " ADD COLUMN " + DB_COL_FILES_REMOTE_HASH +
                            " TEXT;");
-
-                try (Cursor cursor = db.query(
-                        DB_TABLE_PROVIDERS,
-                        new String[]{SyncDb.DB_COL_PROVIDERS_ID},
-                        null, null, null, null, null)) {
-                    for (boolean more = cursor.moveToFirst(); more;
-                         more = cursor.moveToNext()) {
-                        long id = cursor.getLong(0);
-                        for (DbFile file : getFiles(id, db)) {
-                            onUpgradeV4File(file, db);
-                        }
-                    }
-                }
+                upgradeV4Files = true;
             }
 
             if (oldVersion < 5) {
@@ -725,6 +767,37 @@ public class SyncDb
                            " ADD COLUMN " + DB_COL_PROVIDERS_SYNC_LAST_FAILURE +
                            " INTEGER;");
             }
+
+            if (oldVersion < 7) {
+                PasswdSafeUtil.dbginfo(TAG, "Upgrade to v7");
+                db.execSQL("ALTER TABLE " + DB_TABLE_PROVIDERS +
+                           " ADD COLUMN " + DB_COL_PROVIDERS_SYNC_CURSOR +
+                           " TEXT;");
+            }
+
+            if (oldVersion < 8) {
+                PasswdSafeUtil.dbginfo(TAG, "Upgrade to v8");
+                db.execSQL("ALTER TABLE " + DB_TABLE_FILES +
+                           " ADD COLUMN " + DB_COL_FILES_LOCAL_HASH +
+                           " TEXT;");
+            }
+
+            // The files are read with all of the current columns, so they are
+            // upgraded after the columns are added
+            if (upgradeV4Files) {
+                try (Cursor cursor = db.query(
+                        DB_TABLE_PROVIDERS,
+                        new String[]{SyncDb.DB_COL_PROVIDERS_ID},
+                        null, null, null, null, null)) {
+                    for (boolean more = cursor.moveToFirst(); more;
+                         more = cursor.moveToNext()) {
+                        long id = cursor.getLong(0);
+                        for (DbFile file : getFiles(id, db)) {
+                            onUpgradeV4File(file, db);
+                        }
+                    }
+                }
+            }
         }
 
         /* (non-Javadoc)
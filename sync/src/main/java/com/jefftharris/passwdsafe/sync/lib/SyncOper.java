@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2016 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2016-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -20,6 +20,7 @@ public abstract class SyncOper<ProviderClientT>
 {
     protected final DbFile itsFile;
     protected final String itsTag;
+    private ContentHasher itsContentHasher;
 
     /** Constructor */
     protected SyncOper(DbFile file, String tag)
@@ -34,6 +35,18 @@ public abstract class SyncOper<ProviderClientT>
         return itsFile;
     }
 
+    /** Set the hasher of the provider's native content hash, if any */
+    public void setContentHasher(ContentHasher hasher)
+    {
+        itsContentHasher = hasher;
+    }
+
+    /** Get the hasher of the provider's native content hash, if any */
+    protected ContentHasher getContentHasher()
+    {
+        return itsContentHasher;
+    }
+
     /** Perform the sync operation */
     public abstract void doOper(ProviderClientT providerClient, Context ctx)
             throws Exception;
@@ -0,0 +1,197 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.lib;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The SyncRemoteChanges class encapsulates the changes to remote files since
+ * the cursor of a previous sync.  Remote files without changes keep the
+ * remote fields from the database.
+ */
+public class SyncRemoteChanges
+{
+    /// Map from remote file id to changed remote file
+    private final Map<String, ProviderRemoteFile> itsChangedFiles =
+            new HashMap<>();
+
+    /// Remote file ids of removed files
+    private final Set<String> itsRemovedIds = new HashSet<>();
+
+    private String itsCursor = null;
+    private boolean itsIsListingNeeded = false;
+
+    /**
+     * Constructor
+     */
+    public SyncRemoteChanges()
+    {
+    }
+
+    /**
+     * Add a changed remote file
+     */
+    public void addChangedFile(@NonNull ProviderRemoteFile remoteFile)
+    {
+        itsRemovedIds.remove(remoteFile.getRemoteId());
+        itsChangedFiles.put(remoteFile.getRemoteId(), remoteFile);
+    }
+
+    /**
+     * Add a removed remote file
+     */
+    public void addRemovedFile(@NonNull String remoteId)
+    {
+        itsChangedFiles.remove(remoteId);
+        itsRemovedIds.add(remoteId);
+    }
+
+    /**
+     * Set that the changes can't be applied to the remote files and a full
+     * listing of the files is needed
+     */
+    public void setListingNeeded()
+    {
+        itsIsListingNeeded = true;
+    }
+
+    /**
+     * Is a full listing of the remote files needed
+     */
+    public boolean isListingNeeded()
+    {
+        return itsIsListingNeeded;
+    }
+
+    /**
+     * Set the cursor for the changes after these changes
+     */
+    public void setCursor(@Nullable String cursor)
+    {
+        itsCursor = cursor;
+    }
+
+    /**
+     * Get the cursor for the changes after these changes
+     */
+    @Nullable
+    public String getCursor()
+    {
+        return itsCursor;
+    }
+
+    /**
+     * Get the remote files of the database files with the changes applied
+     */
+    @NonNull
+    public SyncRemoteFiles getRemoteFiles(@NonNull List<DbFile> dbfiles)
+    {
+        SyncRemoteFiles files = new SyncRemoteFiles();
+        for (DbFile dbfile: dbfiles) {
+            if (dbfile.itsRemoteId == null) {
+                continue;
+            }
+            switch (dbfile.itsRemoteChange) {
+            case NO_CHANGE:
+            case ADDED:
+            case MODIFIED: {
+                if (itsRemovedIds.contains(dbfile.itsRemoteId)) {
+                    break;
+                }
+                ProviderRemoteFile remfile =
+                        itsChangedFiles.get(dbfile.itsRemoteId);
+                files.addRemoteFile((remfile != null) ?
+                                    remfile : new DbRemoteFile(dbfile));
+                break;
+            }
+            case REMOVED: {
+                break;
+            }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * A remote file without changes from its database fields
+     */
+    private static final class DbRemoteFile implements ProviderRemoteFile
+    {
+        private final DbFile itsFile;
+
+        /**
+         * Constructor
+         */
+        private DbRemoteFile(DbFile file)
+        {
+            itsFile = file;
+        }
+
+        @Override
+        public String getRemoteId()
+        {
+            return itsFile.itsRemoteId;
+        }
+
+        @Override
+        public String getDisplayPath()
+        {
+            return itsFile.getRemoteTitleAndFolder();
+        }
+
+        @Override
+        public String getTitle()
+        {
+            return itsFile.itsRemoteTitle;
+        }
+
+        @Override
+        public String getFolder()
+        {
+            return itsFile.itsRemoteFolder;
+        }
+
+        @Override
+        public long getModTime()
+        {
+            return itsFile.itsRemoteModDate;
+        }
+
+        @Override
+        public String getHash()
+        {
+            return itsFile.itsRemoteHash;
+        }
+
+        @Override
+        public String getContentHash()
+        {
+            return null;
+        }
+
+        @Override
+        public boolean isFolder()
+        {
+            return false;
+        }
+
+        @Override
+        public String toDebugString()
+        {
+            return String.format(Locale.US, "{db: %s}", itsFile);
+        }
+    }
+}
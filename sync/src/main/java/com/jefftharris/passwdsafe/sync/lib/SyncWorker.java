@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2019 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2019-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -25,6 +25,9 @@ import com.jefftharris.passwdsafe.lib.ProviderType;
 import com.jefftharris.passwdsafe.sync.ProviderFactory;
 import com.jefftharris.passwdsafe.sync.SyncApp;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -34,11 +37,24 @@ public class SyncWorker extends Worker
     private static final String KEY_USERID = "userId";
     private static final String KEY_MANUAL = "manual";
 
-    private static final ReentrantLock itsLock = new ReentrantLock();
+    /** Maximum number of accounts syncing at the same time */
+    private static final int MAX_CONCURRENT_SYNCS = 2;
+
+    /** Interval to check whether the work was stopped while waiting */
+    private static final long WAIT_CHECK_SECS = 5;
+
+    /// Map from account id to its sync state
+    private static final Map<String, AccountSync> itsAccounts =
+            new HashMap<>();
+
+    private static final Semaphore itsSyncBudget =
+            new Semaphore(MAX_CONCURRENT_SYNCS, true);
 
     private static final String TAG = "SyncWorker";
 
     private final ProviderSync itsSync;
+    private final String itsAccountId;
+    private final boolean itsIsRequested;
     private final String itsTag;
 
     /**
@@ -55,6 +71,8 @@ public class SyncWorker extends Worker
                 syncData.getString(KEY_TYPE));
         String userId = syncData.getString(KEY_USERID);
         boolean manual = syncData.getBoolean(KEY_MANUAL, false);
+        itsAccountId = getAccountId(providerType, userId);
+        itsIsRequested = getTags().contains(getUniqueId(providerType, false));
         itsTag = String.format("%s [%s]", providerType, userId);
 
         Provider providerImpl = ProviderFactory.getProvider(
@@ -65,24 +83,55 @@ public class SyncWorker extends Worker
     @NonNull @Override
     public Result doWork()
     {
-        if (!itsLock.tryLock()) {
-            PasswdSafeUtil.dbginfo(TAG, "doWork defer %s", itsTag);
+        AccountSync acct = getAccountSync(itsAccountId);
+        try {
+            // Retry rather than fail so work appended to this work isn't
+            // cancelled
+            if (!waitToStart(acct)) {
+                PasswdSafeUtil.dbginfo(TAG, "doWork stopped %s", itsTag);
+                return Result.retry();
+            }
+        } catch (InterruptedException e) {
+            PasswdSafeUtil.dbginfo(TAG, e, "doWork interrupted %s", itsTag);
             return Result.retry();
         }
+
+        boolean success = false;
+        boolean hasFollowUp;
         try {
+            synchronized (itsAccounts) {
+                acct.itsIsSyncing = true;
+                if (itsIsRequested) {
+                    acct.itsHasFollowUp = false;
+                    acct.itsIsFollowUpManual = false;
+                }
+            }
+
             PasswdSafeUtil.dbginfo(TAG, "doWork start %s", itsTag);
             if (itsSync != null) {
                 itsSync.sync();
             }
 
             PasswdSafeUtil.dbginfo(TAG, "doWork success %s", itsTag);
-            return Result.success();
+            success = true;
         } catch (Exception e) {
             PasswdSafeUtil.dbginfo(TAG, e, "doWork failed %s", itsTag);
-            return Result.failure();
         } finally {
-            itsLock.unlock();
+            synchronized (itsAccounts) {
+                acct.itsIsSyncing = false;
+                hasFollowUp = acct.itsHasFollowUp;
+                if (!success) {
+                    acct.itsHasFollowUp = false;
+                    acct.itsIsFollowUpManual = false;
+                }
+            }
+            itsSyncBudget.release();
+            acct.itsLock.unlock();
         }
+
+        // Work appended to failed work is cancelled, so a failed sync with a
+        // pending follow-up succeeds to let the follow-up run
+        return (success || hasFollowUp) ? Result.success() : Result.failure();
     }
 
     @Override
@@ -132,13 +181,31 @@ public class SyncWorker extends Worker
     }
 
     /**
-     * Request a sync of a provider
+     * Request a sync of a provider.  Requests made while the account is
+     * syncing are collapsed into one follow-up sync after the active one.
      */
     public static void requestSync(ProviderType type,
                                    String userId,
                                    boolean manual,
                                    Context ctx)
     {
+        ExistingWorkPolicy policy = ExistingWorkPolicy.KEEP;
+        synchronized (itsAccounts) {
+            AccountSync acct = itsAccounts.get(getAccountId(type, userId));
+            if ((acct != null) && acct.itsIsSyncing) {
+                if (acct.itsHasFollowUp &&
+                    (acct.itsIsFollowUpManual || !manual)) {
+                    PasswdSafeUtil.dbginfo(TAG, "requestSync coalesced %s",
+                                           type);
+                    return;
+                }
+                acct.itsHasFollowUp = true;
+                acct.itsIsFollowUpManual |= manual;
+                // Run after the active sync rather than being dropped by it
+                policy = ExistingWorkPolicy.APPEND_OR_REPLACE;
+            }
+        }
+
         String uniqueId = getUniqueId(type, false);
         WorkManager workMgr = WorkManager.getInstance(ctx);
 
@@ -159,7 +226,67 @@ public class SyncWorker extends Worker
                 .addTag(uniqueId)
                 .build();
 
-        workMgr.enqueueUniqueWork(uniqueId, ExistingWorkPolicy.KEEP, workReq);
+        workMgr.enqueueUniqueWork(uniqueId, policy, workReq);
+    }
+
+    /**
+     * Wait until the account isn't syncing and a sync is allowed within the
+     * concurrency budget.  The account's lock and a permit from the budget
+     * are held when the sync can start.
+     * @return Whether the sync can start; false if the work was stopped and
+     * should be retried
+     */
+    private boolean waitToStart(AccountSync acct) throws InterruptedException
+    {
+        if (!acct.itsLock.tryLock()) {
+            PasswdSafeUtil.dbginfo(TAG, "doWork wait %s", itsTag);
+            while (!acct.itsLock.tryLock(WAIT_CHECK_SECS, TimeUnit.SECONDS)) {
+                if (isStopped()) {
+                    return false;
+                }
+            }
+        }
+
+        boolean started = false;
+        try {
+            while (!itsSyncBudget.tryAcquire(WAIT_CHECK_SECS,
+                                             TimeUnit.SECONDS)) {
+                if (isStopped()) {
+                    return false;
+                }
+            }
+            started = true;
+        } finally {
+            if (!started) {
+                acct.itsLock.unlock();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the sync state of an account
+     */
+    @NonNull
+    private static AccountSync getAccountSync(String accountId)
+    {
+        synchronized (itsAccounts) {
+            AccountSync acct = itsAccounts.get(accountId);
+            if (acct == null) {
+                acct = new AccountSync();
+                itsAccounts.put(accountId, acct);
+            }
+            return acct;
+        }
+    }
+
+    /**
+     * Get the identifier of a provider account
+     */
+    @NonNull
+    private static String getAccountId(ProviderType type, String userId)
+    {
+        return type + ":" + userId;
     }
 
     /**
@@ -169,4 +296,16 @@ public class SyncWorker extends Worker
     {
         return (background ? "SyncWorker-" : "ManualSync-") + type;
     }
+
+    /**
+     * The sync state of an account.  The flags are guarded by the accounts
+     * map.
+     */
+    private static final class AccountSync
+    {
+        private final ReentrantLock itsLock = new ReentrantLock();
+        private boolean itsIsSyncing = false;
+        private boolean itsHasFollowUp = false;
+        private boolean itsIsFollowUpManual = false;
+    }
 }
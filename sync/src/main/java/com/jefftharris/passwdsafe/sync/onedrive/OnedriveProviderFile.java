@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2015-2024 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2015-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -131,6 +131,23 @@ public class OnedriveProviderFile implements ProviderRemoteFile
         return itsItem.getETag();
     }
 
+    /**
+     * Get the file's content hash
+     */
+    @Override
+    @Nullable
+    public String getContentHash()
+    {
+        var file = itsItem.getFile();
+        if (file != null) {
+            var hashes = file.getHashes();
+            if (hashes != null) {
+                return hashes.getQuickXorHash();
+            }
+        }
+        return null;
+    }
+
     /**
      * Is the file a folder
      */
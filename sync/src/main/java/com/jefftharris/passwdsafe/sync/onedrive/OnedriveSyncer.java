@@ -1,5 +1,5 @@
 /*
- * Copyright (©) 2017-2024 Jeff Harris <jefftharris@gmail.com>
+ * Copyright (©) 2017-2026 Jeff Harris <jefftharris@gmail.com>
  * All rights reserved. Use of the code is allowed under the
  * Artistic License 2.0 terms, as specified in the LICENSE file
  * distributed with this code, or available from
@@ -17,13 +17,17 @@ import com.jefftharris.passwdsafe.lib.PasswdSafeUtil;
 import com.jefftharris.passwdsafe.sync.lib.AbstractLocalToRemoteSyncOper;
 import com.jefftharris.passwdsafe.sync.lib.AbstractRemoteToLocalSyncOper;
 import com.jefftharris.passwdsafe.sync.lib.AbstractRmSyncOper;
+import com.jefftharris.passwdsafe.sync.lib.ContentHasher;
 import com.jefftharris.passwdsafe.sync.lib.DbFile;
 import com.jefftharris.passwdsafe.sync.lib.DbProvider;
 import com.jefftharris.passwdsafe.sync.lib.ProviderRemoteFile;
 import com.jefftharris.passwdsafe.sync.lib.ProviderSyncer;
 import com.jefftharris.passwdsafe.sync.lib.SyncConnectivityResult;
 import com.jefftharris.passwdsafe.sync.lib.SyncLogRecord;
+import com.jefftharris.passwdsafe.sync.lib.SyncRemoteChanges;
 import com.jefftharris.passwdsafe.sync.lib.SyncRemoteFiles;
+import com.microsoft.graph.drives.item.items.item.DriveItemItemRequestBuilder;
+import com.microsoft.graph.drives.item.items.item.delta.DeltaGetResponse;
 import com.microsoft.graph.models.DriveItem;
 import com.microsoft.graph.models.User;
 import com.microsoft.graph.serviceclient.GraphServiceClient;
@@ -31,6 +35,7 @@ import com.microsoft.kiota.ApiException;
 
 import org.jetbrains.annotations.Contract;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -40,6 +45,11 @@ public class OnedriveSyncer extends ProviderSyncer<OnedriveProviderClient>
 {
     private static final String TAG = "OnedriveSyncer";
 
+    /** Token for the delta of the latest state of the drive */
+    private static final String LATEST_DELTA_TOKEN = "latest";
+
+    private static final ContentHasher CONTENT_HASHER = new QuickXorHasher();
+
     /**
      * Constructor
      */
@@ -97,30 +107,22 @@ public class OnedriveSyncer extends ProviderSyncer<OnedriveProviderClient>
 
     @Override
     protected SyncRemoteFiles getSyncRemoteFiles(@NonNull List<DbFile> dbfiles)
+            throws Exception
     {
-        SyncRemoteFiles files = new SyncRemoteFiles();
+        List<DbFile> lookupFiles = new ArrayList<>();
+        List<RemoteLookup<DriveItem>> lookups = new ArrayList<>();
         for (DbFile dbfile: dbfiles) {
             if (dbfile.itsRemoteId == null) {
-                DriveItem item = getRemoteFile(createRemoteIdFromLocal(dbfile));
-                if (item != null) {
-                    ProviderRemoteFile odfile = new OnedriveProviderFile(item);
-                    PasswdSafeUtil.dbginfo(TAG, "file for local: %s",
-                                           odfile.toDebugString());
-                    files.addRemoteFileForNew(dbfile.itsId, odfile);
-                }
+                String remoteId = createRemoteIdFromLocal(dbfile);
+                lookupFiles.add(dbfile);
+                lookups.add(() -> getRemoteFile(remoteId));
             } else {
                 switch (dbfile.itsRemoteChange) {
                 case NO_CHANGE:
                 case ADDED:
                 case MODIFIED: {
-                    DriveItem item = getRemoteFile(dbfile.itsRemoteId);
-                    if (item != null) {
-                        ProviderRemoteFile odfile =
-                                new OnedriveProviderFile(item);
-                        PasswdSafeUtil.dbginfo(TAG, "file: %s",
-                                               odfile.toDebugString());
-                        files.addRemoteFile(odfile);
-                    }
+                    lookupFiles.add(dbfile);
+                    lookups.add(() -> getRemoteFile(dbfile.itsRemoteId));
                     break;
                 }
                 case REMOVED: {
@@ -129,10 +131,113 @@ public class OnedriveSyncer extends ProviderSyncer<OnedriveProviderClient>
                 }
             }
         }
+
+        List<DriveItem> items = lookupRemote(lookups);
+        SyncRemoteFiles files = new SyncRemoteFiles();
+        for (int i = 0; i < items.size(); ++i) {
+            DbFile dbfile = lookupFiles.get(i);
+            DriveItem item = items.get(i);
+            if (item == null) {
+                continue;
+            }
+            ProviderRemoteFile odfile = new OnedriveProviderFile(item);
+            if (dbfile.itsRemoteId == null) {
+                PasswdSafeUtil.dbginfo(TAG, "file for local: %s",
+                                       odfile.toDebugString());
+                files.addRemoteFileForNew(dbfile.itsId, odfile);
+            } else {
+                PasswdSafeUtil.dbginfo(TAG, "file: %s",
+                                       odfile.toDebugString());
+                files.addRemoteFile(odfile);
+            }
+        }
         return files;
     }
 
 
+    /**
+     * Get the rate limit backoff for a lookup.  The Graph client retries
+     * throttled requests itself, so a lookup is only retried when those
+     * retries are exhausted.
+     */
+    @Override
+    protected long getRateLimitBackoff(Exception e, int retry)
+    {
+        if (e instanceof ApiException apiEx) {
+            int status = apiEx.getResponseStatusCode();
+            if ((status == 429) || (status == 503)) {
+                return getExponentialBackoff(retry);
+            }
+        }
+        return -1;
+    }
+
+
+    @Override
+    protected String getSyncCursor() throws ApiException
+    {
+        var resp = getRootRequest().deltaWithToken(LATEST_DELTA_TOKEN).get();
+        return (resp != null) ? resp.getOdataDeltaLink() : null;
+    }
+
+
+    /**
+     * Get the remote changes since a delta link.  The delta doesn't include
+     * the paths of the items, so any change which may affect a synced file
+     * needs the files to be fully looked up.
+     */
+    @Override
+    protected SyncRemoteChanges getSyncRemoteChanges(
+            @NonNull List<DbFile> dbfiles,
+            @NonNull String cursor)
+            throws ApiException
+    {
+        var request = getRootRequest().delta();
+        DeltaGetResponse resp;
+        try {
+            resp = request.withUrl(cursor).get();
+        } catch (ApiException e) {
+            // Gone if the delta link has expired
+            if (e.getResponseStatusCode() == 410) {
+                return null;
+            }
+            throw e;
+        }
+
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        while (resp != null) {
+            var items = resp.getValue();
+            if (items != null) {
+                for (DriveItem item: items) {
+                    if (isSyncChange(item, dbfiles)) {
+                        PasswdSafeUtil.dbginfo(TAG, "changed item: %s",
+                                               item.getName());
+                        changes.setListingNeeded();
+                    }
+                }
+            }
+
+            var nextLink = resp.getOdataNextLink();
+            if (nextLink == null) {
+                changes.setCursor(resp.getOdataDeltaLink());
+                return changes;
+            }
+            resp = request.withUrl(nextLink).get();
+        }
+        return null;
+    }
+
+
+    /**
+     * Get the hasher of the OneDrive quick XOR hash
+     */
+    @Override
+    protected ContentHasher getContentHasher()
+    {
+        return CONTENT_HASHER;
+    }
+
+
     /**
      * Create an operation to sync local to remote
      */
@@ -166,6 +271,43 @@ public class OnedriveSyncer extends ProviderSyncer<OnedriveProviderClient>
     }
 
 
+    /**
+     * Get a request builder for the root of the drive
+     */
+    @NonNull
+    private DriveItemItemRequestBuilder getRootRequest()
+    {
+        return OnedriveUtils.getFilePathRequest(
+                itsProviderClient, ProviderRemoteFile.PATH_SEPARATOR);
+    }
+
+
+    /**
+     * Can a changed item in a delta affect a synced file.  A deleted item or
+     * a folder may have been a synced file or contained one.
+     */
+    private static boolean isSyncChange(@NonNull DriveItem item,
+                                        @NonNull List<DbFile> dbfiles)
+    {
+        if (item.getRoot() != null) {
+            return false;
+        } else if (OnedriveUtils.isDeleted(item) ||
+                   (item.getFolder() != null)) {
+            return true;
+        }
+        String name = item.getName();
+        if (name == null) {
+            return false;
+        }
+        for (DbFile dbfile: dbfiles) {
+            if (name.equalsIgnoreCase(dbfile.itsRemoteTitle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
     /**
      * Get a remote file's entry from OneDrive
      * @return The file's entry if found; null if not found or deleted
@@ -0,0 +1,95 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.onedrive;
+
+import androidx.annotation.NonNull;
+
+import com.jefftharris.passwdsafe.sync.lib.ContentHasher;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+
+/**
+ * Content hasher for the OneDrive quickXorHash.  Each byte of the file is
+ * XORed into a 160-bit value at a position which advances 11 bits per byte.
+ * The file length is XORed into the last 64 bits, and the hash is the
+ * base64 of the value.
+ */
+public final class QuickXorHasher implements ContentHasher
+{
+    private static final int WIDTH_IN_BITS = 160;
+    private static final int SHIFT = 11;
+    private static final int NUM_CELLS = (WIDTH_IN_BITS - 1) / 64 + 1;
+
+    @NonNull
+    @Override
+    public String hash(@NonNull File file) throws IOException
+    {
+        long[] cells = new long[NUM_CELLS];
+        long length = 0;
+        int shiftSoFar = 0;
+        try (InputStream is = new FileInputStream(file)) {
+            byte[] buf = new byte[READ_BUFFER_SIZE];
+            int len;
+            while ((len = is.read(buf)) > 0) {
+                update(cells, shiftSoFar, buf, len);
+                shiftSoFar = (int)((shiftSoFar + (long)SHIFT *
+                                    (len % WIDTH_IN_BITS)) % WIDTH_IN_BITS);
+                length += len;
+            }
+        }
+
+        byte[] rgb = new byte[(WIDTH_IN_BITS - 1) / 8 + 1];
+        for (int i = 0; i < rgb.length; ++i) {
+            rgb[i] = (byte)(cells[i / 8] >>> (8 * (i % 8)));
+        }
+        int lengthPos = (WIDTH_IN_BITS / 8) - 8;
+        for (int i = 0; i < 8; ++i) {
+            rgb[lengthPos + i] ^= (byte)(length >>> (8 * i));
+        }
+        return Base64.getEncoder().encodeToString(rgb);
+    }
+
+    /**
+     * Update the hash value with a block of data
+     * @param shiftSoFar The bit position of the start of the block
+     */
+    private static void update(long[] cells, int shiftSoFar,
+                               byte[] data, int len)
+    {
+        int cellIdx = shiftSoFar / 64;
+        int cellOffset = shiftSoFar % 64;
+        int iterations = Math.min(len, WIDTH_IN_BITS);
+        for (int i = 0; i < iterations; ++i) {
+            boolean isLastCell = (cellIdx == NUM_CELLS - 1);
+            int bitsInCell = isLastCell ? (WIDTH_IN_BITS % 64) : 64;
+
+            // Every WIDTH_IN_BITS bytes are XORed at the same position
+            long xored = 0;
+            for (int j = i; j < len; j += WIDTH_IN_BITS) {
+                xored ^= data[j] & 0xff;
+            }
+
+            cells[cellIdx] ^= xored << cellOffset;
+            if (cellOffset > bitsInCell - 8) {
+                // The byte spans the end of the cell and wraps to the next
+                int nextIdx = isLastCell ? 0 : (cellIdx + 1);
+                cells[nextIdx] ^= xored >>> (bitsInCell - cellOffset);
+            }
+
+            cellOffset += SHIFT;
+            while (cellOffset >= bitsInCell) {
+                cellIdx = isLastCell ? 0 : (cellIdx + 1);
+                cellOffset -= bitsInCell;
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.dropbox;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the Dropbox content_hash.  The expected values are the
+ * SHA-256 of the concatenated SHA-256 hashes of the 4 MiB blocks.
+ */
+public class DropboxContentHasherTest
+{
+    private static final int BLOCK_SIZE = 4 * 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder itsTempDir = new TemporaryFolder();
+
+    private final DropboxContentHasher itsHasher = new DropboxContentHasher();
+
+    @Test
+    public void testEmpty() throws IOException
+    {
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb924" +
+                     "27ae41e4649b934ca495991b7852b855", hash(0));
+    }
+
+    @Test
+    public void testPartialBlock() throws IOException
+    {
+        assertEquals("f75824a4950624d8c81364a1fd4ffa23" +
+                     "dce7d0c3d3493372b330878c8ae29422", hash(1000));
+    }
+
+    @Test
+    public void testBlockBoundary() throws IOException
+    {
+        assertEquals("ed1a0dd53370ba832a2e98484b981bae" +
+                     "55f9ad17cd0d1f88662e287d860f4855", hash(BLOCK_SIZE));
+        assertEquals("d1d5c408dbdffb54d748df3f298a6059" +
+                     "360b80669517ced004b55b64a8c23706",
+                     hash(BLOCK_SIZE + 1));
+    }
+
+    /**
+     * Hash a file with a pattern of bytes of the given length
+     */
+    private String hash(int len) throws IOException
+    {
+        File file = itsTempDir.newFile();
+        try (OutputStream os =
+                     new BufferedOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < len; ++i) {
+                os.write(i * 7 + 3);
+            }
+        }
+        return itsHasher.hash(file);
+    }
+}
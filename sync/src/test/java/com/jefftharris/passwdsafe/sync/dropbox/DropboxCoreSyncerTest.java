@@ -0,0 +1,160 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.dropbox;
+
+import com.dropbox.core.v2.files.DeletedMetadata;
+import com.dropbox.core.v2.files.FileMetadata;
+import com.dropbox.core.v2.files.FolderMetadata;
+import com.dropbox.core.v2.files.Metadata;
+import com.jefftharris.passwdsafe.sync.lib.DbFile;
+import com.jefftharris.passwdsafe.sync.lib.SyncRemoteChanges;
+import com.jefftharris.passwdsafe.sync.lib.SyncRemoteFiles;
+import com.jefftharris.passwdsafe.sync.lib.SyncTestUtils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static com.jefftharris.passwdsafe.sync.lib.DbFile.FileChange.NO_CHANGE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for applying Dropbox change entries to the synced files
+ */
+public class DropboxCoreSyncerTest
+{
+    private final List<DbFile> itsDbFiles = Arrays.asList(
+            SyncTestUtils.createDbFile(1, "/a.psafe3", NO_CHANGE, NO_CHANGE),
+            SyncTestUtils.createDbFile(2, "/dir/b.psafe3", NO_CHANGE,
+                                       NO_CHANGE),
+            SyncTestUtils.createDbFile(3, "/dir/sub/c.psafe3", NO_CHANGE,
+                                       NO_CHANGE),
+            SyncTestUtils.createDbFile(4, "/dir2/d.psafe3", NO_CHANGE,
+                                       NO_CHANGE));
+
+    @Test
+    public void testChangedFile()
+    {
+        SyncRemoteFiles files = applyChanges(
+                createFile("/dir/b.psafe3", 5000),
+                createFile("/other.psafe3", 6000));
+
+        assertEquals(4, countFiles(files));
+        assertEquals(5000, files.getRemoteFile("/dir/b.psafe3").getModTime());
+        assertEquals(2000, files.getRemoteFile("/a.psafe3").getModTime());
+        assertNull(files.getRemoteFile("/other.psafe3"));
+    }
+
+    @Test
+    public void testDeletedFile()
+    {
+        SyncRemoteFiles files = applyChanges(createDeleted("/a.psafe3"));
+
+        assertEquals(3, countFiles(files));
+        assertNull(files.getRemoteFile("/a.psafe3"));
+    }
+
+    @Test
+    public void testDeletedFolder()
+    {
+        SyncRemoteFiles files = applyChanges(createDeleted("/dir"));
+
+        // The files within the folder are removed, but not those of a
+        // folder whose name starts with the removed folder's name
+        assertEquals(2, countFiles(files));
+        assertNotNull(files.getRemoteFile("/a.psafe3"));
+        assertNull(files.getRemoteFile("/dir/b.psafe3"));
+        assertNull(files.getRemoteFile("/dir/sub/c.psafe3"));
+        assertNotNull(files.getRemoteFile("/dir2/d.psafe3"));
+    }
+
+    @Test
+    public void testDeletedFolderPrefix()
+    {
+        SyncRemoteFiles files = applyChanges(createDeleted("/di"));
+
+        assertEquals(4, countFiles(files));
+    }
+
+    @Test
+    public void testDeletedThenReAdded()
+    {
+        SyncRemoteFiles files = applyChanges(
+                createDeleted("/dir"),
+                createFile("/dir/b.psafe3", 5000));
+
+        assertEquals(3, countFiles(files));
+        assertEquals(5000, files.getRemoteFile("/dir/b.psafe3").getModTime());
+        assertNull(files.getRemoteFile("/dir/sub/c.psafe3"));
+    }
+
+    @Test
+    public void testFolder()
+    {
+        SyncRemoteFiles files = applyChanges(
+                FolderMetadata.newBuilder("dir", "id:dir")
+                              .withPathLower("/dir")
+                              .build());
+
+        assertEquals(4, countFiles(files));
+    }
+
+    /**
+     * Apply the change entries to the database files
+     */
+    private SyncRemoteFiles applyChanges(Metadata... entries)
+    {
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        for (Metadata entry: entries) {
+            DropboxCoreSyncer.addChange(entry, itsDbFiles, changes);
+        }
+        return changes.getRemoteFiles(itsDbFiles);
+    }
+
+    /**
+     * Create the metadata of a changed file
+     */
+    private static Metadata createFile(String path, long modTime)
+    {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return FileMetadata.newBuilder(name, "id:" + name, new Date(modTime),
+                                       new Date(modTime), "0123456789abcdef",
+                                       100)
+                           .withPathLower(path)
+                           .withPathDisplay(path)
+                           .build();
+    }
+
+    /**
+     * Create the metadata of a deleted file or folder
+     */
+    private static Metadata createDeleted(String path)
+    {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return DeletedMetadata.newBuilder(name)
+                              .withPathLower(path)
+                              .withPathDisplay(path)
+                              .build();
+    }
+
+    /**
+     * Count the remote files
+     */
+    private static int countFiles(SyncRemoteFiles files)
+    {
+        int count = 0;
+        for (Object ignored: files.getRemoteFiles()) {
+            ++count;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.lib;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.jefftharris.passwdsafe.sync.lib.DbFile.FileChange.ADDED;
+import static com.jefftharris.passwdsafe.sync.lib.DbFile.FileChange.NO_CHANGE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for getting the remote files from the changes since the previous
+ * sync's cursor or from a full listing
+ */
+public class ProviderSyncerTest
+{
+    private static final String CURSOR = "cursor1";
+
+    private final List<DbFile> itsDbFiles = Arrays.asList(
+            SyncTestUtils.createDbFile(1, "/a.psafe3", NO_CHANGE, NO_CHANGE),
+            SyncTestUtils.createDbFile(2, "/b.psafe3", NO_CHANGE, NO_CHANGE));
+
+    @Test
+    public void testNoCursor() throws Exception
+    {
+        TestSyncer syncer = new TestSyncer(null, false);
+        assertSame(syncer.itsListing, syncer.getRemoteFiles(itsDbFiles));
+        assertEquals(0, syncer.itsNumChanges);
+        assertEquals(1, syncer.itsNumCursors);
+        assertEquals(1, syncer.itsNumListings);
+    }
+
+    @Test
+    public void testChanges() throws Exception
+    {
+        TestSyncer syncer = new TestSyncer(CURSOR, false);
+        syncer.itsChanges = new SyncRemoteChanges();
+        ProviderRemoteFile changed =
+                SyncTestUtils.createRemoteFile("/a.psafe3", 5000);
+        syncer.itsChanges.addChangedFile(changed);
+
+        SyncRemoteFiles files = syncer.getRemoteFiles(itsDbFiles);
+        assertNotNull(files);
+        assertSame(changed, files.getRemoteFile("/a.psafe3"));
+        assertNotNull(files.getRemoteFile("/b.psafe3"));
+        assertEquals(CURSOR, syncer.itsChangesCursor);
+        assertEquals(1, syncer.itsNumChanges);
+        assertEquals(0, syncer.itsNumCursors);
+        assertEquals(0, syncer.itsNumListings);
+    }
+
+    @Test
+    public void testExpiredCursor() throws Exception
+    {
+        TestSyncer syncer = new TestSyncer(CURSOR, false);
+        syncer.itsChanges = null;
+
+        assertSame(syncer.itsListing, syncer.getRemoteFiles(itsDbFiles));
+        assertEquals(1, syncer.itsNumChanges);
+        assertEquals(1, syncer.itsNumCursors);
+        assertEquals(1, syncer.itsNumListings);
+    }
+
+    @Test
+    public void testListingNeeded() throws Exception
+    {
+        TestSyncer syncer = new TestSyncer(CURSOR, false);
+        syncer.itsChanges = new SyncRemoteChanges();
+        syncer.itsChanges.setListingNeeded();
+
+        assertSame(syncer.itsListing, syncer.getRemoteFiles(itsDbFiles));
+        assertEquals(1, syncer.itsNumChanges);
+        assertEquals(0, syncer.itsNumCursors);
+        assertEquals(1, syncer.itsNumListings);
+    }
+
+    @Test
+    public void testManualSync() throws Exception
+    {
+        TestSyncer syncer = new TestSyncer(CURSOR, true);
+        syncer.itsChanges = new SyncRemoteChanges();
+
+        assertSame(syncer.itsListing, syncer.getRemoteFiles(itsDbFiles));
+        assertEquals(0, syncer.itsNumChanges);
+        assertEquals(1, syncer.itsNumCursors);
+        assertEquals(1, syncer.itsNumListings);
+    }
+
+    @Test
+    public void testNewLocalFile() throws Exception
+    {
+        TestSyncer syncer = new TestSyncer(CURSOR, false);
+        syncer.itsChanges = new SyncRemoteChanges();
+        List<DbFile> dbfiles = Arrays.asList(
+                itsDbFiles.get(0),
+                SyncTestUtils.createDbFile(3, null, ADDED, NO_CHANGE));
+
+        assertSame(syncer.itsListing, syncer.getRemoteFiles(dbfiles));
+        assertEquals(0, syncer.itsNumChanges);
+        assertEquals(1, syncer.itsNumCursors);
+        assertEquals(1, syncer.itsNumListings);
+    }
+
+    /**
+     * A syncer which counts its remote lookups
+     */
+    private static final class TestSyncer extends ProviderSyncer<Void>
+    {
+        private final SyncRemoteFiles itsListing = new SyncRemoteFiles();
+        private SyncRemoteChanges itsChanges;
+        private String itsChangesCursor;
+        private int itsNumChanges = 0;
+        private int itsNumCursors = 0;
+        private int itsNumListings = 0;
+
+        /**
+         * Constructor
+         */
+        private TestSyncer(String syncCursor, boolean manual)
+        {
+            super(null, SyncTestUtils.createDbProvider(syncCursor),
+                  new SyncConnectivityResult("name"),
+                  new SyncLogRecord("acct", "test", manual), null,
+                  "TestSyncer");
+        }
+
+        @Override
+        protected SyncRemoteFiles getSyncRemoteFiles(List<DbFile> dbfiles)
+        {
+            ++itsNumListings;
+            return itsListing;
+        }
+
+        @Nullable
+        @Override
+        protected String getSyncCursor()
+        {
+            ++itsNumCursors;
+            return "cursor2";
+        }
+
+        @Nullable
+        @Override
+        protected SyncRemoteChanges getSyncRemoteChanges(
+                List<DbFile> dbfiles,
+                @NonNull String cursor)
+        {
+            ++itsNumChanges;
+            itsChangesCursor = cursor;
+            return itsChanges;
+        }
+
+        @Override
+        protected AbstractLocalToRemoteSyncOper<Void>
+        createLocalToRemoteOper(DbFile dbfile)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected AbstractRemoteToLocalSyncOper<Void>
+        createRemoteToLocalOper(DbFile dbfile)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected AbstractRmSyncOper<Void> createRmFileOper(DbFile dbfile)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
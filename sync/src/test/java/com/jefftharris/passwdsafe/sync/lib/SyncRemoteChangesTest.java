@@ -0,0 +1,168 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.lib;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.jefftharris.passwdsafe.sync.lib.DbFile.FileChange.ADDED;
+import static com.jefftharris.passwdsafe.sync.lib.DbFile.FileChange.MODIFIED;
+import static com.jefftharris.passwdsafe.sync.lib.DbFile.FileChange.NO_CHANGE;
+import static com.jefftharris.passwdsafe.sync.lib.DbFile.FileChange.REMOVED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for applying remote changes to the database files
+ */
+public class SyncRemoteChangesTest
+{
+    private final List<DbFile> itsDbFiles = Arrays.asList(
+            SyncTestUtils.createDbFile(1, "/a.psafe3", NO_CHANGE, NO_CHANGE),
+            SyncTestUtils.createDbFile(2, "/dir/b.psafe3", NO_CHANGE,
+                                       MODIFIED),
+            SyncTestUtils.createDbFile(3, "/c.psafe3", MODIFIED, ADDED),
+            SyncTestUtils.createDbFile(4, "/d.psafe3", NO_CHANGE, REMOVED),
+            SyncTestUtils.createDbFile(5, null, ADDED, NO_CHANGE));
+
+    @Test
+    public void testNoChanges()
+    {
+        SyncRemoteFiles files = new SyncRemoteChanges().getRemoteFiles(
+                itsDbFiles);
+
+        assertEquals(3, countFiles(files));
+        assertDbFile(files, itsDbFiles.get(0));
+        assertDbFile(files, itsDbFiles.get(1));
+        assertDbFile(files, itsDbFiles.get(2));
+        assertNull(files.getRemoteFile("/d.psafe3"));
+    }
+
+    @Test
+    public void testChangedFile()
+    {
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        ProviderRemoteFile changed =
+                SyncTestUtils.createRemoteFile("/dir/b.psafe3", 5000);
+        changes.addChangedFile(changed);
+        SyncRemoteFiles files = changes.getRemoteFiles(itsDbFiles);
+
+        assertEquals(3, countFiles(files));
+        assertDbFile(files, itsDbFiles.get(0));
+        assertSame(changed, files.getRemoteFile("/dir/b.psafe3"));
+        assertDbFile(files, itsDbFiles.get(2));
+    }
+
+    @Test
+    public void testChangedUnknownFile()
+    {
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        changes.addChangedFile(
+                SyncTestUtils.createRemoteFile("/other.psafe3", 5000));
+        SyncRemoteFiles files = changes.getRemoteFiles(itsDbFiles);
+
+        assertEquals(3, countFiles(files));
+        assertNull(files.getRemoteFile("/other.psafe3"));
+    }
+
+    @Test
+    public void testRemovedFile()
+    {
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        changes.addRemovedFile("/a.psafe3");
+        SyncRemoteFiles files = changes.getRemoteFiles(itsDbFiles);
+
+        assertEquals(2, countFiles(files));
+        assertNull(files.getRemoteFile("/a.psafe3"));
+    }
+
+    @Test
+    public void testRemovedThenReAdded()
+    {
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        ProviderRemoteFile readded =
+                SyncTestUtils.createRemoteFile("/a.psafe3", 6000);
+        changes.addRemovedFile("/a.psafe3");
+        changes.addChangedFile(readded);
+        SyncRemoteFiles files = changes.getRemoteFiles(itsDbFiles);
+
+        assertEquals(3, countFiles(files));
+        assertSame(readded, files.getRemoteFile("/a.psafe3"));
+    }
+
+    @Test
+    public void testChangedThenRemoved()
+    {
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        changes.addChangedFile(
+                SyncTestUtils.createRemoteFile("/a.psafe3", 6000));
+        changes.addRemovedFile("/a.psafe3");
+        SyncRemoteFiles files = changes.getRemoteFiles(itsDbFiles);
+
+        assertEquals(2, countFiles(files));
+        assertNull(files.getRemoteFile("/a.psafe3"));
+    }
+
+    @Test
+    public void testChangedDbRemovedFile()
+    {
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        changes.addChangedFile(
+                SyncTestUtils.createRemoteFile("/d.psafe3", 6000));
+        SyncRemoteFiles files = changes.getRemoteFiles(itsDbFiles);
+
+        assertEquals(3, countFiles(files));
+        assertNull(files.getRemoteFile("/d.psafe3"));
+    }
+
+    @Test
+    public void testCursorAndListing()
+    {
+        SyncRemoteChanges changes = new SyncRemoteChanges();
+        assertNull(changes.getCursor());
+        assertFalse(changes.isListingNeeded());
+
+        changes.setCursor("cursor");
+        changes.setListingNeeded();
+        assertEquals("cursor", changes.getCursor());
+        assertTrue(changes.isListingNeeded());
+    }
+
+    /**
+     * Assert the remote file of a database file is unchanged
+     */
+    private static void assertDbFile(SyncRemoteFiles files, DbFile dbfile)
+    {
+        ProviderRemoteFile remfile = files.getRemoteFile(dbfile.itsRemoteId);
+        assertNotNull(remfile);
+        assertEquals(dbfile.itsRemoteId, remfile.getRemoteId());
+        assertEquals(dbfile.itsRemoteTitle, remfile.getTitle());
+        assertEquals(dbfile.itsRemoteFolder, remfile.getFolder());
+        assertEquals(dbfile.itsRemoteModDate, remfile.getModTime());
+        assertEquals(dbfile.itsRemoteHash, remfile.getHash());
+        assertNull(remfile.getContentHash());
+    }
+
+    /**
+     * Count the remote files
+     */
+    private static int countFiles(SyncRemoteFiles files)
+    {
+        int count = 0;
+        for (ProviderRemoteFile ignored: files.getRemoteFiles()) {
+            ++count;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.lib;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+
+/**
+ * Utilities for the sync tests
+ */
+public final class SyncTestUtils
+{
+    /**
+     * Create a database file for a synced remote file
+     */
+    @NonNull
+    public static DbFile createDbFile(long id,
+                                      String remoteId,
+                                      DbFile.FileChange localChange,
+                                      DbFile.FileChange remoteChange)
+    {
+        String title = null;
+        String folder = null;
+        if (remoteId != null) {
+            int lastSep = remoteId.lastIndexOf(
+                    ProviderRemoteFile.PATH_SEPARATOR);
+            title = remoteId.substring(lastSep + 1);
+            folder = remoteId.substring(0, Math.max(lastSep, 0));
+        }
+        return new DbFile(createCursor(
+                id, "local" + id, title, 1000L * id, 0, folder,
+                localChange.name(), remoteId, title, 2000L * id, 0, folder,
+                remoteChange.name(), "hash" + id, null));
+    }
+
+    /**
+     * Create a database provider with a sync cursor
+     */
+    @NonNull
+    public static DbProvider createDbProvider(String syncCursor)
+    {
+        return new DbProvider(createCursor(
+                1L, "DROPBOX", "acct", 0, "name", null, null, syncCursor));
+    }
+
+    /**
+     * Create a remote file
+     */
+    @NonNull
+    public static ProviderRemoteFile createRemoteFile(String remoteId,
+                                                      long modTime)
+    {
+        return new TestRemoteFile(remoteId, modTime);
+    }
+
+    /**
+     * Create a cursor positioned on a row with the given column values
+     */
+    @NonNull
+    private static Cursor createCursor(Object... values)
+    {
+        return (Cursor)Proxy.newProxyInstance(
+                Cursor.class.getClassLoader(), new Class<?>[] { Cursor.class },
+                (proxy, method, args) -> {
+                    Object value = values[(Integer)args[0]];
+                    return switch (method.getName()) {
+                        case "getLong" -> ((Number)value).longValue();
+                        case "getInt" -> ((Number)value).intValue();
+                        case "getString" -> (String)value;
+                        case "isNull" -> (value == null);
+                        default -> throw new UnsupportedOperationException(
+                                method.getName());
+                    };
+                });
+    }
+
+    /**
+     * A remote file for the tests
+     */
+    private static final class TestRemoteFile implements ProviderRemoteFile
+    {
+        private final String itsRemoteId;
+        private final long itsModTime;
+
+        /**
+         * Constructor
+         */
+        private TestRemoteFile(String remoteId, long modTime)
+        {
+            itsRemoteId = remoteId;
+            itsModTime = modTime;
+        }
+
+        @Override
+        public String getRemoteId()
+        {
+            return itsRemoteId;
+        }
+
+        @Override
+        public String getDisplayPath()
+        {
+            return itsRemoteId;
+        }
+
+        @Override
+        public String getTitle()
+        {
+            return itsRemoteId;
+        }
+
+        @Override
+        public String getFolder()
+        {
+            return "";
+        }
+
+        @Override
+        public long getModTime()
+        {
+            return itsModTime;
+        }
+
+        @Override
+        public String getHash()
+        {
+            return null;
+        }
+
+        @Override
+        public String getContentHash()
+        {
+            return null;
+        }
+
+        @Override
+        public boolean isFolder()
+        {
+            return false;
+        }
+
+        @Override
+        public String toDebugString()
+        {
+            return String.format(Locale.US, "{test: %s}", itsRemoteId);
+        }
+    }
+}
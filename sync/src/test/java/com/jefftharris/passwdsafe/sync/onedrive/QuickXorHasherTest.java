@@ -0,0 +1,85 @@
+/*
+ * Copyright (©) 2026 Jeff Harris <jefftharris@gmail.com>
+ * All rights reserved. Use of the code is allowed under the
+ * Artistic License 2.0 terms, as specified in the LICENSE file
+ * distributed with this code, or available from
+ * http://www.opensource.org/licenses/artistic-license-2.0.php
+ */
+package com.jefftharris.passwdsafe.sync.onedrive;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the OneDrive quickXorHash.  The expected values are from the
+ * reference implementation of the hash.
+ */
+public class QuickXorHasherTest
+{
+    @Rule
+    public TemporaryFolder itsTempDir = new TemporaryFolder();
+
+    private final QuickXorHasher itsHasher = new QuickXorHasher();
+
+    @Test
+    public void testEmpty() throws IOException
+    {
+        assertEquals("AAAAAAAAAAAAAAAAAAAAAAAAAAA=", hash(0));
+    }
+
+    @Test
+    public void testOneByte() throws IOException
+    {
+        assertEquals("AwAAAAAAAAAAAAAAAQAAAAAAAAA=", hash(1));
+    }
+
+    @Test
+    public void testCellWrap() throws IOException
+    {
+        // The 15th byte passes the 160 bits of the value and wraps to the
+        // first cell
+        assertEquals("AlBABDDwARO0gAY7H0ISoHAFL5Q=", hash(15));
+        assertEquals("gl0z1HPQERK0gAY7BEISoHAFL5Q=", hash(20));
+    }
+
+    @Test
+    public void testWidth() throws IOException
+    {
+        // Bytes 160 apart are XORed at the same position
+        assertEquals("7gi7SoTZMRx5gfdODLshn/kHw6o=", hash(160));
+        assertEquals("jQi7SoTZMRx5gfdODbshn/kHw6o=", hash(161));
+        assertEquals("dgD8j0n8sM0aPE5CUJ8tqmilX/E=", hash(1000));
+    }
+
+    @Test
+    public void testReadBuffers() throws IOException
+    {
+        // The file spans several read buffers whose lengths aren't a
+        // multiple of the width
+        assertEquals("UDaz+YSVrQw+YhHrw4BvRPpkJxs=", hash(200000));
+    }
+
+    /**
+     * Hash a file with a pattern of bytes of the given length
+     */
+    private String hash(int len) throws IOException
+    {
+        File file = itsTempDir.newFile();
+        try (OutputStream os =
+                     new BufferedOutputStream(new FileOutputStream(file))) {
+            for (int i = 0; i < len; ++i) {
+                os.write(i * 7 + 3);
+            }
+        }
+        return itsHasher.hash(file);
+    }
+}